@@ -0,0 +1,84 @@
+package com.example.client;
+
+import com.example.dto.CurrencyInfoDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * coins/markets 回應轉為 {@link CurrencyInfoDTO} 清單（getAllCurrencies 的對應流程）。
+ *
+ * <p>{@code streaming} 為目前的 {@link CoingeckoMarketsParser}；{@code tree} 為先前以
+ * {@code readTree} 建立 JSON tree 後逐筆轉換的作法。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarketsParserBenchmark {
+
+  @Param({"3", "250", "2500"})
+  private int coins;
+
+  private ObjectMapper objectMapper;
+  private CoingeckoMarketsParser parser;
+  private String body;
+  private Map<String, String> chineseNames;
+
+  @Setup
+  public void setUp() {
+    objectMapper = new ObjectMapper();
+    parser = new CoingeckoMarketsParser(objectMapper);
+    body = MarketsPayloads.markets(coins);
+    chineseNames = MarketsPayloads.chineseNames(coins);
+  }
+
+  @Benchmark
+  public List<CurrencyInfoDTO> streaming() {
+    return parser.parse(body, chineseNames);
+  }
+
+  @Benchmark
+  public List<CurrencyInfoDTO> tree() throws IOException {
+    JsonNode root = objectMapper.readTree(body);
+    List<CurrencyInfoDTO> result = new ArrayList<>();
+    for (JsonNode node : root) {
+      String id = node.path("id").asText();
+      BigDecimal rate = node.path("current_price").decimalValue();
+      String updateAt = ZonedDateTime.parse(node.path("last_updated").asText())
+          .withZoneSameInstant(ZoneId.of("Asia/Taipei"))
+          .format(DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"));
+
+      CurrencyInfoDTO dto = new CurrencyInfoDTO();
+      dto.setUpdateAt(updateAt);
+      dto.setCurrency(id);
+      dto.setChineseName(chineseNames.getOrDefault(id, ""));
+      dto.setRate(rate);
+      result.add(dto);
+    }
+    result.sort(Comparator.comparing(CurrencyInfoDTO::getCurrency));
+    return result;
+  }
+}
@@ -0,0 +1,62 @@
+package com.example.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 以 {@code coingecko/markets-3.json} 的實際回應為樣板，產生指定幣別數的 coins/markets 回應。
+ *
+ * <p>前 3 筆為原始資料，其餘複製樣板並改用 {@code coin-N} 作為 ID、微調價格，欄位與大小與實際回應相同。
+ */
+public final class MarketsPayloads {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private MarketsPayloads() {
+  }
+
+  public static String markets(int coins) {
+    ArrayNode template = template();
+    ArrayNode result = MAPPER.createArrayNode();
+    for (int i = 0; i < coins; i++) {
+      ObjectNode coin = ((ObjectNode) template.get(i % template.size())).deepCopy();
+      if (i >= template.size()) {
+        coin.put("id", "coin-" + i);
+        coin.put("current_price",
+            coin.get("current_price").decimalValue().add(BigDecimal.valueOf(i, 4)));
+      }
+      result.add(coin);
+    }
+    try {
+      return MAPPER.writeValueAsString(result);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public static Map<String, String> chineseNames(int coins) {
+    ArrayNode template = template();
+    Map<String, String> names = new LinkedHashMap<>();
+    for (int i = 0; i < coins; i++) {
+      String id = i < template.size() ? template.get(i).get("id").asText() : "coin-" + i;
+      names.put(id, "幣別" + i);
+    }
+    return names;
+  }
+
+  private static ArrayNode template() {
+    try (InputStream in = MarketsPayloads.class.getClassLoader()
+        .getResourceAsStream("coingecko/markets-3.json")) {
+      return (ArrayNode) MAPPER.readTree(in);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package com.example.client;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * last_updated 轉台北時間字串：目前的 {@link CoingeckoMarketsParser#formatToTaipeiTime(String)}
+ * 與每次建立 ZoneId / formatter 的原始作法。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaipeiTimeBenchmark {
+
+  private String lastUpdated = "2025-04-13T06:20:24.374Z";
+
+  @Benchmark
+  public String cachedFormatter() {
+    return CoingeckoMarketsParser.formatToTaipeiTime(lastUpdated);
+  }
+
+  @Benchmark
+  public String perCallFormatter() {
+    return ZonedDateTime.parse(lastUpdated)
+        .withZoneSameInstant(ZoneId.of("Asia/Taipei"))
+        .format(DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"));
+  }
+}
@@ -0,0 +1,85 @@
+package com.example.service;
+
+import com.example.client.CoingeckoMarketsParser;
+import com.example.client.MarketsPayloads;
+import com.example.dto.AlertNotificationDTO;
+import com.example.dto.CurrencyInfoDTO;
+import com.example.model.AlertCondition;
+import com.example.model.AlertRule;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 每次快照的提醒評估耗時：250 個幣別，規則門檻分布於市價 ±10%，快照間價格交替漲跌 1%。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlertEngineBenchmark {
+
+  private static final AlertCondition[] CONDITIONS = {
+      AlertCondition.PRICE_ABOVE, AlertCondition.PRICE_BELOW, AlertCondition.CHANGE_PERCENT};
+
+  @Param({"100000", "1000000"})
+  private int rules;
+
+  private AlertEngine engine;
+  private List<CurrencyInfoDTO> low;
+  private List<CurrencyInfoDTO> high;
+  private long fetchedAt;
+
+  @Setup
+  public void setUp() {
+    low = new CoingeckoMarketsParser(new ObjectMapper())
+        .parse(MarketsPayloads.markets(250), MarketsPayloads.chineseNames(250));
+    high = new ArrayList<>(low.size());
+    for (CurrencyInfoDTO dto : low) {
+      CurrencyInfoDTO raised = new CurrencyInfoDTO();
+      raised.setCurrency(dto.getCurrency());
+      raised.setRate(dto.getRate().multiply(new BigDecimal("1.01")));
+      high.add(raised);
+    }
+    engine = new AlertEngine(null, null, null);
+    Random random = new Random(42);
+    for (long id = 1; id <= rules; id++) {
+      CurrencyInfoDTO coin = low.get(random.nextInt(low.size()));
+      AlertCondition condition = CONDITIONS[random.nextInt(CONDITIONS.length)];
+      BigDecimal threshold = condition == AlertCondition.CHANGE_PERCENT
+          ? BigDecimal.valueOf(1 + random.nextInt(2000), 2)
+          : coin.getRate().multiply(BigDecimal.valueOf(900 + random.nextInt(200), 3))
+              .setScale(8, RoundingMode.HALF_EVEN);
+      AlertRule rule = new AlertRule(coin.getCurrency(), condition, threshold,
+          condition == AlertCondition.CHANGE_PERCENT ? 5 : null);
+      rule.setId(id);
+      engine.register(rule);
+    }
+  }
+
+  @Benchmark
+  public List<AlertNotificationDTO> evaluate() {
+    fetchedAt += 30_000L;
+    List<CurrencyInfoDTO> currencies = (fetchedAt / 30_000L) % 2 == 0 ? low : high;
+    return engine.evaluate(new CurrencySnapshot(fetchedAt, 1L, fetchedAt, "[]", currencies,
+        Collections.emptyList(), 0L));
+  }
+}
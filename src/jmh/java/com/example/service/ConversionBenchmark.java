@@ -0,0 +1,69 @@
+package com.example.service;
+
+import com.example.client.CoingeckoMarketsParser;
+import com.example.client.MarketsPayloads;
+import com.example.dto.ConversionRequestDTO;
+import com.example.dto.ConversionResponseDTO;
+import com.example.dto.CurrencyInfoDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * POST /convert 的換算本身（不含 JSON 解析與序列化），2500 個幣別間隨機換算。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionBenchmark {
+
+  @Param({"1000", "100000"})
+  private int lines;
+
+  @Param({"1", "4096"})
+  private int parallelThreshold;
+
+  private ConversionService service;
+  private CurrencySnapshot snapshot;
+  private List<ConversionRequestDTO> requests;
+
+  @Setup
+  public void setUp() {
+    List<CurrencyInfoDTO> currencies = new CoingeckoMarketsParser(new ObjectMapper())
+        .parse(MarketsPayloads.markets(2500), MarketsPayloads.chineseNames(2500));
+    snapshot = new CurrencySnapshot(1L, 1L, 0L, "[]", currencies, Collections.emptyList(), 0L);
+    service = new ConversionService(Integer.MAX_VALUE, parallelThreshold);
+    Random random = new Random(42);
+    requests = new ArrayList<>(lines);
+    for (int i = 0; i < lines; i++) {
+      String from = currencies.get(random.nextInt(currencies.size())).getCurrency();
+      String to = i % 4 == 0 ? "twd" : currencies.get(random.nextInt(currencies.size()))
+          .getCurrency();
+      requests.add(new ConversionRequestDTO(from, to,
+          BigDecimal.valueOf(random.nextInt(1_000_000), random.nextInt(6))));
+    }
+  }
+
+  @Benchmark
+  public ConversionResponseDTO convert() {
+    return service.convert(snapshot, requests);
+  }
+}
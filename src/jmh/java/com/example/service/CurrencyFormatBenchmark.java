@@ -0,0 +1,98 @@
+package com.example.service;
+
+import com.example.client.CoingeckoMarketsParser;
+import com.example.client.MarketsPayloads;
+import com.example.dto.CurrencyInfoDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * /currencies 各回應格式（JSON、Smile、CBOR）的編碼、解碼耗時與內容大小。
+ *
+ * <p>內容大小以 {@code payloadBytes} 輔助計數器輸出（每次迭代結束時的值）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurrencyFormatBenchmark {
+
+  @Param({"250", "2500"})
+  private int coins;
+
+  @Param({"json", "smile", "cbor"})
+  private String format;
+
+  private ObjectWriter writer;
+  private ObjectReader reader;
+  private List<CurrencyInfoDTO> currencies;
+  private byte[] encoded;
+
+  @Setup
+  public void setUp() throws IOException {
+    Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+    if ("smile".equals(format)) {
+      builder.factory(new SmileFactory());
+    } else if ("cbor".equals(format)) {
+      builder.factory(new CBORFactory());
+    }
+    ObjectMapper objectMapper = builder.build();
+    CollectionType listType = objectMapper.getTypeFactory()
+        .constructCollectionType(List.class, CurrencyInfoDTO.class);
+    writer = objectMapper.writerFor(listType);
+    reader = objectMapper.readerFor(listType);
+    currencies = new CoingeckoMarketsParser(Jackson2ObjectMapperBuilder.json().build())
+        .parse(MarketsPayloads.markets(coins), MarketsPayloads.chineseNames(coins));
+    encoded = writer.writeValueAsBytes(currencies);
+  }
+
+  /**
+   * 輸出編碼後的內容大小。
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class PayloadSize {
+
+    public long payloadBytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      payloadBytes = 0;
+    }
+  }
+
+  @Benchmark
+  public byte[] encode(PayloadSize size) throws IOException {
+    byte[] bytes = writer.writeValueAsBytes(currencies);
+    size.payloadBytes = bytes.length;
+    return bytes;
+  }
+
+  @Benchmark
+  public List<CurrencyInfoDTO> decode() throws IOException {
+    return reader.readValue(encoded);
+  }
+}
@@ -0,0 +1,54 @@
+package com.example.service;
+
+import com.example.client.CoingeckoMarketsParser;
+import com.example.client.MarketsPayloads;
+import com.example.dto.CurrencyInfoDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * /currencies 回應的 DTO 序列化，使用與 Spring MVC 相同設定的 ObjectMapper。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurrencySerializationBenchmark {
+
+  @Param({"3", "250", "2500"})
+  private int coins;
+
+  private ObjectWriter writer;
+  private List<CurrencyInfoDTO> currencies;
+
+  @Setup
+  public void setUp() {
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    writer = objectMapper.writerFor(objectMapper.getTypeFactory()
+        .constructCollectionType(List.class, CurrencyInfoDTO.class));
+    currencies = new CoingeckoMarketsParser(objectMapper)
+        .parse(MarketsPayloads.markets(coins), MarketsPayloads.chineseNames(coins));
+  }
+
+  @Benchmark
+  public byte[] serialize() throws JsonProcessingException {
+    return writer.writeValueAsBytes(currencies);
+  }
+}
@@ -0,0 +1,149 @@
+package com.example.client;
+
+import com.example.exception.UpstreamCircuitOpenException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 將大量幣別拆成多個批次，以有限的執行緒並行查詢 coins/markets 後依序合併。
+ *
+ * <p>部分批次失敗時仍回傳成功批次的資料並標示失敗批次；全部失敗時才拋出第一個錯誤。
+ * 送出前一次預留所有批次的呼叫額度，額度不足時整次更新失敗，不會因額度只取得部分批次而
+ * 產生缺少幣別的快照（{@code coindesk.upstream.rate-limit.capacity} 需足以容納所有批次）。
+ * 斷路器未關閉時先單獨送出第一個批次作為試探呼叫，成功後才並行查詢其餘批次；任一批次被斷路器
+ * 拒絕時同樣整次更新失敗，不以少數批次的資料發布快照。
+ */
+@Component
+public class ChunkedMarketsFetcher {
+
+  private static final Logger log = LoggerFactory.getLogger(ChunkedMarketsFetcher.class);
+
+  /**
+   * CoinGecko coins/markets 單頁最多 250 筆。
+   */
+  static final int MAX_CHUNK_SIZE = 250;
+
+  private final CoingeckoClient coingeckoClient;
+  private final UpstreamCircuitBreaker circuitBreaker;
+  private final int chunkSize;
+  private final ThreadPoolExecutor executor;
+
+  public ChunkedMarketsFetcher(CoingeckoClient coingeckoClient,
+      UpstreamCircuitBreaker circuitBreaker,
+      @Value("${coindesk.upstream.chunk-size:250}") int chunkSize,
+      @Value("${coindesk.upstream.fetch-parallelism:4}") int parallelism) {
+    this.coingeckoClient = coingeckoClient;
+    this.circuitBreaker = circuitBreaker;
+    this.chunkSize = Math.max(1, Math.min(chunkSize, MAX_CHUNK_SIZE));
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(parallelism * 16), r -> {
+          Thread thread = new Thread(r, "coingecko-fetch-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * 分批查詢指定幣別的市價資料。
+   *
+   * @param ids      幣別 ID 清單
+   * @param priority 呼叫優先順序
+   * @return 各批次查詢結果
+   * @throws com.example.exception.UpstreamThrottledException 額度不足以查詢所有批次
+   * @throws UpstreamCircuitOpenException 斷路器拒絕任一批次
+   */
+  public MarketsFetchResult fetch(Collection<String> ids, UpstreamPriority priority) {
+    List<List<String>> chunks = split(ids, chunkSize);
+    if (chunks.isEmpty()) {
+      return new MarketsFetchResult(new ArrayList<>(), new ArrayList<>());
+    }
+    if (chunks.size() == 1) {
+      String body = coingeckoClient.fetchMarkets(chunks.get(0), priority);
+      List<MarketsChunkStatus> statuses = new ArrayList<>(1);
+      statuses.add(MarketsChunkStatus.succeeded(0, chunks.get(0).size()));
+      List<String> bodies = new ArrayList<>(1);
+      bodies.add(body);
+      return new MarketsFetchResult(bodies, statuses);
+    }
+
+    coingeckoClient.reserve(priority, chunks.size());
+    List<CompletableFuture<String>> futures = new ArrayList<>(chunks.size());
+    int first = 0;
+    if (circuitBreaker.getState() != UpstreamCircuitBreaker.State.CLOSED) {
+      // 試探呼叫失敗時直接拋出，整次更新失敗
+      futures.add(CompletableFuture.completedFuture(
+          coingeckoClient.fetchMarkets(chunks.get(0), priority, true)));
+      first = 1;
+    }
+    for (List<String> chunk : chunks.subList(first, chunks.size())) {
+      futures.add(CompletableFuture.supplyAsync(
+          () -> coingeckoClient.fetchMarkets(chunk, priority, true), executor));
+    }
+
+    List<String> bodies = new ArrayList<>(chunks.size());
+    List<MarketsChunkStatus> statuses = new ArrayList<>(chunks.size());
+    RuntimeException firstFailure = null;
+    UpstreamCircuitOpenException rejected = null;
+    Set<String> failedIds = new HashSet<>();
+    for (int i = 0; i < futures.size(); i++) {
+      int size = chunks.get(i).size();
+      try {
+        bodies.add(futures.get(i).join());
+        statuses.add(MarketsChunkStatus.succeeded(i, size));
+      } catch (CompletionException e) {
+        Throwable cause = e.getCause() == null ? e : e.getCause();
+        log.warn("CoinGecko markets chunk {}/{} failed: {}", i + 1, chunks.size(),
+            cause.getMessage());
+        statuses.add(MarketsChunkStatus.failed(i, size, cause));
+        failedIds.addAll(chunks.get(i));
+        if (firstFailure == null) {
+          firstFailure = cause instanceof RuntimeException ? (RuntimeException) cause : e;
+        }
+        if (rejected == null && cause instanceof UpstreamCircuitOpenException) {
+          rejected = (UpstreamCircuitOpenException) cause;
+        }
+      }
+    }
+    if (rejected != null) {
+      throw rejected;
+    }
+    if (bodies.isEmpty()) {
+      throw firstFailure;
+    }
+    return new MarketsFetchResult(bodies, statuses, failedIds);
+  }
+
+  /**
+   * 將幣別 ID 排序、去重後依批次大小切分。
+   */
+  static List<List<String>> split(Collection<String> ids, int chunkSize) {
+    List<String> sorted = new ArrayList<>(new TreeSet<>(ids));
+    List<List<String>> chunks = new ArrayList<>();
+    for (int from = 0; from < sorted.size(); from += chunkSize) {
+      chunks.add(sorted.subList(from, Math.min(from + chunkSize, sorted.size())));
+    }
+    return chunks;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,351 @@
+package com.example.client;
+
+import static com.example.common.ErrorMessages.UPSTREAM_RATE_LIMITED;
+
+import com.example.exception.UpstreamThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * CoinGecko 公開 API 呼叫端，僅負責組出請求並取回原始回應內容。
+ *
+ * <p>相同幣別組合與計價幣別的並行請求會合併為一次上游呼叫；實際送出前須先通過
+ * {@link UpstreamCircuitBreaker} 並取得 {@link UpstreamRateLimiter} 的呼叫額度。
+ *
+ * <p>呼叫超過近期成功呼叫耗時的指定百分位數仍未回應時，若額度允許會再送出一次相同請求
+ * （hedged request），採用先成功的回應；較慢的一方不中斷，由整體逾時限制其執行時間。
+ */
+@Component
+public class CoingeckoClient {
+
+  private static final Logger log = LoggerFactory.getLogger(CoingeckoClient.class);
+
+  private static final String DEFAULT_VS_CURRENCY = "twd";
+
+  private final UpstreamHttpClient httpClient;
+  private final UpstreamRateLimiter rateLimiter;
+  private final UpstreamCircuitBreaker circuitBreaker;
+  private final String baseUrl;
+  private final boolean hedgeEnabled;
+  private final double hedgePercentile;
+  private final long hedgeMinDelayMs;
+  private final LatencyTracker latencies;
+  private final SingleFlight<MarketsKey, String> marketsFlight = new SingleFlight<>();
+  private final SingleFlight<String, String> exchangeRatesFlight = new SingleFlight<>();
+  private final SingleFlight<String, String> coinsListFlight = new SingleFlight<>();
+  private final Counter hedgesSent;
+  private final Counter hedgesWon;
+  private final ExecutorService hedgeExecutor;
+
+  public CoingeckoClient(UpstreamHttpClient httpClient, UpstreamRateLimiter rateLimiter,
+      UpstreamCircuitBreaker circuitBreaker, MeterRegistry meterRegistry,
+      @Value("${coindesk.upstream.base-url:https://api.coingecko.com/api/v3}") String baseUrl,
+      @Value("${coindesk.upstream.hedge.enabled:true}") boolean hedgeEnabled,
+      @Value("${coindesk.upstream.hedge.percentile:0.95}") double hedgePercentile,
+      @Value("${coindesk.upstream.hedge.min-delay-ms:200}") long hedgeMinDelayMs,
+      @Value("${coindesk.upstream.hedge.min-samples:20}") int hedgeMinSamples) {
+    this.httpClient = httpClient;
+    this.rateLimiter = rateLimiter;
+    this.circuitBreaker = circuitBreaker;
+    this.baseUrl = baseUrl;
+    this.hedgeEnabled = hedgeEnabled;
+    this.hedgePercentile = hedgePercentile;
+    this.hedgeMinDelayMs = hedgeMinDelayMs;
+    this.latencies = new LatencyTracker(Math.max(128, hedgeMinSamples), hedgeMinSamples);
+    AtomicInteger threadCount = new AtomicInteger();
+    this.hedgeExecutor = Executors.newCachedThreadPool(r -> {
+      Thread thread = new Thread(r, "coingecko-call-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    bindMetrics(meterRegistry, "markets", marketsFlight);
+    bindMetrics(meterRegistry, "exchange_rates", exchangeRatesFlight);
+    bindMetrics(meterRegistry, "coins_list", coinsListFlight);
+    this.hedgesSent = Counter.builder("coindesk.upstream.hedge.calls")
+        .description("Hedged upstream requests")
+        .tags("request", "markets", "result", "sent")
+        .register(meterRegistry);
+    this.hedgesWon = Counter.builder("coindesk.upstream.hedge.calls")
+        .description("Hedged upstream requests")
+        .tags("request", "markets", "result", "won")
+        .register(meterRegistry);
+  }
+
+  /**
+   * 查詢指定幣別的市價資料（coins/markets），幣別數量不得超過 CoinGecko 單頁上限（250）。
+   *
+   * @param ids      幣別 ID 清單
+   * @param priority 呼叫優先順序
+   * @return CoinGecko 原始回應資料
+   * @throws com.example.exception.UpstreamThrottledException 額度不足或上游回應 429
+   * @throws com.example.exception.ServiceUnavailableException 斷路器開啟中
+   */
+  public String fetchMarkets(Collection<String> ids, UpstreamPriority priority) {
+    return fetchMarkets(ids, priority, false);
+  }
+
+  /**
+   * @param reserved 是否已以 {@link #reserve} 預留這次呼叫的額度
+   * @see #fetchMarkets(Collection, UpstreamPriority)
+   */
+  public String fetchMarkets(Collection<String> ids, UpstreamPriority priority,
+      boolean reserved) {
+    MarketsKey key = new MarketsKey(ids, DEFAULT_VS_CURRENCY);
+    return marketsFlight.execute(key, () -> call(priority, reserved, true, "coins/markets",
+        baseUrl + "/coins/markets?vs_currency=" + key.vsCurrency
+            + "&per_page=" + key.ids.size() + "&page=1&ids=" + String.join(",", key.ids)));
+  }
+
+  /**
+   * 一次預留多次呼叫的額度（全部取得或全部不取得），之後的呼叫以 {@code reserved=true} 送出。
+   *
+   * @throws com.example.exception.UpstreamThrottledException 額度不足或退避中
+   */
+  public void reserve(UpstreamPriority priority, int permits) {
+    rateLimiter.acquire(priority, permits);
+  }
+
+  /**
+   * 查詢以 BTC 為基準的各幣別參考匯率（exchange_rates），用於換算其他計價幣別。
+   *
+   * @param priority 呼叫優先順序
+   * @return CoinGecko 原始回應資料
+   * @throws com.example.exception.UpstreamThrottledException 額度不足或上游回應 429
+   * @throws com.example.exception.ServiceUnavailableException 斷路器開啟中
+   */
+  public String fetchExchangeRates(UpstreamPriority priority) {
+    return exchangeRatesFlight.execute("exchange_rates",
+        () -> call(priority, false, true, "exchange_rates", baseUrl + "/exchange_rates"));
+  }
+
+  /**
+   * 查詢 CoinGecko 所有幣別的 ID、代號與名稱（coins/list），回應約 1 MB；不送出 hedged request，
+   * 耗時也不計入 hedge 的樣本。
+   *
+   * @param priority 呼叫優先順序
+   * @return CoinGecko 原始回應資料
+   * @throws com.example.exception.UpstreamThrottledException 額度不足或上游回應 429
+   * @throws com.example.exception.ServiceUnavailableException 斷路器開啟中
+   */
+  public String fetchCoinsList(UpstreamPriority priority) {
+    return coinsListFlight.execute("coins_list",
+        () -> call(priority, false, false, "coins/list", baseUrl + "/coins/list"));
+  }
+
+  /**
+   * @param hedge 是否可送出 hedged request 並以耗時更新 {@link #hedgeDelayMs()} 的樣本；
+   *              回應大小與一般查詢差異很大的端點（coins/list）不使用
+   */
+  private String call(UpstreamPriority priority, boolean reserved, boolean hedge,
+      String endpoint, String url) {
+    circuitBreaker.acquirePermission();
+    if (!reserved) {
+      try {
+        rateLimiter.acquire(priority);
+      } catch (UpstreamThrottledException e) {
+        circuitBreaker.release();
+        throw e;
+      }
+    }
+    log.info("Fetching data from CoinGecko API: {}", url);
+    if (!hedge) {
+      return get(endpoint, url, false);
+    }
+    return hedged(priority, () -> get(endpoint, url, true));
+  }
+
+  /**
+   * @return 觸發 hedged request 的等待時間（毫秒），未啟用或樣本不足時回傳 -1
+   */
+  long hedgeDelayMs() {
+    if (!hedgeEnabled) {
+      return -1L;
+    }
+    long percentile = latencies.percentile(hedgePercentile);
+    return percentile < 0 ? -1L : Math.max(hedgeMinDelayMs, percentile);
+  }
+
+  private String hedged(UpstreamPriority priority, Supplier<String> call) {
+    long delayMs = hedgeDelayMs();
+    if (delayMs < 0) {
+      return call.get();
+    }
+    CompletableFuture<String> primary = CompletableFuture.supplyAsync(call, hedgeExecutor);
+    try {
+      return primary.get(delayMs, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      // 主要請求已超過預期耗時，改由下方送出 hedged request
+    } catch (ExecutionException e) {
+      throw unwrap(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ResourceAccessException("Interrupted while waiting for CoinGecko");
+    }
+    if (!rateLimiter.tryAcquire(priority)) {
+      return join(primary);
+    }
+    hedgesSent.increment();
+    CompletableFuture<String> hedge = CompletableFuture.supplyAsync(call, hedgeExecutor);
+    CompletableFuture<String> first = new CompletableFuture<>();
+    AtomicInteger failures = new AtomicInteger();
+    primary.whenComplete((body, error) -> complete(first, body, error, failures));
+    hedge.whenComplete((body, error) -> {
+      if (error == null && first.complete(body)) {
+        hedgesWon.increment();
+      } else {
+        complete(first, body, error, failures);
+      }
+    });
+    return join(first);
+  }
+
+  private static void complete(CompletableFuture<String> first, String body, Throwable error,
+      AtomicInteger failures) {
+    if (error == null) {
+      first.complete(body);
+    } else if (failures.incrementAndGet() == 2) {
+      first.completeExceptionally(error);
+    }
+  }
+
+  private static String join(CompletableFuture<String> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      throw unwrap(e.getCause());
+    }
+  }
+
+  private static RuntimeException unwrap(Throwable cause) {
+    if (cause instanceof CompletionException && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause instanceof RuntimeException ? (RuntimeException) cause
+        : new ResourceAccessException("CoinGecko call failed: " + cause.getMessage());
+  }
+
+  private String get(String endpoint, String url, boolean tracked) {
+    long start = System.nanoTime();
+    try {
+      String body = httpClient.get(endpoint, url).getBodyAsString();
+      if (tracked) {
+        latencies.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      }
+      circuitBreaker.onSuccess();
+      rateLimiter.onSuccess();
+      return body;
+    } catch (HttpClientErrorException e) {
+      // 4xx 代表上游仍正常回應，不計入斷路器失敗次數
+      circuitBreaker.onSuccess();
+      if (e.getStatusCode() != HttpStatus.TOO_MANY_REQUESTS) {
+        throw e;
+      }
+      HttpHeaders headers = e.getResponseHeaders();
+      long waitMs = rateLimiter.onThrottled(
+          headers == null ? null : headers.getFirst(HttpHeaders.RETRY_AFTER));
+      throw new UpstreamThrottledException(UPSTREAM_RATE_LIMITED, waitMs);
+    } catch (RestClientException e) {
+      circuitBreaker.onFailure();
+      throw e;
+    }
+  }
+
+  /**
+   * @return coins/markets 請求合併統計
+   */
+  public SingleFlight<?, ?> getMarketsFlight() {
+    return marketsFlight;
+  }
+
+  private static void bindMetrics(MeterRegistry registry, String request,
+      SingleFlight<?, ?> flight) {
+    FunctionCounter.builder("coindesk.upstream.singleflight.calls", flight,
+            SingleFlight::getExecutions)
+        .description("Upstream calls actually sent")
+        .tags("request", request, "result", "executed")
+        .register(registry);
+    FunctionCounter.builder("coindesk.upstream.singleflight.calls", flight,
+            SingleFlight::getCoalesced)
+        .description("Callers that joined an in-flight upstream call")
+        .tags("request", request, "result", "coalesced")
+        .register(registry);
+    Gauge.builder("coindesk.upstream.singleflight.in.flight", flight, SingleFlight::getInFlight)
+        .tags("request", request)
+        .register(registry);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    hedgeExecutor.shutdownNow();
+  }
+
+  /**
+   * 以排序、去重後的幣別 ID 與計價幣別作為合併 key。
+   */
+  static final class MarketsKey {
+
+    private final List<String> ids;
+    private final String vsCurrency;
+
+    MarketsKey(Collection<String> ids, String vsCurrency) {
+      TreeSet<String> normalized = new TreeSet<>();
+      for (String id : ids) {
+        normalized.add(id.trim().toLowerCase(Locale.ROOT));
+      }
+      this.ids = new ArrayList<>(normalized);
+      this.vsCurrency = vsCurrency.toLowerCase(Locale.ROOT);
+    }
+
+    List<String> ids() {
+      return ids;
+    }
+
+    String vsCurrency() {
+      return vsCurrency;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof MarketsKey)) {
+        return false;
+      }
+      MarketsKey that = (MarketsKey) o;
+      return ids.equals(that.ids) && vsCurrency.equals(that.vsCurrency);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(ids, vsCurrency);
+    }
+  }
+}
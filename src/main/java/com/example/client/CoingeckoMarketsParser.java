@@ -0,0 +1,164 @@
+package com.example.client;
+
+import static com.example.common.ErrorMessages.COINGECKO_NO_DATA;
+import static com.example.common.ErrorMessages.COINGECKO_PARSE_ERROR;
+
+import com.example.dto.CurrencyInfoDTO;
+import com.example.exception.UpstreamResponseException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 以串流方式解析 CoinGecko coins/markets 回應，一次走訪即完成驗證與轉換。
+ *
+ * <p>僅讀取 {@code id}、{@code current_price}、{@code last_updated} 三個欄位，
+ * 其餘欄位直接略過，不建立 JSON tree。
+ */
+@Component
+public class CoingeckoMarketsParser {
+
+  private static final Logger log = LoggerFactory.getLogger(CoingeckoMarketsParser.class);
+
+  private static final ZoneId TAIPEI = ZoneId.of("Asia/Taipei");
+  private static final DateTimeFormatter UPDATE_AT_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss").withZone(TAIPEI);
+
+  private final JsonFactory jsonFactory;
+
+  public CoingeckoMarketsParser(ObjectMapper objectMapper) {
+    this.jsonFactory = objectMapper.getFactory();
+  }
+
+  /**
+   * 解析回應並轉換為依幣別排序的 {@link CurrencyInfoDTO} 清單。
+   *
+   * @param rawData               CoinGecko 原始回應資料
+   * @param currencyToChineseName 幣別與中文名稱對應
+   * @return 幣別資訊清單
+   */
+  public List<CurrencyInfoDTO> parse(String rawData, Map<String, String> currencyToChineseName) {
+    return parse(Collections.singletonList(rawData), currencyToChineseName);
+  }
+
+  /**
+   * 解析多個分批回應並合併為依幣別排序的 {@link CurrencyInfoDTO} 清單。
+   *
+   * @param bodies                各批次的 CoinGecko 原始回應資料
+   * @param currencyToChineseName 幣別與中文名稱對應
+   * @return 幣別資訊清單
+   */
+  public List<CurrencyInfoDTO> parse(List<String> bodies,
+      Map<String, String> currencyToChineseName) {
+    List<CurrencyInfoDTO> result = new ArrayList<>(currencyToChineseName.size());
+    try {
+      for (String body : bodies) {
+        parseInto(body, currencyToChineseName, result);
+      }
+    } catch (IOException | DateTimeParseException e) {
+      log.error("Failed to parse CoinGecko response", e);
+      throw new UpstreamResponseException(COINGECKO_PARSE_ERROR, e);
+    }
+    if (result.isEmpty()) {
+      throw new UpstreamResponseException(COINGECKO_NO_DATA);
+    }
+    result.sort(Comparator.comparing(CurrencyInfoDTO::getCurrency));
+    return result;
+  }
+
+  private void parseInto(String rawData, Map<String, String> currencyToChineseName,
+      List<CurrencyInfoDTO> result) throws IOException {
+    try (JsonParser parser = jsonFactory.createParser(rawData)) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw new IOException("Expected a JSON array but got " + parser.currentToken());
+      }
+      JsonToken token;
+      while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+        if (token != JsonToken.START_OBJECT) {
+          throw new IOException("Expected a JSON object but got " + token);
+        }
+        result.add(readCoin(parser, currencyToChineseName));
+      }
+    }
+  }
+
+  private CurrencyInfoDTO readCoin(JsonParser parser, Map<String, String> currencyToChineseName)
+      throws IOException {
+    String id = null;
+    BigDecimal rate = null;
+    String lastUpdated = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      switch (field) {
+        case "id":
+          id = parser.getValueAsString();
+          break;
+        case "current_price":
+          rate = value == JsonToken.VALUE_NULL ? null : parser.getDecimalValue();
+          break;
+        case "last_updated":
+          lastUpdated = parser.getValueAsString();
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    if (id == null) {
+      throw new IOException("CoinGecko market entry without id");
+    }
+
+    CurrencyInfoDTO dto = new CurrencyInfoDTO();
+    dto.setUpdateAt(lastUpdated == null ? null : formatToTaipeiTime(lastUpdated));
+    dto.setCurrency(id);
+    dto.setChineseName(currencyToChineseName.getOrDefault(id, ""));
+    dto.setRate(rate);
+    return dto;
+  }
+
+  /**
+   * 將 CoinGecko 的 ISO-8601 時間轉為台北時間字串（yyyy/MM/dd HH:mm:ss）。
+   */
+  public static String formatToTaipeiTime(String lastUpdated) {
+    return formatToTaipeiTime(parseInstant(lastUpdated));
+  }
+
+  /**
+   * 將時間點轉為台北時間字串（yyyy/MM/dd HH:mm:ss）。
+   */
+  public static String formatToTaipeiTime(Instant instant) {
+    return UPDATE_AT_FORMATTER.format(instant);
+  }
+
+  /**
+   * 將 {@link #formatToTaipeiTime(String)} 產生的台北時間字串轉回 epoch millis。
+   */
+  public static long toEpochMillis(String updateAt) {
+    return ZonedDateTime.parse(updateAt, UPDATE_AT_FORMATTER).toInstant().toEpochMilli();
+  }
+
+  static Instant parseInstant(String lastUpdated) {
+    try {
+      return Instant.parse(lastUpdated);
+    } catch (DateTimeParseException e) {
+      // 非 UTC（Z）結尾的時間格式
+      return ZonedDateTime.parse(lastUpdated).toInstant();
+    }
+  }
+}
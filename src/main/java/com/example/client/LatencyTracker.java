@@ -0,0 +1,39 @@
+package com.example.client;
+
+import java.util.Arrays;
+
+/**
+ * 保存最近 {@code capacity} 次呼叫耗時的環狀緩衝，用於估算延遲百分位數。
+ */
+final class LatencyTracker {
+
+  private final long[] samples;
+  private final int minSamples;
+  private int next;
+  private int count;
+
+  LatencyTracker(int capacity, int minSamples) {
+    this.samples = new long[capacity];
+    this.minSamples = minSamples;
+  }
+
+  synchronized void record(long millis) {
+    samples[next] = millis;
+    next = (next + 1) % samples.length;
+    count = Math.min(count + 1, samples.length);
+  }
+
+  /**
+   * @param percentile 0 至 1 之間的百分位數
+   * @return 該百分位數的耗時（毫秒），樣本數不足時回傳 -1
+   */
+  synchronized long percentile(double percentile) {
+    if (count < minSamples) {
+      return -1L;
+    }
+    long[] sorted = Arrays.copyOf(samples, count);
+    Arrays.sort(sorted);
+    int index = (int) Math.ceil(percentile * count) - 1;
+    return sorted[Math.max(0, Math.min(count - 1, index))];
+  }
+}
@@ -0,0 +1,46 @@
+package com.example.client;
+
+/**
+ * 分批查詢 coins/markets 時，單一批次的執行結果。
+ */
+public final class MarketsChunkStatus {
+
+  private final int index;
+  private final int size;
+  private final boolean success;
+  private final String error;
+
+  private MarketsChunkStatus(int index, int size, boolean success, String error) {
+    this.index = index;
+    this.size = size;
+    this.success = success;
+    this.error = error;
+  }
+
+  static MarketsChunkStatus succeeded(int index, int size) {
+    return new MarketsChunkStatus(index, size, true, null);
+  }
+
+  static MarketsChunkStatus failed(int index, int size, Throwable cause) {
+    return new MarketsChunkStatus(index, size, false, cause.getMessage());
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  /**
+   * @return 此批次查詢的幣別數量
+   */
+  public int getSize() {
+    return size;
+  }
+
+  public boolean isSuccess() {
+    return success;
+  }
+
+  public String getError() {
+    return error;
+  }
+}
@@ -0,0 +1,68 @@
+package com.example.client;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 分批查詢 coins/markets 的彙整結果：成功批次的原始回應（依批次順序）、各批次狀態與失敗批次的幣別。
+ */
+public final class MarketsFetchResult {
+
+  private final List<String> bodies;
+  private final List<MarketsChunkStatus> chunks;
+  private final Set<String> failedIds;
+
+  MarketsFetchResult(List<String> bodies, List<MarketsChunkStatus> chunks) {
+    this(bodies, chunks, Collections.emptySet());
+  }
+
+  MarketsFetchResult(List<String> bodies, List<MarketsChunkStatus> chunks,
+      Set<String> failedIds) {
+    this.bodies = Collections.unmodifiableList(bodies);
+    this.chunks = Collections.unmodifiableList(chunks);
+    this.failedIds = Collections.unmodifiableSet(failedIds);
+  }
+
+  public List<String> getBodies() {
+    return bodies;
+  }
+
+  public List<MarketsChunkStatus> getChunks() {
+    return chunks;
+  }
+
+  /**
+   * @return 失敗批次中的幣別 ID，這些幣別沒有本次的市價資料
+   */
+  public Set<String> getFailedIds() {
+    return failedIds;
+  }
+
+  public long getFailedChunkCount() {
+    return chunks.stream().filter(chunk -> !chunk.isSuccess()).count();
+  }
+
+  /**
+   * 將各批次回應的 JSON 陣列合併為單一陣列字串。
+   */
+  public String mergedBody() {
+    if (bodies.size() == 1) {
+      return bodies.get(0);
+    }
+    StringBuilder merged = new StringBuilder();
+    merged.append('[');
+    for (String body : bodies) {
+      String trimmed = body.trim();
+      String elements = trimmed.substring(1, trimmed.length() - 1).trim();
+      if (elements.isEmpty()) {
+        continue;
+      }
+      if (merged.length() > 1) {
+        merged.append(',');
+      }
+      merged.append(elements);
+    }
+    return merged.append(']').toString();
+  }
+}
@@ -0,0 +1,215 @@
+package com.example.client;
+
+import static com.example.common.ErrorMessages.UPSTREAM_RATE_LIMITED;
+
+import com.example.exception.UpstreamCircuitOpenException;
+import com.example.exception.UpstreamThrottledException;
+import io.netty.channel.ChannelOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.UnknownHttpStatusCodeException;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * 非阻塞的 CoinGecko client（WebClient / Reactor Netty），於 {@code coindesk.reactive.enabled=true}
+ * 時啟用。
+ *
+ * <p>與 {@link ChunkedMarketsFetcher} 相同：依批次並行查詢並依序合併，部分批次失敗時回傳其餘結果；
+ * 相同幣別組合的並行請求共用同一個上游呼叫，並與阻塞模式共用 {@link UpstreamCircuitBreaker} 與
+ * {@link UpstreamRateLimiter}。
+ */
+@Component
+@ConditionalOnProperty(name = "coindesk.reactive.enabled", havingValue = "true")
+public class ReactiveCoingeckoClient {
+
+  private static final Logger log = LoggerFactory.getLogger(ReactiveCoingeckoClient.class);
+
+  private static final String DEFAULT_VS_CURRENCY = "twd";
+
+  private final WebClient webClient;
+  private final UpstreamRateLimiter rateLimiter;
+  private final UpstreamCircuitBreaker circuitBreaker;
+  private final int chunkSize;
+  private final int parallelism;
+  private final ConcurrentMap<CoingeckoClient.MarketsKey, Mono<String>> inFlight =
+      new ConcurrentHashMap<>();
+
+  public ReactiveCoingeckoClient(UpstreamRateLimiter rateLimiter,
+      UpstreamCircuitBreaker circuitBreaker,
+      @Value("${coindesk.upstream.base-url:https://api.coingecko.com/api/v3}") String baseUrl,
+      @Value("${coindesk.upstream.chunk-size:250}") int chunkSize,
+      @Value("${coindesk.upstream.fetch-parallelism:4}") int parallelism,
+      @Value("${coindesk.upstream.http.max-connections:20}") int maxConnections,
+      @Value("${coindesk.upstream.http.connect-timeout-ms:2000}") int connectTimeoutMs,
+      @Value("${coindesk.upstream.http.total-timeout-ms:8000}") long totalTimeoutMs) {
+    this.rateLimiter = rateLimiter;
+    this.circuitBreaker = circuitBreaker;
+    this.chunkSize = Math.max(1, Math.min(chunkSize, ChunkedMarketsFetcher.MAX_CHUNK_SIZE));
+    this.parallelism = parallelism;
+    HttpClient httpClient = HttpClient
+        .create(ConnectionProvider.create("coingecko", maxConnections))
+        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+        .responseTimeout(Duration.ofMillis(totalTimeoutMs))
+        .compress(true);
+    this.webClient = WebClient.builder()
+        .baseUrl(baseUrl)
+        .clientConnector(new ReactorClientHttpConnector(httpClient))
+        .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(32 * 1024 * 1024))
+        .build();
+  }
+
+  /**
+   * 分批查詢指定幣別的市價資料。
+   *
+   * @param ids 幣別 ID 清單
+   * @return 各批次查詢結果；全部批次失敗時以第一個錯誤結束，額度不足以查詢所有批次時以
+   *     {@link UpstreamThrottledException} 結束，任一批次被斷路器拒絕時以
+   *     {@link UpstreamCircuitOpenException} 結束
+   */
+  public Mono<MarketsFetchResult> fetchMarkets(Collection<String> ids) {
+    List<List<String>> chunks = ChunkedMarketsFetcher.split(ids, chunkSize);
+    // 非阻塞模式只在快照無法使用時同步取得資料，皆視為使用者請求；一次預留所有批次的額度
+    return Mono.fromRunnable(() -> rateLimiter.acquire(UpstreamPriority.INTERACTIVE,
+            chunks.size()))
+        .thenMany(Flux.range(0, chunks.size()))
+        .flatMapSequential(index -> fetchChunk(chunks.get(index))
+            .map(ChunkResult::succeeded)
+            .onErrorResume(e -> {
+              log.warn("CoinGecko markets chunk {}/{} failed: {}", index + 1, chunks.size(),
+                  e.getMessage());
+              return Mono.just(ChunkResult.failed(e));
+            }), parallelism)
+        .collectList()
+        .flatMap(results -> {
+          List<String> bodies = new ArrayList<>(results.size());
+          List<MarketsChunkStatus> statuses = new ArrayList<>(results.size());
+          Throwable firstFailure = null;
+          Throwable rejected = null;
+          Set<String> failedIds = new HashSet<>();
+          for (int i = 0; i < results.size(); i++) {
+            ChunkResult result = results.get(i);
+            int size = chunks.get(i).size();
+            if (result.error == null) {
+              bodies.add(result.body);
+              statuses.add(MarketsChunkStatus.succeeded(i, size));
+            } else {
+              statuses.add(MarketsChunkStatus.failed(i, size, result.error));
+              failedIds.addAll(chunks.get(i));
+              if (firstFailure == null) {
+                firstFailure = result.error;
+              }
+              if (rejected == null && result.error instanceof UpstreamCircuitOpenException) {
+                rejected = result.error;
+              }
+            }
+          }
+          if (rejected != null) {
+            return Mono.error(rejected);
+          }
+          if (bodies.isEmpty() && firstFailure != null) {
+            return Mono.error(firstFailure);
+          }
+          return Mono.just(new MarketsFetchResult(bodies, statuses, failedIds));
+        });
+  }
+
+  private Mono<String> fetchChunk(List<String> ids) {
+    CoingeckoClient.MarketsKey key = new CoingeckoClient.MarketsKey(ids, DEFAULT_VS_CURRENCY);
+    return inFlight.computeIfAbsent(key, k -> Mono
+        .fromRunnable(circuitBreaker::acquirePermission)
+        .then(webClient.get()
+            .uri(uri -> uri.path("/coins/markets")
+                .queryParam("vs_currency", k.vsCurrency())
+                .queryParam("per_page", k.ids().size())
+                .queryParam("page", 1)
+                .queryParam("ids", String.join(",", k.ids()))
+                .build())
+            .retrieve()
+            .bodyToMono(String.class))
+        .doOnNext(body -> {
+          circuitBreaker.onSuccess();
+          rateLimiter.onSuccess();
+        })
+        .doOnError(WebClientResponseException.class, e -> {
+          if (e.getRawStatusCode() < 500) {
+            circuitBreaker.onSuccess();
+          } else {
+            circuitBreaker.onFailure();
+          }
+        })
+        .doOnError(WebClientRequestException.class, e -> circuitBreaker.onFailure())
+        .onErrorMap(WebClientResponseException.TooManyRequests.class,
+            e -> new UpstreamThrottledException(UPSTREAM_RATE_LIMITED,
+                rateLimiter.onThrottled(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER))))
+        .onErrorMap(ReactiveCoingeckoClient::toRestClientException)
+        .doFinally(signal -> inFlight.remove(k))
+        .cache());
+  }
+
+  /**
+   * 轉為與阻塞模式相同的例外型別，沿用既有的例外處理。
+   */
+  private static Throwable toRestClientException(Throwable e) {
+    if (e instanceof WebClientResponseException) {
+      WebClientResponseException response = (WebClientResponseException) e;
+      HttpStatus status = HttpStatus.resolve(response.getRawStatusCode());
+      if (status == null) {
+        return new UnknownHttpStatusCodeException(response.getRawStatusCode(),
+            response.getStatusText(), response.getHeaders(), response.getResponseBodyAsByteArray(),
+            null);
+      }
+      if (status.is4xxClientError()) {
+        return HttpClientErrorException.create(status, response.getStatusText(),
+            response.getHeaders(), response.getResponseBodyAsByteArray(), null);
+      }
+      return HttpServerErrorException.create(status, response.getStatusText(),
+          response.getHeaders(), response.getResponseBodyAsByteArray(), null);
+    }
+    if (e instanceof WebClientRequestException) {
+      return new ResourceAccessException(e.getMessage());
+    }
+    return e;
+  }
+
+  private static final class ChunkResult {
+
+    private final String body;
+    private final Throwable error;
+
+    private ChunkResult(String body, Throwable error) {
+      this.body = body;
+      this.error = error;
+    }
+
+    static ChunkResult succeeded(String body) {
+      return new ChunkResult(body, null);
+    }
+
+    static ChunkResult failed(Throwable error) {
+      return new ChunkResult(null, error);
+    }
+  }
+}
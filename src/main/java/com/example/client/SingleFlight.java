@@ -0,0 +1,95 @@
+package com.example.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 合併相同 key 的並行呼叫：同一時間只有第一個呼叫者實際執行，其餘呼叫者共用同一個
+ * {@link CompletableFuture}，結果與例外皆會回傳給所有等待者。
+ *
+ * @param <K> 請求 key，需正確實作 equals / hashCode
+ * @param <V> 回傳結果
+ */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final AtomicLong calls = new AtomicLong();
+  private final AtomicLong executions = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+
+  /**
+   * 執行或加入同 key 進行中的呼叫。
+   *
+   * @param key  請求 key
+   * @param call 實際執行的呼叫
+   * @return 呼叫結果
+   */
+  public V execute(K key, Supplier<V> call) {
+    calls.incrementAndGet();
+    CompletableFuture<V> future = new CompletableFuture<>();
+    CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+    if (existing != null) {
+      coalesced.incrementAndGet();
+      return await(existing);
+    }
+
+    executions.incrementAndGet();
+    try {
+      V result = call.get();
+      future.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      future.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, future);
+    }
+  }
+
+  private V await(CompletableFuture<V> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * @return 呼叫總次數
+   */
+  public long getCalls() {
+    return calls.get();
+  }
+
+  /**
+   * @return 實際執行的次數
+   */
+  public long getExecutions() {
+    return executions.get();
+  }
+
+  /**
+   * @return 加入既有呼叫而未實際執行的次數
+   */
+  public long getCoalesced() {
+    return coalesced.get();
+  }
+
+  /**
+   * @return 目前進行中的呼叫數
+   */
+  public int getInFlight() {
+    return inFlight.size();
+  }
+}
@@ -0,0 +1,109 @@
+package com.example.client;
+
+import static com.example.common.ErrorMessages.UPSTREAM_CIRCUIT_OPEN;
+
+import com.example.exception.UpstreamCircuitOpenException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * CoinGecko 呼叫的斷路器。
+ *
+ * <p>連續失敗（5xx、連線錯誤或逾時）達門檻後開啟，冷卻期間內直接拒絕呼叫；冷卻結束後只放行
+ * 一次試探呼叫，成功即關閉，失敗則重新開始冷卻。4xx（含 429）代表上游仍有回應，不計為失敗。
+ */
+@Component
+public class UpstreamCircuitBreaker {
+
+  private static final Logger log = LoggerFactory.getLogger(UpstreamCircuitBreaker.class);
+
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private final LongSupplier clock;
+  private final int failureThreshold;
+  private final long openMs;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAt;
+  private boolean trialInFlight;
+
+  @Autowired
+  public UpstreamCircuitBreaker(MeterRegistry meterRegistry,
+      @Value("${coindesk.upstream.circuit.failure-threshold:5}") int failureThreshold,
+      @Value("${coindesk.upstream.circuit.open-ms:30000}") long openMs) {
+    this(System::currentTimeMillis, failureThreshold, openMs);
+    Gauge.builder("coindesk.upstream.circuit.state", this, breaker -> breaker.getState().ordinal())
+        .description("Upstream circuit breaker state (0 closed, 1 open, 2 half-open)")
+        .register(meterRegistry);
+  }
+
+  UpstreamCircuitBreaker(LongSupplier clock, int failureThreshold, long openMs) {
+    this.clock = clock;
+    this.failureThreshold = failureThreshold;
+    this.openMs = openMs;
+  }
+
+  /**
+   * 確認可以呼叫上游；呼叫結束後必須回報 {@link #onSuccess()} 或 {@link #onFailure()}，
+   * 最後未送出呼叫（如額度不足）時則呼叫 {@link #release()}。
+   *
+   * @throws UpstreamCircuitOpenException 斷路器開啟中，或已有試探呼叫進行中
+   */
+  public synchronized void acquirePermission() {
+    if (state == State.OPEN) {
+      if (clock.getAsLong() - openedAt < openMs) {
+        throw new UpstreamCircuitOpenException(UPSTREAM_CIRCUIT_OPEN);
+      }
+      state = State.HALF_OPEN;
+      trialInFlight = false;
+    }
+    if (state == State.HALF_OPEN) {
+      if (trialInFlight) {
+        throw new UpstreamCircuitOpenException(UPSTREAM_CIRCUIT_OPEN);
+      }
+      trialInFlight = true;
+    }
+  }
+
+  /**
+   * 取得許可後未實際呼叫上游：只釋放試探呼叫的名額，不改變狀態與連續失敗次數。
+   */
+  public synchronized void release() {
+    trialInFlight = false;
+  }
+
+  public synchronized void onSuccess() {
+    if (state != State.CLOSED) {
+      log.info("CoinGecko circuit breaker closed");
+    }
+    state = State.CLOSED;
+    consecutiveFailures = 0;
+    trialInFlight = false;
+  }
+
+  public synchronized void onFailure() {
+    consecutiveFailures++;
+    if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+      if (state != State.OPEN) {
+        log.warn("CoinGecko circuit breaker opened after {} consecutive failures",
+            consecutiveFailures);
+      }
+      state = State.OPEN;
+      openedAt = clock.getAsLong();
+      trialInFlight = false;
+    }
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+}
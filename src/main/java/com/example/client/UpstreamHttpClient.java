@@ -0,0 +1,313 @@
+package com.example.client;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PreDestroy;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.UnknownHttpStatusCodeException;
+
+/**
+ * 呼叫上游 API 專用的 HTTP client。
+ *
+ * <p>使用 keep-alive 連線池，並設定連線、讀取與整體逾時，避免上游緩慢時長時間佔用請求執行緒；
+ * 請求會帶上 {@code Accept-Encoding: gzip} 並自動解壓縮。每次呼叫皆記錄 DNS / 連線、
+ * 首位元組與讀取內容的耗時，並以 endpoint、status、outcome 標記記錄至
+ * {@code coindesk.upstream.requests} 與回應大小 {@code coindesk.upstream.response.size}。
+ *
+ * <p>錯誤以 Spring 的 {@link org.springframework.web.client.RestClientException} 拋出，
+ * 沿用既有的例外處理。
+ */
+@Component
+public class UpstreamHttpClient {
+
+  private static final Logger log = LoggerFactory.getLogger(UpstreamHttpClient.class);
+
+  private static final ThreadLocal<UpstreamTiming> CURRENT_TIMING = new ThreadLocal<>();
+
+  private final MeterRegistry meterRegistry;
+  private final CloseableHttpClient httpClient;
+  private final PoolingHttpClientConnectionManager connectionManager;
+  private final ScheduledExecutorService deadlineTimer;
+  private final long totalTimeoutMs;
+
+  public UpstreamHttpClient(MeterRegistry meterRegistry,
+      @Value("${coindesk.upstream.http.max-connections:20}") int maxConnections,
+      @Value("${coindesk.upstream.http.connect-timeout-ms:2000}") int connectTimeoutMs,
+      @Value("${coindesk.upstream.http.read-timeout-ms:5000}") int readTimeoutMs,
+      @Value("${coindesk.upstream.http.total-timeout-ms:8000}") long totalTimeoutMs,
+      @Value("${coindesk.upstream.http.keep-alive-ms:30000}") long keepAliveMs) {
+    this.meterRegistry = meterRegistry;
+    this.totalTimeoutMs = totalTimeoutMs;
+
+    Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder
+        .<ConnectionSocketFactory>create()
+        .register("http", new TimedSocketFactory(PlainConnectionSocketFactory.getSocketFactory()))
+        .register("https",
+            new TimedLayeredSocketFactory(SSLConnectionSocketFactory.getSocketFactory()))
+        .build();
+    this.connectionManager = new PoolingHttpClientConnectionManager(socketFactories, null, null,
+        new TimedDnsResolver(), keepAliveMs, TimeUnit.MILLISECONDS);
+    connectionManager.setMaxTotal(maxConnections);
+    connectionManager.setDefaultMaxPerRoute(maxConnections);
+    connectionManager.setValidateAfterInactivity(2000);
+
+    RequestConfig requestConfig = RequestConfig.custom()
+        .setConnectTimeout(connectTimeoutMs)
+        .setSocketTimeout(readTimeoutMs)
+        .setConnectionRequestTimeout(connectTimeoutMs)
+        .build();
+    this.httpClient = HttpClients.custom()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(requestConfig)
+        .setKeepAliveStrategy((response, context) -> keepAliveMs)
+        .evictIdleConnections(keepAliveMs, TimeUnit.MILLISECONDS)
+        .evictExpiredConnections()
+        .setUserAgent("coindesk")
+        .build();
+
+    this.deadlineTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "upstream-deadline");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * 送出 GET 請求並讀取完整回應內容。
+   *
+   * @param endpoint 上游 API 名稱，用於指標標記（如 coins/markets）
+   * @param url      請求網址
+   * @return 回應內容與耗時
+   * @throws ResourceAccessException 連線失敗、逾時或超過整體時限
+   * @throws org.springframework.web.client.RestClientResponseException 回應狀態碼為 4xx / 5xx
+   */
+  public UpstreamResponse get(String endpoint, String url) {
+    HttpGet request = new HttpGet(url);
+    request.setHeader(org.apache.http.HttpHeaders.ACCEPT, "application/json");
+    request.setHeader(org.apache.http.HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+    UpstreamTiming timing = new UpstreamTiming();
+    AtomicBoolean deadlineExceeded = new AtomicBoolean();
+    ScheduledFuture<?> deadline = deadlineTimer.schedule(() -> {
+      deadlineExceeded.set(true);
+      request.abort();
+    }, totalTimeoutMs, TimeUnit.MILLISECONDS);
+
+    long start = System.nanoTime();
+    String statusTag = "IO_ERROR";
+    CURRENT_TIMING.set(timing);
+    try (CloseableHttpResponse response = httpClient.execute(request)) {
+      timing.markFirstByte();
+      int status = response.getStatusLine().getStatusCode();
+      statusTag = String.valueOf(status);
+      HttpHeaders headers = toHeaders(response.getAllHeaders());
+      byte[] body = readBody(response.getEntity());
+      timing.markBodyRead();
+      log.debug("GET {} -> {} ({} bytes) {}", url, status, body.length, timing);
+      DistributionSummary.builder("coindesk.upstream.response.size")
+          .description("Decompressed upstream response body size")
+          .baseUnit("bytes")
+          .tags("endpoint", endpoint)
+          .publishPercentileHistogram()
+          .register(meterRegistry)
+          .record(body.length);
+
+      if (status >= 400) {
+        throw toException(status, response.getStatusLine().getReasonPhrase(), headers, body);
+      }
+      return new UpstreamResponse(status, headers, body, timing);
+    } catch (IOException e) {
+      if (deadlineExceeded.get()) {
+        statusTag = "DEADLINE_EXCEEDED";
+        throw new ResourceAccessException(
+            "Upstream call exceeded total deadline of " + totalTimeoutMs + "ms: " + url);
+      }
+      throw new ResourceAccessException("I/O error on GET request for \"" + url + "\": "
+          + e.getMessage(), e);
+    } finally {
+      CURRENT_TIMING.remove();
+      deadline.cancel(false);
+      Timer.builder("coindesk.upstream.requests")
+          .description("Upstream HTTP calls by endpoint and status")
+          .tags("endpoint", endpoint, "status", statusTag, "outcome", outcomeOf(statusTag))
+          .publishPercentileHistogram()
+          .register(meterRegistry)
+          .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * @return 連線池中可用（閒置）的連線數
+   */
+  public int getAvailableConnections() {
+    return connectionManager.getTotalStats().getAvailable();
+  }
+
+  /**
+   * @return 連線池中使用中的連線數
+   */
+  public int getLeasedConnections() {
+    return connectionManager.getTotalStats().getLeased();
+  }
+
+  private static byte[] readBody(HttpEntity entity) throws IOException {
+    if (entity == null) {
+      return new byte[0];
+    }
+    try (InputStream in = entity.getContent()) {
+      return StreamUtils.copyToByteArray(in);
+    }
+  }
+
+  private static String outcomeOf(String status) {
+    switch (status.charAt(0)) {
+      case '2':
+      case '3':
+        return "success";
+      case '4':
+        return "client_error";
+      case '5':
+        return "server_error";
+      default:
+        return "error";
+    }
+  }
+
+  private static HttpHeaders toHeaders(Header[] headers) {
+    HttpHeaders result = new HttpHeaders();
+    for (Header header : headers) {
+      result.add(header.getName(), header.getValue());
+    }
+    return result;
+  }
+
+  private static RuntimeException toException(int status, String reason, HttpHeaders headers,
+      byte[] body) {
+    HttpStatus httpStatus = HttpStatus.resolve(status);
+    if (httpStatus == null) {
+      return new UnknownHttpStatusCodeException(status, reason, headers, body,
+          StandardCharsets.UTF_8);
+    }
+    if (httpStatus.is4xxClientError()) {
+      return HttpClientErrorException.create(httpStatus, reason, headers, body,
+          StandardCharsets.UTF_8);
+    }
+    return HttpServerErrorException.create(httpStatus, reason, headers, body,
+        StandardCharsets.UTF_8);
+  }
+
+  @PreDestroy
+  public void shutdown() throws IOException {
+    deadlineTimer.shutdownNow();
+    httpClient.close();
+  }
+
+  /**
+   * 記錄 DNS 查詢耗時。
+   */
+  private static final class TimedDnsResolver implements DnsResolver {
+
+    private final DnsResolver delegate = SystemDefaultDnsResolver.INSTANCE;
+
+    @Override
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+      long start = System.nanoTime();
+      try {
+        return delegate.resolve(host);
+      } finally {
+        UpstreamTiming timing = CURRENT_TIMING.get();
+        if (timing != null) {
+          timing.addDns(System.nanoTime() - start);
+        }
+      }
+    }
+  }
+
+  /**
+   * 記錄建立連線（含 TLS handshake）耗時。
+   */
+  private static class TimedSocketFactory implements ConnectionSocketFactory {
+
+    protected final ConnectionSocketFactory delegate;
+
+    TimedSocketFactory(ConnectionSocketFactory delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Socket createSocket(HttpContext context) throws IOException {
+      return delegate.createSocket(context);
+    }
+
+    @Override
+    public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host,
+        InetSocketAddress remoteAddress, InetSocketAddress localAddress, HttpContext context)
+        throws IOException {
+      long start = System.nanoTime();
+      try {
+        return delegate.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress,
+            context);
+      } finally {
+        UpstreamTiming timing = CURRENT_TIMING.get();
+        if (timing != null) {
+          timing.addConnect(System.nanoTime() - start);
+        }
+      }
+    }
+  }
+
+  private static final class TimedLayeredSocketFactory extends TimedSocketFactory
+      implements LayeredConnectionSocketFactory {
+
+    TimedLayeredSocketFactory(LayeredConnectionSocketFactory delegate) {
+      super(delegate);
+    }
+
+    @Override
+    public Socket createLayeredSocket(Socket socket, String target, int port,
+        HttpContext context) throws IOException {
+      return ((LayeredConnectionSocketFactory) delegate).createLayeredSocket(socket, target, port,
+          context);
+    }
+  }
+}
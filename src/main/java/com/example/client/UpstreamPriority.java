@@ -0,0 +1,16 @@
+package com.example.client;
+
+/**
+ * 上游呼叫的優先順序，額度不足時優先保留給較高順序的呼叫。
+ */
+public enum UpstreamPriority {
+
+  /** 使用者請求正在等待結果（如快照過期時的同步更新） */
+  INTERACTIVE,
+
+  /** 背景排程更新快照 */
+  BACKGROUND,
+
+  /** 歷史資料回補，只使用其餘呼叫未用到的額度 */
+  BACKFILL
+}
@@ -0,0 +1,210 @@
+package com.example.client;
+
+import static com.example.common.ErrorMessages.UPSTREAM_RATE_LIMITED;
+
+import com.example.exception.UpstreamThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * CoinGecko 呼叫額度的 token bucket。
+ *
+ * <p>每分鐘補充固定數量的額度，並依 {@link UpstreamPriority} 保留部分額度：背景更新不能用掉
+ * 保留給使用者請求的額度，歷史回補再另外保留背景更新的額度。上游回應 429 時依
+ * {@code Retry-After} 與帶 jitter 的指數退避暫停所有呼叫，成功後重置退避次數。
+ */
+@Component
+public class UpstreamRateLimiter {
+
+  private static final Logger log = LoggerFactory.getLogger(UpstreamRateLimiter.class);
+
+  private final LongSupplier clock;
+  private final double capacity;
+  private final double tokensPerMilli;
+  private final Map<UpstreamPriority, Double> floors = new EnumMap<>(UpstreamPriority.class);
+  private final long baseBackoffMs;
+  private final long maxBackoffMs;
+  private final Map<UpstreamPriority, Counter> rejected = new EnumMap<>(UpstreamPriority.class);
+
+  private double tokens;
+  private long lastRefill;
+  private long blockedUntil;
+  private int consecutiveThrottles;
+
+  @Autowired
+  public UpstreamRateLimiter(MeterRegistry meterRegistry,
+      @Value("${coindesk.upstream.rate-limit.capacity:10}") int capacity,
+      @Value("${coindesk.upstream.rate-limit.per-minute:10}") int perMinute,
+      @Value("${coindesk.upstream.rate-limit.reserve.interactive:2}") int interactiveReserve,
+      @Value("${coindesk.upstream.rate-limit.reserve.background:2}") int backgroundReserve,
+      @Value("${coindesk.upstream.rate-limit.backoff-base-ms:1000}") long baseBackoffMs,
+      @Value("${coindesk.upstream.rate-limit.backoff-max-ms:120000}") long maxBackoffMs) {
+    this(System::currentTimeMillis, capacity, perMinute, interactiveReserve, backgroundReserve,
+        baseBackoffMs, maxBackoffMs);
+    bindMetrics(meterRegistry);
+  }
+
+  UpstreamRateLimiter(LongSupplier clock, int capacity, int perMinute, int interactiveReserve,
+      int backgroundReserve, long baseBackoffMs, long maxBackoffMs) {
+    this.clock = clock;
+    this.capacity = capacity;
+    this.tokensPerMilli = perMinute / (double) TimeUnit.MINUTES.toMillis(1);
+    this.baseBackoffMs = baseBackoffMs;
+    this.maxBackoffMs = maxBackoffMs;
+    floors.put(UpstreamPriority.INTERACTIVE, 0.0);
+    floors.put(UpstreamPriority.BACKGROUND, (double) interactiveReserve);
+    floors.put(UpstreamPriority.BACKFILL, (double) (interactiveReserve + backgroundReserve));
+    this.tokens = capacity;
+    this.lastRefill = clock.getAsLong();
+  }
+
+  /**
+   * 取得一次呼叫額度。
+   *
+   * @param priority 呼叫優先順序
+   * @throws UpstreamThrottledException 退避中或該優先順序可用的額度不足
+   */
+  public synchronized void acquire(UpstreamPriority priority) {
+    acquire(priority, 1);
+  }
+
+  /**
+   * 一次取得多次呼叫額度，全部取得或全部不取得；供分批查詢在送出前預留整次更新所需的額度。
+   *
+   * @param priority 呼叫優先順序
+   * @param permits  呼叫次數
+   * @throws UpstreamThrottledException 退避中或該優先順序可用的額度不足
+   */
+  public synchronized void acquire(UpstreamPriority priority, int permits) {
+    long now = clock.getAsLong();
+    if (now < blockedUntil) {
+      throw reject(priority, blockedUntil - now);
+    }
+    refill(now);
+    double floor = floors.get(priority);
+    if (tokens - permits < floor) {
+      long waitMs = (long) Math.ceil((floor + permits - tokens) / tokensPerMilli);
+      throw reject(priority, waitMs);
+    }
+    tokens -= permits;
+  }
+
+  /**
+   * 嘗試取得一次呼叫額度，不足時不拋出例外。
+   *
+   * @return 是否取得額度
+   */
+  public synchronized boolean tryAcquire(UpstreamPriority priority) {
+    try {
+      acquire(priority);
+      return true;
+    } catch (UpstreamThrottledException e) {
+      return false;
+    }
+  }
+
+  /**
+   * 上游回應成功，重置退避次數。
+   */
+  public synchronized void onSuccess() {
+    consecutiveThrottles = 0;
+  }
+
+  /**
+   * 上游回應 429：清空額度並暫停呼叫，等待時間取 {@code Retry-After} 與指數退避的較大值。
+   *
+   * @param retryAfter 回應的 Retry-After 標頭，可為 null
+   * @return 暫停的毫秒數
+   */
+  public synchronized long onThrottled(String retryAfter) {
+    long now = clock.getAsLong();
+    consecutiveThrottles++;
+    long backoff = maxBackoffMs;
+    if (consecutiveThrottles <= 30) {
+      backoff = Math.min(maxBackoffMs, baseBackoffMs << (consecutiveThrottles - 1));
+    }
+    // equal jitter：避免多個實例在同一時間恢復呼叫
+    long jittered = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    long waitMs = Math.max(parseRetryAfter(retryAfter, now), jittered);
+    blockedUntil = Math.max(blockedUntil, now + waitMs);
+    tokens = 0;
+    lastRefill = now;
+    log.warn("CoinGecko rate limit hit ({} in a row), pausing upstream calls for {} ms",
+        consecutiveThrottles, waitMs);
+    return waitMs;
+  }
+
+  /**
+   * @return 目前可用額度
+   */
+  public synchronized double availableTokens() {
+    refill(clock.getAsLong());
+    return tokens;
+  }
+
+  /**
+   * 解析 Retry-After（秒數或 HTTP 日期）。
+   *
+   * @return 等待毫秒數，無法解析時回傳 0
+   */
+  static long parseRetryAfter(String value, long now) {
+    if (value == null || value.trim().isEmpty()) {
+      return 0L;
+    }
+    String trimmed = value.trim();
+    try {
+      return TimeUnit.SECONDS.toMillis(Math.max(0L, Long.parseLong(trimmed)));
+    } catch (NumberFormatException e) {
+      try {
+        long at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME)
+            .toInstant().toEpochMilli();
+        return Math.max(0L, at - now);
+      } catch (DateTimeParseException ignored) {
+        return 0L;
+      }
+    }
+  }
+
+  private void refill(long now) {
+    if (now > lastRefill) {
+      tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerMilli);
+      lastRefill = now;
+    }
+  }
+
+  private UpstreamThrottledException reject(UpstreamPriority priority, long retryAfterMs) {
+    Counter counter = rejected.get(priority);
+    if (counter != null) {
+      counter.increment();
+    }
+    return new UpstreamThrottledException(UPSTREAM_RATE_LIMITED, retryAfterMs);
+  }
+
+  private void bindMetrics(MeterRegistry registry) {
+    Gauge.builder("coindesk.upstream.ratelimit.tokens", this,
+            UpstreamRateLimiter::availableTokens)
+        .description("Upstream call budget currently available")
+        .register(registry);
+    for (UpstreamPriority priority : UpstreamPriority.values()) {
+      rejected.put(priority, Counter.builder("coindesk.upstream.ratelimit.rejected")
+          .description("Upstream calls refused by the rate limiter")
+          .tags("priority", priority.name().toLowerCase(Locale.ROOT))
+          .register(registry));
+    }
+  }
+}
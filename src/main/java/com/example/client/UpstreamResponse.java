@@ -0,0 +1,45 @@
+package com.example.client;
+
+import java.nio.charset.StandardCharsets;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * 上游呼叫的回應內容與耗時。
+ */
+public final class UpstreamResponse {
+
+  private final int status;
+  private final HttpHeaders headers;
+  private final byte[] body;
+  private final UpstreamTiming timing;
+
+  UpstreamResponse(int status, HttpHeaders headers, byte[] body, UpstreamTiming timing) {
+    this.status = status;
+    this.headers = headers;
+    this.body = body;
+    this.timing = timing;
+  }
+
+  public int getStatus() {
+    return status;
+  }
+
+  public HttpHeaders getHeaders() {
+    return headers;
+  }
+
+  /**
+   * @return 已解壓縮的回應內容
+   */
+  public byte[] getBody() {
+    return body;
+  }
+
+  public String getBodyAsString() {
+    return new String(body, StandardCharsets.UTF_8);
+  }
+
+  public UpstreamTiming getTiming() {
+    return timing;
+  }
+}
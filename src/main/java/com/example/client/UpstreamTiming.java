@@ -0,0 +1,59 @@
+package com.example.client;
+
+/**
+ * 單次上游呼叫各階段耗時（毫秒）。沿用連線池中的既有連線時，DNS 與連線時間為 0。
+ */
+public final class UpstreamTiming {
+
+  private final long startNanos = System.nanoTime();
+  private long dnsNanos;
+  private long connectNanos;
+  private long firstByteNanos;
+  private long bodyNanos;
+
+  void addDns(long nanos) {
+    dnsNanos += nanos;
+  }
+
+  void addConnect(long nanos) {
+    connectNanos += nanos;
+  }
+
+  void markFirstByte() {
+    firstByteNanos = System.nanoTime() - startNanos;
+  }
+
+  void markBodyRead() {
+    bodyNanos = System.nanoTime() - startNanos - firstByteNanos;
+  }
+
+  public double getDnsMillis() {
+    return dnsNanos / 1_000_000.0;
+  }
+
+  public double getConnectMillis() {
+    return connectNanos / 1_000_000.0;
+  }
+
+  /**
+   * @return 自送出請求至收到回應標頭的時間
+   */
+  public double getTimeToFirstByteMillis() {
+    return firstByteNanos / 1_000_000.0;
+  }
+
+  public double getBodyReadMillis() {
+    return bodyNanos / 1_000_000.0;
+  }
+
+  public double getTotalMillis() {
+    return (firstByteNanos + bodyNanos) / 1_000_000.0;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("total=%.1fms dns=%.1fms connect=%.1fms ttfb=%.1fms body=%.1fms",
+        getTotalMillis(), getDnsMillis(), getConnectMillis(), getTimeToFirstByteMillis(),
+        getBodyReadMillis());
+  }
+}
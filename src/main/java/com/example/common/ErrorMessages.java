@@ -2,7 +2,23 @@ package com.example.common;
 
 public class ErrorMessages {
 
+  public static final String ALERT_CURRENCY_UNTRACKED = "Currency '%s' is not tracked. Add it first, or use '*' with a windowed condition.";
+  public static final String ALERT_RULE_NOT_FOUND = "Alert rule %d not found.";
+  public static final String ALERT_THRESHOLD_REQUIRED = "%s requires a positive threshold.";
+  public static final String ALERT_WILDCARD_UNSUPPORTED = "'*' can only be used with CHANGE_PERCENT or HIGH_BREAKOUT.";
+  public static final String ALERT_WINDOW_INVALID = "%s requires windowMinutes between 1 and %d.";
+  public static final String BULK_TOO_MANY_ROWS = "Too many rows in one bulk request. The limit is %d.";
+  public static final String CLUSTER_SNAPSHOT_UNAVAILABLE = "No shared snapshot has been published by the poller node yet. Please try again later.";
   public static final String COINGECKO_NO_DATA = "No currency information available from CoinGecko.";
   public static final String COINGECKO_PARSE_ERROR = "Failed to parse CoinGecko data.";
+  public static final String CONVERT_TOO_MANY_LINES = "Too many lines in one conversion request. The limit is %d.";
+  public static final String INVALID_CANDLE_INTERVAL = "Unsupported interval. Use one of 1m, 5m, 1h, 1d.";
+  public static final String QUOTE_CURRENCY_UNSUPPORTED = "Unsupported quote currency. Use one of %s.";
+  public static final String QUOTE_RATES_UNAVAILABLE = "Reference exchange rates are not available yet. Please try again later.";
+  public static final String STREAM_SUBSCRIBERS_EXCEEDED = "Too many price stream subscribers. Please try again later.";
   public static final String TABLE_NO_DATA = "Currency mapping table is empty. Please add currencies to proceed.";
+  public static final String UNKNOWN_COIN_ID = "Unknown CoinGecko coin id '%s'. Use GET /coins/search to look it up.";
+  public static final String UPSTREAM_CIRCUIT_OPEN = "Upstream service is temporarily unavailable. Please try again later.";
+  public static final String UPSTREAM_DEADLINE_EXCEEDED = "Upstream did not respond in time. Please try again later.";
+  public static final String UPSTREAM_RATE_LIMITED = "Upstream rate limit reached. Please try again later.";
 }
@@ -0,0 +1,94 @@
+package com.example.controller;
+
+import com.example.model.AlertRule;
+import com.example.service.AlertService;
+import java.util.List;
+import javax.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 價格提醒規則 API。
+ */
+@RestController
+@RequestMapping("/api/v1/coindesk/alerts")
+public class AlertController {
+
+  private final AlertService alertService;
+
+  public AlertController(AlertService alertService) {
+    this.alertService = alertService;
+  }
+
+  /**
+   * 查詢提醒規則。
+   *
+   * @param currency 幣別 ID（* 表示套用於所有幣別的規則），未指定時回傳全部
+   * @return 依 ID 排序的規則
+   */
+  @GetMapping
+  public ResponseEntity<List<AlertRule>> getRules(
+      @RequestParam(required = false) String currency) {
+    return ResponseEntity.ok(alertService.findAll(currency));
+  }
+
+  /**
+   * 查詢指定提醒規則。
+   *
+   * @param id 規則 ID
+   * @return 規則內容，若不存在則回傳 404
+   */
+  @GetMapping("/{id}")
+  public ResponseEntity<AlertRule> getRule(@PathVariable long id) {
+    return ResponseEntity.ok(alertService.findById(id));
+  }
+
+  /**
+   * 新增提醒規則。
+   *
+   * <p>PRICE_ABOVE、PRICE_BELOW 需要 threshold（TWD）；CHANGE_PERCENT 需要 threshold（%）與
+   * windowMinutes；HIGH_BREAKOUT 只需要 windowMinutes。currency 為 * 時套用於所有追蹤中的幣別
+   * （僅限 CHANGE_PERCENT、HIGH_BREAKOUT）。
+   *
+   * @param rule 規則內容
+   * @return 建立的規則（201 Created）
+   */
+  @PostMapping
+  public ResponseEntity<AlertRule> addRule(@RequestBody @Valid AlertRule rule) {
+    return ResponseEntity.status(HttpStatus.CREATED).body(alertService.create(rule));
+  }
+
+  /**
+   * 修改提醒規則。
+   *
+   * @param id   規則 ID
+   * @param rule 新的規則內容
+   * @return 更新後的規則
+   */
+  @PutMapping("/{id}")
+  public ResponseEntity<AlertRule> updateRule(@PathVariable long id,
+      @RequestBody @Valid AlertRule rule) {
+    return ResponseEntity.ok(alertService.update(id, rule));
+  }
+
+  /**
+   * 刪除提醒規則。
+   *
+   * @param id 規則 ID
+   * @return 無內容（204 No Content）
+   */
+  @DeleteMapping("/{id}")
+  public ResponseEntity<Void> deleteRule(@PathVariable long id) {
+    alertService.delete(id);
+    return ResponseEntity.noContent().build();
+  }
+}
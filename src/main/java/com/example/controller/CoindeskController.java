@@ -1,12 +1,32 @@
 package com.example.controller;
 
+import com.example.dto.BulkResultDTO;
+import com.example.dto.CandleDTO;
+import com.example.dto.CoinDTO;
+import com.example.dto.ConversionRequestDTO;
+import com.example.dto.ConversionResponseDTO;
+import com.example.dto.CurrencyDeltaDTO;
 import com.example.dto.CurrencyInfoDTO;
+import com.example.dto.PricePointDTO;
 import com.example.dto.UpdateCurrencyRequest;
 import com.example.model.CurrencyMap;
+import com.example.service.CandleInterval;
 import com.example.service.CoindeskService;
+import com.example.service.ConversionService;
+import com.example.service.CurrencyBinaryEncoder;
+import com.example.service.CurrencySnapshot;
+import com.example.service.CurrencyMapBulkService;
+import com.example.service.CurrencyStreamService;
+import com.example.service.OhlcService;
+import com.example.service.PriceHistoryService;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import javax.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,8 +34,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * 幣別資訊查詢與轉換 API，實作基於 CoinGecko 公開 API。
@@ -24,30 +47,205 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/v1/coindesk")
 public class CoindeskController {
 
+  static final String UPSTREAM_PARTIAL_HEADER = "X-Upstream-Partial";
+  static final String SNAPSHOT_VERSION_HEADER = "X-Snapshot-Version";
+  static final String SNAPSHOT_STALE_HEADER = "X-Snapshot-Stale";
+  static final int MAX_COIN_SEARCH_LIMIT = 50;
+
   private final CoindeskService coindeskService;
+  private final CurrencyStreamService currencyStreamService;
+  private final PriceHistoryService priceHistoryService;
+  private final OhlcService ohlcService;
+  private final CurrencyMapBulkService currencyMapBulkService;
+  private final ConversionService conversionService;
+  private final CurrencyBinaryEncoder binaryEncoder;
 
-  public CoindeskController(CoindeskService coindeskService) {
+  public CoindeskController(CoindeskService coindeskService,
+      CurrencyStreamService currencyStreamService, PriceHistoryService priceHistoryService,
+      OhlcService ohlcService, CurrencyMapBulkService currencyMapBulkService,
+      ConversionService conversionService, CurrencyBinaryEncoder binaryEncoder) {
     this.coindeskService = coindeskService;
+    this.currencyStreamService = currencyStreamService;
+    this.priceHistoryService = priceHistoryService;
+    this.ohlcService = ohlcService;
+    this.currencyMapBulkService = currencyMapBulkService;
+    this.conversionService = conversionService;
+    this.binaryEncoder = binaryEncoder;
   }
 
   /**
-   * 從 Coingecko API 取得原始幣別資料 JSON 字串。
+   * 從 Coingecko API 取得原始幣別資料 JSON。
+   *
+   * <p>回應內容為快照保存的 UTF-8 位元組，直接寫出不再轉碼；用戶端接受 gzip 時改寫出快照中
+   * 預先壓縮的內容。回應帶有 ETag 與 Last-Modified；條件式請求未異動時回傳 304。
    *
+   * @param acceptEncoding 用戶端可接受的內容編碼
    * @return Coingecko 原始回應資料
    */
   @GetMapping("/coingecko/raw")
-  public ResponseEntity<String> getCoingeckoData() {
-    return ResponseEntity.ok(coindeskService.getCoingeckoData());
+  public ResponseEntity<byte[]> getCoingeckoData(
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+      String acceptEncoding) {
+    CurrencySnapshot snapshot = coindeskService.getCurrencySnapshot();
+    return rawData(withUpstreamStatus(ResponseEntity.ok(), snapshot,
+        coindeskService.isStale(snapshot)), snapshot, acceptsGzip(acceptEncoding));
   }
 
   /**
    * 查詢並轉換所有幣別資訊（含匯率與更新時間）。
    *
+   * <p>回應帶有 ETag 與 Last-Modified；條件式請求未異動時回傳 304，不序列化內容。
+   *
+   * @param vs 計價幣別（如 usd、jpy、eur），預設為 twd；支援的幣別由
+   *           {@code coindesk.quote.currencies} 設定
    * @return 幣別資訊清單
    */
   @GetMapping("/currencies")
-  public ResponseEntity<List<CurrencyInfoDTO>> getAllCurrencies() {
-    return ResponseEntity.ok(coindeskService.getAllCurrencies());
+  public ResponseEntity<List<CurrencyInfoDTO>> getAllCurrencies(
+      @RequestParam(required = false) String vs) {
+    String quote = coindeskService.resolveQuoteCurrency(vs);
+    CurrencySnapshot snapshot = coindeskService.getCurrencySnapshot();
+    return currencies(snapshot, quote, coindeskService.isStale(snapshot));
+  }
+
+  /**
+   * 以 Smile 格式回傳所有幣別資訊（Accept: application/x-jackson-smile），內容與 JSON 版本相同。
+   *
+   * @param vs 計價幣別，預設為 twd
+   * @return 每個快照只編碼一次的 Smile 內容
+   */
+  @GetMapping(path = "/currencies", produces = CurrencyBinaryEncoder.SMILE_VALUE)
+  public ResponseEntity<byte[]> getAllCurrenciesSmile(@RequestParam(required = false) String vs) {
+    String quote = coindeskService.resolveQuoteCurrency(vs);
+    CurrencySnapshot snapshot = coindeskService.getCurrencySnapshot();
+    return binaryCurrencies(snapshot, CurrencyBinaryEncoder.etag(snapshot, quote, "smile"))
+        .contentType(MediaType.parseMediaType(CurrencyBinaryEncoder.SMILE_VALUE))
+        .body(binaryEncoder.smile(snapshot, quote));
+  }
+
+  /**
+   * 以 CBOR 格式回傳所有幣別資訊（Accept: application/cbor），內容與 JSON 版本相同。
+   *
+   * @param vs 計價幣別，預設為 twd
+   * @return 每個快照只編碼一次的 CBOR 內容
+   */
+  @GetMapping(path = "/currencies", produces = CurrencyBinaryEncoder.CBOR_VALUE)
+  public ResponseEntity<byte[]> getAllCurrenciesCbor(@RequestParam(required = false) String vs) {
+    String quote = coindeskService.resolveQuoteCurrency(vs);
+    CurrencySnapshot snapshot = coindeskService.getCurrencySnapshot();
+    return binaryCurrencies(snapshot, CurrencyBinaryEncoder.etag(snapshot, quote, "cbor"))
+        .contentType(MediaType.parseMediaType(CurrencyBinaryEncoder.CBOR_VALUE))
+        .body(binaryEncoder.cbor(snapshot, quote));
+  }
+
+  private ResponseEntity.BodyBuilder binaryCurrencies(CurrencySnapshot snapshot, String etag) {
+    return withUpstreamStatus(ResponseEntity.ok(), snapshot, coindeskService.isStale(snapshot))
+        .eTag(etag)
+        .lastModified(snapshot.getLastModified())
+        .varyBy(HttpHeaders.ACCEPT)
+        .header(SNAPSHOT_VERSION_HEADER, Long.toString(snapshot.getVersion()));
+  }
+
+  /**
+   * 只回傳自指定快照版本以來匯率、更新時間或中文名稱有異動的幣別，以及已移除的幣別。
+   *
+   * @param sinceVersion 用戶端持有的快照版本（取自回應的 version 或 X-Snapshot-Version 標頭）
+   * @return 差異資料；版本已過舊時 full 為 true 並回傳完整清單
+   */
+  @GetMapping(path = "/currencies", params = "sinceVersion")
+  public ResponseEntity<CurrencyDeltaDTO> getChangedCurrencies(@RequestParam long sinceVersion) {
+    return ResponseEntity.ok(coindeskService.getCurrenciesSince(sinceVersion));
+  }
+
+  /**
+   * 以 Server-Sent Events 訂閱幣別資訊異動，連線後先推送目前資料，之後只推送有異動的幣別。
+   *
+   * @param currencies 要訂閱的幣別（以逗號分隔），未指定表示全部
+   * @return SSE 連線（事件：currencies 為異動資料，removed 為已移除的幣別）
+   */
+  @GetMapping(path = "/currencies/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamCurrencies(@RequestParam(required = false) Set<String> currencies) {
+    return currencyStreamService.subscribe(currencies);
+  }
+
+  /**
+   * 查詢指定幣別的歷史價格。
+   *
+   * @param currency 幣別 ID（如：bitcoin）
+   * @param from     起始時間（epoch millis），預設為 24 小時前
+   * @param to       結束時間（epoch millis），預設為現在
+   * @return 依時間遞增排序的價格紀錄
+   */
+  @GetMapping("/currencies/{currency}/history")
+  public ResponseEntity<List<PricePointDTO>> getPriceHistory(@PathVariable String currency,
+      @RequestParam(required = false) Long from, @RequestParam(required = false) Long to) {
+    long end = to == null ? System.currentTimeMillis() : to;
+    long start = from == null ? end - TimeUnit.DAYS.toMillis(1) : from;
+    return ResponseEntity.ok(priceHistoryService.getHistory(currency, start, end));
+  }
+
+  /**
+   * 查詢指定幣別的 OHLC K 線。
+   *
+   * @param currency 幣別 ID（如：bitcoin）
+   * @param interval 週期（1m、5m、1h、1d），預設 1h
+   * @param from     起始時間（epoch millis），預設為該週期保留範圍的起點
+   * @param to       結束時間（epoch millis），預設為現在
+   * @return 依時間遞增排序的 K 線，沒有價格的週期不列出
+   */
+  @GetMapping("/currencies/{currency}/ohlc")
+  public ResponseEntity<List<CandleDTO>> getCandles(@PathVariable String currency,
+      @RequestParam(defaultValue = "1h") String interval,
+      @RequestParam(required = false) Long from, @RequestParam(required = false) Long to) {
+    return ResponseEntity.ok(
+        ohlcService.getCandles(currency, CandleInterval.fromCode(interval), from, to));
+  }
+
+  /**
+   * 一次查詢多個幣別的 OHLC K 線。
+   *
+   * @param currencies 幣別 ID（以逗號分隔）
+   * @param interval   週期（1m、5m、1h、1d），預設 1h
+   * @param from       起始時間（epoch millis），預設為該週期保留範圍的起點
+   * @param to         結束時間（epoch millis），預設為現在
+   * @return 幣別與其 K 線，未追蹤的幣別不列出
+   */
+  @GetMapping("/ohlc")
+  public ResponseEntity<Map<String, List<CandleDTO>>> getCandles(
+      @RequestParam Set<String> currencies,
+      @RequestParam(defaultValue = "1h") String interval,
+      @RequestParam(required = false) Long from, @RequestParam(required = false) Long to) {
+    return ResponseEntity.ok(
+        ohlcService.getCandles(currencies, CandleInterval.fromCode(interval), from, to));
+  }
+
+  /**
+   * 依目前快照的 TWD 市價批次換算幣別數量（含交叉匯率，twd 表示新台幣）。
+   *
+   * @param lines 換算項目，每筆為 {from, to, amount}
+   * @return 依請求順序排列的換算結果；無法換算的項目 result 為 null 並附上原因
+   */
+  @PostMapping("/convert")
+  public ResponseEntity<ConversionResponseDTO> convert(
+      @RequestBody List<ConversionRequestDTO> lines) {
+    CurrencySnapshot snapshot = coindeskService.getCurrencySnapshot();
+    return withUpstreamStatus(ResponseEntity.ok(), snapshot, coindeskService.isStale(snapshot))
+        .header(SNAPSHOT_VERSION_HEADER, Long.toString(snapshot.getVersion()))
+        .body(conversionService.convert(snapshot, lines));
+  }
+
+  /**
+   * 依 ID、代號或名稱前綴搜尋 CoinGecko 幣別，供新增幣別時自動完成。
+   *
+   * @param q     查詢字串，不分大小寫
+   * @param limit 最多回傳筆數，預設 10，上限 50
+   * @return 依排名排序的幣別（代號或 ID 完全相同者優先）；幣別清單尚未載入時為空
+   */
+  @GetMapping("/coins/search")
+  public ResponseEntity<List<CoinDTO>> searchCoins(@RequestParam String q,
+      @RequestParam(defaultValue = "10") int limit) {
+    return ResponseEntity.ok(
+        coindeskService.searchCoins(q, Math.min(limit, MAX_COIN_SEARCH_LIMIT)));
   }
 
   /**
@@ -75,6 +273,39 @@ public class CoindeskController {
     return ResponseEntity.status(HttpStatus.CREATED).build();
   }
 
+  /**
+   * 批次新增幣別對應表資料，已存在的幣別不會覆寫。
+   *
+   * @param rows 幣別對應物件陣列
+   * @return 每筆資料的處理結果（CREATED、DUPLICATE、INVALID）
+   */
+  @PostMapping("/currencies/bulk")
+  public ResponseEntity<BulkResultDTO> addCurrencies(@RequestBody List<CurrencyMap> rows) {
+    return ResponseEntity.ok(currencyMapBulkService.insert(rows));
+  }
+
+  /**
+   * 批次新增或更新幣別對應表資料。
+   *
+   * @param rows 幣別對應物件陣列
+   * @return 每筆資料的處理結果（CREATED、UPDATED、DUPLICATE、INVALID）
+   */
+  @PutMapping("/currencies/bulk")
+  public ResponseEntity<BulkResultDTO> upsertCurrencies(@RequestBody List<CurrencyMap> rows) {
+    return ResponseEntity.ok(currencyMapBulkService.upsert(rows));
+  }
+
+  /**
+   * 批次刪除幣別對應表資料。
+   *
+   * @param currencies 幣別 ID 陣列
+   * @return 每筆資料的處理結果（DELETED、NOT_FOUND、DUPLICATE、INVALID）
+   */
+  @PostMapping("/currencies/bulk/delete")
+  public ResponseEntity<BulkResultDTO> deleteCurrencies(@RequestBody List<String> currencies) {
+    return ResponseEntity.ok(currencyMapBulkService.delete(currencies));
+  }
+
   /**
    * 修改指定幣別的中文名稱。
    *
@@ -100,6 +331,82 @@ public class CoindeskController {
     coindeskService.delete(currency);
     return ResponseEntity.noContent().build();
   }
-}
 
+  /**
+   * 以快照建立幣別資訊清單的 JSON 回應，阻塞與非阻塞模式共用。
+   *
+   * @param stale 快照是否已過期
+   */
+  static ResponseEntity<List<CurrencyInfoDTO>> currencies(CurrencySnapshot snapshot, String quote,
+      boolean stale) {
+    return withUpstreamStatus(ResponseEntity.ok(), snapshot, stale)
+        .eTag(snapshot.getCurrenciesEtag(quote))
+        .lastModified(snapshot.getLastModified())
+        .varyBy(HttpHeaders.ACCEPT)
+        .header(SNAPSHOT_VERSION_HEADER, Long.toString(snapshot.getVersion()))
+        .body(snapshot.getCurrencies(quote));
+  }
 
+  /**
+   * 寫出快照的原始回應內容，明確標示為 JSON。
+   *
+   * @param gzip 是否寫出預先壓縮的內容
+   */
+  static ResponseEntity<byte[]> rawData(ResponseEntity.BodyBuilder builder,
+      CurrencySnapshot snapshot, boolean gzip) {
+    builder.contentType(MediaType.APPLICATION_JSON)
+        .varyBy(HttpHeaders.ACCEPT_ENCODING)
+        .lastModified(snapshot.getLastModified());
+    if (gzip) {
+      return builder.eTag(snapshot.getRawDataGzipEtag())
+          .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+          .body(snapshot.getRawDataGzip());
+    }
+    return builder.eTag(snapshot.getRawDataEtag()).body(snapshot.getRawDataBytes());
+  }
+
+  /**
+   * @param acceptEncoding Accept-Encoding 標頭，可為 null
+   * @return 是否接受 gzip（q=0 視為不接受）
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.split(";");
+      if (!"gzip".equalsIgnoreCase(parts[0].trim())) {
+        continue;
+      }
+      for (int i = 1; i < parts.length; i++) {
+        String parameter = parts[i].trim();
+        if (parameter.startsWith("q=")) {
+          try {
+            return Double.parseDouble(parameter.substring(2)) > 0;
+          } catch (NumberFormatException e) {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * 部分上游批次查詢失敗時，以回應標頭標示失敗批次數；回傳已過期的快照時，標示其資料秒數。
+   */
+  static ResponseEntity.BodyBuilder withUpstreamStatus(ResponseEntity.BodyBuilder builder,
+      CurrencySnapshot snapshot, boolean stale) {
+    if (stale) {
+      builder.header(SNAPSHOT_STALE_HEADER,
+          "age=" + snapshot.ageMillis(System.currentTimeMillis()) / 1000);
+    }
+    int failed = snapshot.getFailedChunkCount();
+    if (failed > 0) {
+      builder.header(UPSTREAM_PARTIAL_HEADER,
+          "failed=" + failed + "/" + snapshot.getUpstreamChunks().size());
+    }
+    return builder;
+  }
+}
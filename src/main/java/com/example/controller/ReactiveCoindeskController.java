@@ -0,0 +1,63 @@
+package com.example.controller;
+
+import com.example.dto.CurrencyInfoDTO;
+import com.example.service.ReactiveCoindeskService;
+import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * 非阻塞模式的幣別市價查詢 API，回應格式與 {@link CoindeskController} 相同。
+ *
+ * <p>於 {@code coindesk.reactive.enabled=true} 時啟用；等待上游回應期間釋放 Servlet 執行緒。
+ */
+@RestController
+@RequestMapping("/api/v1/coindesk/reactive")
+@ConditionalOnProperty(name = "coindesk.reactive.enabled", havingValue = "true")
+public class ReactiveCoindeskController {
+
+  private final ReactiveCoindeskService reactiveCoindeskService;
+
+  public ReactiveCoindeskController(ReactiveCoindeskService reactiveCoindeskService) {
+    this.reactiveCoindeskService = reactiveCoindeskService;
+  }
+
+  /**
+   * 從 Coingecko API 取得原始幣別資料 JSON，用戶端接受 gzip 時寫出預先壓縮的內容。
+   *
+   * @param acceptEncoding 用戶端可接受的內容編碼
+   * @return Coingecko 原始回應資料
+   */
+  @GetMapping("/coingecko/raw")
+  public Mono<ResponseEntity<byte[]>> getCoingeckoData(
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+      String acceptEncoding) {
+    boolean gzip = CoindeskController.acceptsGzip(acceptEncoding);
+    return reactiveCoindeskService.getCurrencySnapshot()
+        .map(snapshot -> CoindeskController.rawData(CoindeskController.withUpstreamStatus(
+            ResponseEntity.ok(), snapshot, reactiveCoindeskService.isStale(snapshot)),
+            snapshot, gzip));
+  }
+
+  /**
+   * 查詢並轉換所有幣別資訊（含匯率與更新時間）。
+   *
+   * @param vs 計價幣別，預設為 twd
+   * @return 幣別資訊清單
+   */
+  @GetMapping("/currencies")
+  public Mono<ResponseEntity<List<CurrencyInfoDTO>>> getAllCurrencies(
+      @RequestParam(required = false) String vs) {
+    String quote = reactiveCoindeskService.resolveQuoteCurrency(vs);
+    return reactiveCoindeskService.getCurrencySnapshot()
+        .map(snapshot -> CoindeskController.currencies(snapshot, quote,
+            reactiveCoindeskService.isStale(snapshot)));
+  }
+}
@@ -0,0 +1,114 @@
+package com.example.dto;
+
+import java.math.BigDecimal;
+
+public class AlertNotificationDTO {
+  private long ruleId;
+  private String currency;
+  private String condition; // PRICE_ABOVE、PRICE_BELOW、CHANGE_PERCENT、HIGH_BREAKOUT
+  private BigDecimal threshold;
+  private Integer windowMinutes;
+  private BigDecimal rate; // 觸發時的 TWD 市價
+  private BigDecimal previousRate; // 前一次快照的 TWD 市價
+  private BigDecimal observed; // CHANGE_PERCENT 為漲跌幅（%），HIGH_BREAKOUT 為突破的最高價
+  private long timestamp; // 快照取得時間（epoch millis）
+  private long snapshotVersion;
+
+  public AlertNotificationDTO() {
+  }
+
+  public AlertNotificationDTO(long ruleId, String currency, String condition,
+      BigDecimal threshold, Integer windowMinutes, BigDecimal rate, BigDecimal previousRate,
+      BigDecimal observed, long timestamp, long snapshotVersion) {
+    this.ruleId = ruleId;
+    this.currency = currency;
+    this.condition = condition;
+    this.threshold = threshold;
+    this.windowMinutes = windowMinutes;
+    this.rate = rate;
+    this.previousRate = previousRate;
+    this.observed = observed;
+    this.timestamp = timestamp;
+    this.snapshotVersion = snapshotVersion;
+  }
+
+  public long getRuleId() {
+    return ruleId;
+  }
+
+  public void setRuleId(long ruleId) {
+    this.ruleId = ruleId;
+  }
+
+  public String getCurrency() {
+    return currency;
+  }
+
+  public void setCurrency(String currency) {
+    this.currency = currency;
+  }
+
+  public String getCondition() {
+    return condition;
+  }
+
+  public void setCondition(String condition) {
+    this.condition = condition;
+  }
+
+  public BigDecimal getThreshold() {
+    return threshold;
+  }
+
+  public void setThreshold(BigDecimal threshold) {
+    this.threshold = threshold;
+  }
+
+  public Integer getWindowMinutes() {
+    return windowMinutes;
+  }
+
+  public void setWindowMinutes(Integer windowMinutes) {
+    this.windowMinutes = windowMinutes;
+  }
+
+  public BigDecimal getRate() {
+    return rate;
+  }
+
+  public void setRate(BigDecimal rate) {
+    this.rate = rate;
+  }
+
+  public BigDecimal getPreviousRate() {
+    return previousRate;
+  }
+
+  public void setPreviousRate(BigDecimal previousRate) {
+    this.previousRate = previousRate;
+  }
+
+  public BigDecimal getObserved() {
+    return observed;
+  }
+
+  public void setObserved(BigDecimal observed) {
+    this.observed = observed;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public void setTimestamp(long timestamp) {
+    this.timestamp = timestamp;
+  }
+
+  public long getSnapshotVersion() {
+    return snapshotVersion;
+  }
+
+  public void setSnapshotVersion(long snapshotVersion) {
+    this.snapshotVersion = snapshotVersion;
+  }
+}
@@ -0,0 +1,37 @@
+package com.example.dto;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+public class BulkResultDTO {
+  private Map<BulkRowStatus, Integer> summary; // 各處理結果的筆數
+  private List<BulkRowResultDTO> results;
+
+  public BulkResultDTO() {
+  }
+
+  public BulkResultDTO(List<BulkRowResultDTO> results) {
+    this.results = results;
+    this.summary = new EnumMap<>(BulkRowStatus.class);
+    for (BulkRowResultDTO result : results) {
+      summary.merge(result.getStatus(), 1, Integer::sum);
+    }
+  }
+
+  public Map<BulkRowStatus, Integer> getSummary() {
+    return summary;
+  }
+
+  public void setSummary(Map<BulkRowStatus, Integer> summary) {
+    this.summary = summary;
+  }
+
+  public List<BulkRowResultDTO> getResults() {
+    return results;
+  }
+
+  public void setResults(List<BulkRowResultDTO> results) {
+    this.results = results;
+  }
+}
@@ -0,0 +1,50 @@
+package com.example.dto;
+
+public class BulkRowResultDTO {
+  private int index; // 在請求陣列中的位置
+  private String currency;
+  private BulkRowStatus status;
+  private String message;
+
+  public BulkRowResultDTO() {
+  }
+
+  public BulkRowResultDTO(int index, String currency, BulkRowStatus status, String message) {
+    this.index = index;
+    this.currency = currency;
+    this.status = status;
+    this.message = message;
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public void setIndex(int index) {
+    this.index = index;
+  }
+
+  public String getCurrency() {
+    return currency;
+  }
+
+  public void setCurrency(String currency) {
+    this.currency = currency;
+  }
+
+  public BulkRowStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(BulkRowStatus status) {
+    this.status = status;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public void setMessage(String message) {
+    this.message = message;
+  }
+}
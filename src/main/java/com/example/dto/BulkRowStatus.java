@@ -0,0 +1,13 @@
+package com.example.dto;
+
+/**
+ * 批次作業中單筆資料的處理結果。
+ */
+public enum BulkRowStatus {
+  CREATED,
+  UPDATED,
+  DELETED,
+  DUPLICATE,
+  INVALID,
+  NOT_FOUND
+}
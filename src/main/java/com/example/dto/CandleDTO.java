@@ -0,0 +1,73 @@
+package com.example.dto;
+
+import java.math.BigDecimal;
+
+public class CandleDTO {
+  private long timestamp; // 週期起始時間（epoch millis）
+  private BigDecimal open;
+  private BigDecimal high;
+  private BigDecimal low;
+  private BigDecimal close;
+  private int count;
+
+  public CandleDTO() {
+  }
+
+  public CandleDTO(long timestamp, BigDecimal open, BigDecimal high, BigDecimal low,
+      BigDecimal close, int count) {
+    this.timestamp = timestamp;
+    this.open = open;
+    this.high = high;
+    this.low = low;
+    this.close = close;
+    this.count = count;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public void setTimestamp(long timestamp) {
+    this.timestamp = timestamp;
+  }
+
+  public BigDecimal getOpen() {
+    return open;
+  }
+
+  public void setOpen(BigDecimal open) {
+    this.open = open;
+  }
+
+  public BigDecimal getHigh() {
+    return high;
+  }
+
+  public void setHigh(BigDecimal high) {
+    this.high = high;
+  }
+
+  public BigDecimal getLow() {
+    return low;
+  }
+
+  public void setLow(BigDecimal low) {
+    this.low = low;
+  }
+
+  public BigDecimal getClose() {
+    return close;
+  }
+
+  public void setClose(BigDecimal close) {
+    this.close = close;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  public void setCount(int count) {
+    this.count = count;
+  }
+}
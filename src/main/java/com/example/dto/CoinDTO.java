@@ -0,0 +1,40 @@
+package com.example.dto;
+
+public class CoinDTO {
+  private String id; // CoinGecko 幣別 ID，如 bitcoin
+  private String symbol; // 代號，如 btc
+  private String name; // 英文名稱，如 Bitcoin
+
+  public CoinDTO() {
+  }
+
+  public CoinDTO(String id, String symbol, String name) {
+    this.id = id;
+    this.symbol = symbol;
+    this.name = name;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public String getSymbol() {
+    return symbol;
+  }
+
+  public void setSymbol(String symbol) {
+    this.symbol = symbol;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+}
@@ -0,0 +1,42 @@
+package com.example.dto;
+
+import java.math.BigDecimal;
+
+public class ConversionRequestDTO {
+  private String from; // 來源幣別 ID（twd 表示新台幣）
+  private String to; // 目標幣別 ID（twd 表示新台幣）
+  private BigDecimal amount; // 來源幣別數量
+
+  public ConversionRequestDTO() {
+  }
+
+  public ConversionRequestDTO(String from, String to, BigDecimal amount) {
+    this.from = from;
+    this.to = to;
+    this.amount = amount;
+  }
+
+  public String getFrom() {
+    return from;
+  }
+
+  public void setFrom(String from) {
+    this.from = from;
+  }
+
+  public String getTo() {
+    return to;
+  }
+
+  public void setTo(String to) {
+    this.to = to;
+  }
+
+  public BigDecimal getAmount() {
+    return amount;
+  }
+
+  public void setAmount(BigDecimal amount) {
+    this.amount = amount;
+  }
+}
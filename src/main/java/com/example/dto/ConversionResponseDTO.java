@@ -0,0 +1,46 @@
+package com.example.dto;
+
+import java.util.List;
+
+public class ConversionResponseDTO {
+  private long version; // 換算所用的快照版本
+  private int failed; // 無法換算的筆數
+  private List<ConversionResultDTO> results; // 依請求順序排列
+
+  public ConversionResponseDTO() {
+  }
+
+  public ConversionResponseDTO(long version, List<ConversionResultDTO> results) {
+    this.version = version;
+    this.results = results;
+    for (ConversionResultDTO result : results) {
+      if (result.getResult() == null) {
+        failed++;
+      }
+    }
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
+  public int getFailed() {
+    return failed;
+  }
+
+  public void setFailed(int failed) {
+    this.failed = failed;
+  }
+
+  public List<ConversionResultDTO> getResults() {
+    return results;
+  }
+
+  public void setResults(List<ConversionResultDTO> results) {
+    this.results = results;
+  }
+}
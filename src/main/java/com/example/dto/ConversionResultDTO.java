@@ -0,0 +1,63 @@
+package com.example.dto;
+
+import java.math.BigDecimal;
+
+public class ConversionResultDTO {
+  private String from;
+  private String to;
+  private BigDecimal amount;
+  private BigDecimal result; // 換算後的目標幣別數量，失敗時為 null
+  private String message; // 失敗原因
+
+  public ConversionResultDTO() {
+  }
+
+  public ConversionResultDTO(String from, String to, BigDecimal amount, BigDecimal result,
+      String message) {
+    this.from = from;
+    this.to = to;
+    this.amount = amount;
+    this.result = result;
+    this.message = message;
+  }
+
+  public String getFrom() {
+    return from;
+  }
+
+  public void setFrom(String from) {
+    this.from = from;
+  }
+
+  public String getTo() {
+    return to;
+  }
+
+  public void setTo(String to) {
+    this.to = to;
+  }
+
+  public BigDecimal getAmount() {
+    return amount;
+  }
+
+  public void setAmount(BigDecimal amount) {
+    this.amount = amount;
+  }
+
+  public BigDecimal getResult() {
+    return result;
+  }
+
+  public void setResult(BigDecimal result) {
+    this.result = result;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public void setMessage(String message) {
+    this.message = message;
+  }
+}
@@ -0,0 +1,53 @@
+package com.example.dto;
+
+import java.util.List;
+
+public class CurrencyDeltaDTO {
+  private long version; // 目前快照版本，下次以此作為 sinceVersion
+  private boolean full; // true 表示無法提供差異，currencies 為完整清單
+  private List<CurrencyInfoDTO> currencies;
+  private List<String> removed;
+
+  public CurrencyDeltaDTO() {
+  }
+
+  public CurrencyDeltaDTO(long version, boolean full, List<CurrencyInfoDTO> currencies,
+      List<String> removed) {
+    this.version = version;
+    this.full = full;
+    this.currencies = currencies;
+    this.removed = removed;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
+  public boolean isFull() {
+    return full;
+  }
+
+  public void setFull(boolean full) {
+    this.full = full;
+  }
+
+  public List<CurrencyInfoDTO> getCurrencies() {
+    return currencies;
+  }
+
+  public void setCurrencies(List<CurrencyInfoDTO> currencies) {
+    this.currencies = currencies;
+  }
+
+  public List<String> getRemoved() {
+    return removed;
+  }
+
+  public void setRemoved(List<String> removed) {
+    this.removed = removed;
+  }
+}
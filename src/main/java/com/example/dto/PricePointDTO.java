@@ -0,0 +1,42 @@
+package com.example.dto;
+
+import java.math.BigDecimal;
+
+public class PricePointDTO {
+  private long timestamp; // epoch millis
+  private String updateAt; // yyyy/MM/dd HH:mm:ss
+  private BigDecimal rate;
+
+  public PricePointDTO() {
+  }
+
+  public PricePointDTO(long timestamp, String updateAt, BigDecimal rate) {
+    this.timestamp = timestamp;
+    this.updateAt = updateAt;
+    this.rate = rate;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public void setTimestamp(long timestamp) {
+    this.timestamp = timestamp;
+  }
+
+  public String getUpdateAt() {
+    return updateAt;
+  }
+
+  public void setUpdateAt(String updateAt) {
+    this.updateAt = updateAt;
+  }
+
+  public BigDecimal getRate() {
+    return rate;
+  }
+
+  public void setRate(BigDecimal rate) {
+    this.rate = rate;
+  }
+}
@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -26,6 +27,14 @@ public class GlobalExceptionHandler {
     return buildErrorResponse(HttpStatus.BAD_GATEWAY, "Failed to retrieve data from external API.");
   }
 
+  /**
+   * 外部 API 回應內容無法解析
+   */
+  @ExceptionHandler(UpstreamResponseException.class)
+  public ResponseEntity<Map<String, Object>> handleUpstreamResponse(UpstreamResponseException e) {
+    return buildErrorResponse(HttpStatus.BAD_GATEWAY, e.getMessage());
+  }
+
   /**
    * 請求參數驗證失敗
    */
@@ -44,6 +53,14 @@ public class GlobalExceptionHandler {
     return ResponseEntity.badRequest().body(response);
   }
 
+  /**
+   * 請求參數值不合法
+   */
+  @ExceptionHandler(BadRequestException.class)
+  public ResponseEntity<Map<String, Object>> handleBadRequest(BadRequestException e) {
+    return buildErrorResponse(HttpStatus.BAD_REQUEST, e.getMessage());
+  }
+
   /**
    * 找不到資源
    */
@@ -52,6 +69,30 @@ public class GlobalExceptionHandler {
     return buildErrorResponse(HttpStatus.NOT_FOUND, e.getMessage());
   }
 
+  /**
+   * 服務暫時無法處理請求
+   */
+  @ExceptionHandler(ServiceUnavailableException.class)
+  public ResponseEntity<Map<String, Object>> handleServiceUnavailable(
+      ServiceUnavailableException e) {
+    return buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+  }
+
+  /**
+   * 上游呼叫額度不足且沒有可回傳的舊資料
+   */
+  @ExceptionHandler(UpstreamThrottledException.class)
+  public ResponseEntity<Map<String, Object>> handleUpstreamThrottled(
+      UpstreamThrottledException e) {
+    long retryAfterSeconds = Math.max(1L, (e.getRetryAfterMs() + 999) / 1000);
+    Map<String, Object> errorBody = new HashMap<>();
+    errorBody.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+    errorBody.put("message", e.getMessage());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+        .body(errorBody);
+  }
+
   /**
    * 預設錯誤處理
    */
@@ -0,0 +1,11 @@
+package com.example.exception;
+
+/**
+ * 斷路器開啟中（或試探呼叫進行中），未送出上游呼叫。
+ */
+public class UpstreamCircuitOpenException extends ServiceUnavailableException {
+
+  public UpstreamCircuitOpenException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,15 @@
+package com.example.exception;
+
+/**
+ * 上游回應內容無法使用（格式錯誤或沒有任何幣別），與呼叫失敗一樣可改用舊資料。
+ */
+public class UpstreamResponseException extends RuntimeException {
+
+  public UpstreamResponseException(String message) {
+    super(message);
+  }
+
+  public UpstreamResponseException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
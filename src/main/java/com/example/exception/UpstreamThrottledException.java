@@ -0,0 +1,21 @@
+package com.example.exception;
+
+/**
+ * 上游呼叫額度已用盡或上游回應 429，需等待後再試。
+ */
+public class UpstreamThrottledException extends ServiceUnavailableException {
+
+  private final long retryAfterMs;
+
+  public UpstreamThrottledException(String message, long retryAfterMs) {
+    super(message);
+    this.retryAfterMs = retryAfterMs;
+  }
+
+  /**
+   * @return 建議的重試等待時間（毫秒）
+   */
+  public long getRetryAfterMs() {
+    return retryAfterMs;
+  }
+}
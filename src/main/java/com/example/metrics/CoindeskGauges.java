@@ -0,0 +1,38 @@
+package com.example.metrics;
+
+import com.example.service.CurrencyMapCache;
+import com.example.service.CurrencySnapshot;
+import com.example.service.CurrencySnapshotCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * 追蹤中幣別數與市價快照狀態的 gauge。
+ *
+ * <p>不實作 {@code MeterBinder}：binder 會在 {@link MeterRegistry} 初始化時被注入，而快取本身
+ * 依賴 registry，會形成循環相依；故於建構時直接註冊。
+ */
+@Component
+public class CoindeskGauges {
+
+  public CoindeskGauges(MeterRegistry registry, CurrencyMapCache currencyMapCache,
+      CurrencySnapshotCache snapshotCache) {
+    Gauge.builder("coindesk.currencies.tracked", currencyMapCache, CurrencyMapCache::size)
+        .description("Currencies in currency_map")
+        .register(registry);
+    Gauge.builder("coindesk.snapshot.age", snapshotCache, CoindeskGauges::ageSeconds)
+        .description("Age of the current price snapshot")
+        .baseUnit("seconds")
+        .register(registry);
+    Gauge.builder("coindesk.snapshot.version", snapshotCache,
+            cache -> cache.peek() == null ? Double.NaN : cache.peek().getVersion())
+        .register(registry);
+  }
+
+  private static double ageSeconds(CurrencySnapshotCache cache) {
+    CurrencySnapshot snapshot = cache.peek();
+    return snapshot == null ? Double.NaN
+        : snapshot.ageMillis(System.currentTimeMillis()) / 1000.0;
+  }
+}
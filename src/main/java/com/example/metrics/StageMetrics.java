@@ -0,0 +1,106 @@
+package com.example.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * 記錄請求處理各階段（db、upstream、parse、serialize）的耗時。
+ *
+ * <p>指標 {@code coindesk.stage.duration} 以 stage、endpoint、outcome 標記；endpoint 為目前
+ * 請求對應的路徑樣板，非請求執行緒（如背景更新）則為 {@value #BACKGROUND}。
+ */
+@Component
+public class StageMetrics {
+
+  public static final String DB = "db";
+  public static final String UPSTREAM = "upstream";
+  public static final String PARSE = "parse";
+  public static final String SERIALIZE = "serialize";
+
+  static final String BACKGROUND = "background";
+
+  private static final ThreadLocal<String> ENDPOINT = new ThreadLocal<>();
+
+  private final MeterRegistry registry;
+
+  public StageMetrics(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * 執行並記錄指定階段的耗時，例外照常拋出並標記為 error。
+   */
+  public <T> T record(String stage, Supplier<T> action) {
+    long start = System.nanoTime();
+    boolean success = false;
+    try {
+      T result = action.get();
+      success = true;
+      return result;
+    } finally {
+      record(stage, System.nanoTime() - start, success);
+    }
+  }
+
+  public void record(String stage, Runnable action) {
+    record(stage, () -> {
+      action.run();
+      return null;
+    });
+  }
+
+  public void record(String stage, long nanos, boolean success) {
+    Timer.builder("coindesk.stage.duration")
+        .description("Time spent in each processing stage")
+        .tags("stage", stage, "endpoint", currentEndpoint(),
+            "outcome", success ? "success" : "error")
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * 將目前請求的 endpoint 帶入交由其他執行緒執行的工作，使其指標仍標記為原請求。
+   */
+  public static Runnable withCurrentEndpoint(Runnable task) {
+    String endpoint = currentEndpoint();
+    return () -> {
+      String previous = ENDPOINT.get();
+      ENDPOINT.set(endpoint);
+      try {
+        task.run();
+      } finally {
+        if (previous == null) {
+          ENDPOINT.remove();
+        } else {
+          ENDPOINT.set(previous);
+        }
+      }
+    };
+  }
+
+  /**
+   * @return 目前請求的路徑樣板（如 /api/v1/coindesk/currencies），非請求執行緒時為 background
+   */
+  public static String currentEndpoint() {
+    String propagated = ENDPOINT.get();
+    if (propagated != null) {
+      return propagated;
+    }
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (!(attributes instanceof ServletRequestAttributes)) {
+      return BACKGROUND;
+    }
+    HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    return pattern == null ? "unknown" : pattern.toString();
+  }
+}
@@ -0,0 +1,90 @@
+package com.example.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+/**
+ * 記錄 JSON 回應序列化耗時（stage=serialize）與回應大小的 Jackson converter。
+ *
+ * <p>以 bean 註冊後取代 Spring Boot 預設的 {@link MappingJackson2HttpMessageConverter}。
+ */
+@Component
+public class TimedJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+  private final StageMetrics stageMetrics;
+  private final MeterRegistry registry;
+
+  public TimedJackson2HttpMessageConverter(ObjectMapper objectMapper, StageMetrics stageMetrics,
+      MeterRegistry registry) {
+    super(objectMapper);
+    this.stageMetrics = stageMetrics;
+    this.registry = registry;
+  }
+
+  @Override
+  protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+      throws IOException, HttpMessageNotWritableException {
+    CountingOutputMessage counting = new CountingOutputMessage(outputMessage);
+    long start = System.nanoTime();
+    boolean success = false;
+    try {
+      super.writeInternal(object, type, counting);
+      success = true;
+    } finally {
+      stageMetrics.record(StageMetrics.SERIALIZE, System.nanoTime() - start, success);
+      DistributionSummary.builder("coindesk.response.size")
+          .description("Serialized JSON response size")
+          .baseUnit("bytes")
+          .tags("endpoint", StageMetrics.currentEndpoint())
+          .publishPercentileHistogram()
+          .register(registry)
+          .record(counting.count);
+    }
+  }
+
+  private static final class CountingOutputMessage implements HttpOutputMessage {
+
+    private final HttpOutputMessage delegate;
+    private long count;
+    private OutputStream body;
+
+    CountingOutputMessage(HttpOutputMessage delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public OutputStream getBody() throws IOException {
+      if (body == null) {
+        body = new FilterOutputStream(delegate.getBody()) {
+          @Override
+          public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+          }
+
+          @Override
+          public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+          }
+        };
+      }
+      return body;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return delegate.getHeaders();
+    }
+  }
+}
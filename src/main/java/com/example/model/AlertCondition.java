@@ -0,0 +1,34 @@
+package com.example.model;
+
+/**
+ * 價格提醒的觸發條件。
+ */
+public enum AlertCondition {
+
+  /**
+   * TWD 市價由低於門檻升至門檻以上。
+   */
+  PRICE_ABOVE,
+
+  /**
+   * TWD 市價由高於門檻跌至門檻以下。
+   */
+  PRICE_BELOW,
+
+  /**
+   * 與 windowMinutes 分鐘前相比的漲跌幅（絕對值，%）達到門檻。
+   */
+  CHANGE_PERCENT,
+
+  /**
+   * 市價突破前 windowMinutes 分鐘內的最高價，不使用門檻。
+   */
+  HIGH_BREAKOUT;
+
+  /**
+   * @return 是否需要 windowMinutes
+   */
+  public boolean isWindowed() {
+    return this == CHANGE_PERCENT || this == HIGH_BREAKOUT;
+  }
+}
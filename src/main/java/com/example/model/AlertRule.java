@@ -0,0 +1,127 @@
+package com.example.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+@Entity
+@Table(name = "alert_rule", indexes = @Index(name = "idx_alert_rule_currency",
+    columnList = "currency"))
+@JsonIgnoreProperties(ignoreUnknown = false)
+public class AlertRule {
+
+  /**
+   * 套用於所有追蹤中幣別的 currency 值。
+   */
+  public static final String ALL_CURRENCIES = "*";
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "currency", nullable = false)
+  @NotBlank(message = "is required")
+  private String currency;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "alert_condition", nullable = false, length = 32)
+  @NotNull(message = "is required")
+  private AlertCondition condition;
+
+  @Column(name = "threshold", precision = 38, scale = 12)
+  private BigDecimal threshold;
+
+  @Column(name = "window_minutes")
+  private Integer windowMinutes;
+
+  @JsonFormat(pattern = "yyyy/MM/dd HH:mm:ss")
+  @Column(name = "create_at", updatable = false)
+  @CreationTimestamp
+  private LocalDateTime createAt;
+
+  @JsonFormat(pattern = "yyyy/MM/dd HH:mm:ss")
+  @Column(name = "update_at")
+  @UpdateTimestamp
+  private LocalDateTime updateAt;
+
+  public AlertRule() {
+  }
+
+  public AlertRule(String currency, AlertCondition condition, BigDecimal threshold,
+      Integer windowMinutes) {
+    this.currency = currency;
+    this.condition = condition;
+    this.threshold = threshold;
+    this.windowMinutes = windowMinutes;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public String getCurrency() {
+    return currency;
+  }
+
+  public void setCurrency(String currency) {
+    this.currency = currency;
+  }
+
+  public AlertCondition getCondition() {
+    return condition;
+  }
+
+  public void setCondition(AlertCondition condition) {
+    this.condition = condition;
+  }
+
+  public BigDecimal getThreshold() {
+    return threshold;
+  }
+
+  public void setThreshold(BigDecimal threshold) {
+    this.threshold = threshold;
+  }
+
+  public Integer getWindowMinutes() {
+    return windowMinutes;
+  }
+
+  public void setWindowMinutes(Integer windowMinutes) {
+    this.windowMinutes = windowMinutes;
+  }
+
+  public LocalDateTime getCreateAt() {
+    return createAt;
+  }
+
+  public void setCreateAt(LocalDateTime createAt) {
+    this.createAt = createAt;
+  }
+
+  public LocalDateTime getUpdateAt() {
+    return updateAt;
+  }
+
+  public void setUpdateAt(LocalDateTime updateAt) {
+    this.updateAt = updateAt;
+  }
+}
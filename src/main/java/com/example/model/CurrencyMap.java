@@ -1,20 +1,25 @@
 package com.example.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.time.LocalDateTime;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 import javax.validation.constraints.NotBlank;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.springframework.data.domain.Persistable;
 
 @Entity
 @Table(name = "currency_map")
 @JsonIgnoreProperties(ignoreUnknown = false)
-public class CurrencyMap {
+public class CurrencyMap implements Persistable<String> {
 
 
   @Id
@@ -36,6 +41,12 @@ public class CurrencyMap {
   @UpdateTimestamp
   private LocalDateTime updateAt;
 
+  /**
+   * 主鍵由呼叫端指定，以此旗標讓 save() 直接 INSERT，而非先 SELECT 再 merge。
+   */
+  @Transient
+  private boolean isNew = true;
+
   public CurrencyMap() {
   }
 
@@ -75,4 +86,22 @@ public class CurrencyMap {
   public void setUpdateAt(LocalDateTime updateAt) {
     this.updateAt = updateAt;
   }
+
+  @Override
+  @JsonIgnore
+  public String getId() {
+    return currency;
+  }
+
+  @Override
+  @JsonIgnore
+  public boolean isNew() {
+    return isNew;
+  }
+
+  @PostLoad
+  @PostPersist
+  void markNotNew() {
+    this.isNew = false;
+  }
 }
@@ -0,0 +1,28 @@
+package com.example.repository;
+
+import com.example.model.AlertRule;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+public interface AlertRuleRepository extends JpaRepository<AlertRule, Long> {
+
+  List<AlertRule> findByCurrencyOrderById(String currency);
+
+  /**
+   * @return 規則數、最大 ID 與最後修改時間；任一節點新增、修改或刪除規則時至少一項會改變
+   */
+  @Query("select count(r) as count, max(r.id) as maxId, max(r.updateAt) as maxUpdateAt"
+      + " from AlertRule r")
+  RulesSignature findSignature();
+
+  interface RulesSignature {
+
+    long getCount();
+
+    Long getMaxId();
+
+    LocalDateTime getMaxUpdateAt();
+  }
+}
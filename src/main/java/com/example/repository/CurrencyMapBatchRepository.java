@@ -0,0 +1,101 @@
+package com.example.repository;
+
+import com.example.model.CurrencyMap;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 以 JDBC batch 寫入 currency_map，供批次匯入使用。
+ *
+ * <p>不經過 JPA，因此不會觸發 {@link com.example.service.CurrencyMapEntityListener}；呼叫端需自行同步快取。
+ */
+@Repository
+public class CurrencyMapBatchRepository {
+
+  private static final int IN_CLAUSE_SIZE = 500;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final NamedParameterJdbcTemplate namedJdbcTemplate;
+  private final int batchSize;
+
+  public CurrencyMapBatchRepository(JdbcTemplate jdbcTemplate,
+      NamedParameterJdbcTemplate namedJdbcTemplate,
+      @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}") int batchSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.namedJdbcTemplate = namedJdbcTemplate;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * @return 已存在於資料表中的幣別
+   */
+  public Set<String> findExisting(Collection<String> currencies) {
+    Set<String> existing = new HashSet<>();
+    List<String> ids = new ArrayList<>(currencies);
+    for (int from = 0; from < ids.size(); from += IN_CLAUSE_SIZE) {
+      List<String> chunk = ids.subList(from, Math.min(from + IN_CLAUSE_SIZE, ids.size()));
+      existing.addAll(namedJdbcTemplate.queryForList(
+          "select currency from currency_map where currency in (:ids)",
+          new MapSqlParameterSource("ids", chunk), String.class));
+    }
+    return existing;
+  }
+
+  public void insertAll(List<CurrencyMap> rows, LocalDateTime now) {
+    Timestamp timestamp = Timestamp.valueOf(now);
+    jdbcTemplate.batchUpdate(
+        "insert into currency_map (currency, chinese_name, create_at, update_at) "
+            + "values (?, ?, ?, ?)",
+        rows, batchSize, (ps, row) -> {
+          ps.setString(1, row.getCurrency());
+          ps.setString(2, row.getChineseName());
+          ps.setTimestamp(3, timestamp);
+          ps.setTimestamp(4, timestamp);
+        });
+  }
+
+  /**
+   * 寫入先前保存的對應資料，保留原本的建立與更新時間。
+   */
+  public void restoreAll(List<CurrencyMap> rows) {
+    jdbcTemplate.batchUpdate(
+        "insert into currency_map (currency, chinese_name, create_at, update_at) "
+            + "values (?, ?, ?, ?)",
+        rows, batchSize, (ps, row) -> {
+          ps.setString(1, row.getCurrency());
+          ps.setString(2, row.getChineseName());
+          ps.setTimestamp(3, toTimestamp(row.getCreateAt()));
+          ps.setTimestamp(4, toTimestamp(row.getUpdateAt()));
+        });
+  }
+
+  private static Timestamp toTimestamp(LocalDateTime time) {
+    return time == null ? null : Timestamp.valueOf(time);
+  }
+
+  public void updateChineseNames(List<CurrencyMap> rows, LocalDateTime now) {
+    Timestamp timestamp = Timestamp.valueOf(now);
+    jdbcTemplate.batchUpdate(
+        "update currency_map set chinese_name = ?, update_at = ? where currency = ?",
+        rows, batchSize, (ps, row) -> {
+          ps.setString(1, row.getChineseName());
+          ps.setTimestamp(2, timestamp);
+          ps.setString(3, row.getCurrency());
+        });
+  }
+
+  public void deleteAll(List<String> currencies) {
+    jdbcTemplate.batchUpdate("delete from currency_map where currency = ?", currencies,
+        batchSize, (ps, currency) -> ps.setString(1, currency));
+  }
+}
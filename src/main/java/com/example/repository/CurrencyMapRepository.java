@@ -1,7 +1,34 @@
 package com.example.repository;
 
 import com.example.model.CurrencyMap;
+import java.time.LocalDateTime;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface CurrencyMapRepository extends JpaRepository<CurrencyMap, String> {
-}
\ No newline at end of file
+
+  /**
+   * 以單一 UPDATE 更新中文名稱，不先查詢實體。
+   *
+   * @return 更新筆數
+   */
+  @Transactional
+  @Modifying(clearAutomatically = true)
+  @Query("update CurrencyMap c set c.chineseName = :chineseName, c.updateAt = :updateAt "
+      + "where c.currency = :currency")
+  int updateChineseName(@Param("currency") String currency,
+      @Param("chineseName") String chineseName, @Param("updateAt") LocalDateTime updateAt);
+
+  /**
+   * 以單一 DELETE 刪除幣別，不先查詢實體。
+   *
+   * @return 刪除筆數
+   */
+  @Transactional
+  @Modifying(clearAutomatically = true)
+  @Query("delete from CurrencyMap c where c.currency = :currency")
+  int deleteByCurrency(@Param("currency") String currency);
+}
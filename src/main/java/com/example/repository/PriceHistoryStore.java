@@ -0,0 +1,241 @@
+package com.example.repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 以檔案儲存的 append-only 價格歷史。
+ *
+ * <p>每個幣別一個檔案，每筆固定 16 bytes：epoch millis（long）與放大 10^{@value #PRICE_SCALE}
+ * 倍的價格（long）。資料依時間遞增寫入，查詢時以二分搜尋找到區間後，透過 memory-mapped
+ * 方式讀取，資料不常駐 heap。
+ */
+@Repository
+public class PriceHistoryStore {
+
+  public static final int PRICE_SCALE = 10;
+  static final int RECORD_SIZE = 16;
+  private static final long MAX_MAPPED_RECORDS = (1 << 30) / RECORD_SIZE;
+
+  private final Path directory;
+  private final Map<String, Long> lastTimestamps = new ConcurrentHashMap<>();
+
+  public PriceHistoryStore(@Value("${coindesk.history.dir:data/history}") String directory) {
+    this.directory = Paths.get(directory);
+  }
+
+  /**
+   * 單一價格樣本。
+   */
+  public static final class Sample {
+
+    private final long timestamp;
+    private final long scaledPrice;
+
+    public Sample(long timestamp, long scaledPrice) {
+      this.timestamp = timestamp;
+      this.scaledPrice = scaledPrice;
+    }
+
+    public long getTimestamp() {
+      return timestamp;
+    }
+
+    public long getScaledPrice() {
+      return scaledPrice;
+    }
+
+    public BigDecimal getPrice() {
+      return toPrice(scaledPrice);
+    }
+  }
+
+  /**
+   * 將放大後的 long 轉回價格。
+   */
+  public static BigDecimal toPrice(long scaledPrice) {
+    return BigDecimal.valueOf(scaledPrice, PRICE_SCALE).stripTrailingZeros();
+  }
+
+  /**
+   * 接收走訪中的樣本。
+   */
+  @FunctionalInterface
+  public interface SampleVisitor {
+
+    void visit(long timestamp, long scaledPrice);
+  }
+
+  /**
+   * 將價格轉為放大 10^{@value #PRICE_SCALE} 倍的 long。
+   *
+   * @throws ArithmeticException 價格超出 long 可表示的範圍
+   */
+  public static long toScaledPrice(BigDecimal price) {
+    return price.movePointRight(PRICE_SCALE).setScale(0, RoundingMode.HALF_UP).longValueExact();
+  }
+
+  /**
+   * 批次寫入多個幣別的樣本；時間未晚於該幣別最後一筆的樣本會被略過。
+   *
+   * @param samples 幣別與其樣本（需依時間遞增）
+   * @return 實際寫入筆數
+   */
+  public synchronized int append(Map<String, List<Sample>> samples) {
+    int written = 0;
+    try {
+      Files.createDirectories(directory);
+      for (Map.Entry<String, List<Sample>> entry : samples.entrySet()) {
+        written += append(entry.getKey(), entry.getValue());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to append price history", e);
+    }
+    return written;
+  }
+
+  private int append(String currency, List<Sample> samples) throws IOException {
+    long last = lastTimestamp(currency);
+    ByteBuffer buffer = ByteBuffer.allocate(samples.size() * RECORD_SIZE);
+    for (Sample sample : samples) {
+      if (sample.timestamp <= last) {
+        continue;
+      }
+      buffer.putLong(sample.timestamp).putLong(sample.scaledPrice);
+      last = sample.timestamp;
+    }
+    buffer.flip();
+    if (!buffer.hasRemaining()) {
+      return 0;
+    }
+    int count = buffer.remaining() / RECORD_SIZE;
+    try (FileChannel channel = FileChannel.open(fileOf(currency), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+    lastTimestamps.put(currency, last);
+    return count;
+  }
+
+  /**
+   * 查詢指定時間區間（含起訖）的樣本，依時間遞增排序。
+   *
+   * @param currency 幣別 ID
+   * @param from     起始時間（epoch millis）
+   * @param to       結束時間（epoch millis）
+   * @param limit    最多回傳筆數
+   * @return 樣本清單
+   */
+  public List<Sample> range(String currency, long from, long to, int limit) {
+    List<Sample> result = new ArrayList<>();
+    scan(currency, from, to, limit,
+        (timestamp, scaledPrice) -> result.add(new Sample(timestamp, scaledPrice)));
+    return result;
+  }
+
+  /**
+   * 依時間順序走訪指定時間區間（含起訖）的樣本，不建立樣本物件。
+   *
+   * @param currency 幣別 ID
+   * @param from     起始時間（epoch millis）
+   * @param to       結束時間（epoch millis）
+   * @param limit    最多走訪筆數
+   * @param visitor  接收每筆樣本
+   * @return 走訪筆數
+   */
+  public long scan(String currency, long from, long to, long limit, SampleVisitor visitor) {
+    Path file = fileOf(currency);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long records = channel.size() / RECORD_SIZE;
+      long start = lowerBound(channel, records, from);
+      long end = lowerBound(channel, records, to == Long.MAX_VALUE ? to : to + 1);
+      long count = Math.min(end - start, limit);
+      long visited = 0;
+      while (visited < count) {
+        // 單次對應的區段不超過 Integer.MAX_VALUE bytes
+        long chunk = Math.min(count - visited, MAX_MAPPED_RECORDS);
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY,
+            (start + visited) * RECORD_SIZE, chunk * RECORD_SIZE);
+        for (long i = 0; i < chunk; i++) {
+          visitor.visit(mapped.getLong(), mapped.getLong());
+        }
+        visited += chunk;
+      }
+      return visited;
+    } catch (NoSuchFileException e) {
+      return 0;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read price history of " + currency, e);
+    }
+  }
+
+  /**
+   * @return 第一筆時間大於等於 {@code timestamp} 的紀錄位置
+   */
+  private static long lowerBound(FileChannel channel, long records, long timestamp)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+    long low = 0;
+    long high = records;
+    while (low < high) {
+      long mid = (low + high) >>> 1;
+      buffer.clear();
+      channel.read(buffer, mid * RECORD_SIZE);
+      if (buffer.getLong(0) < timestamp) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private long lastTimestamp(String currency) throws IOException {
+    Long cached = lastTimestamps.get(currency);
+    if (cached != null) {
+      return cached;
+    }
+    long last = Long.MIN_VALUE;
+    Path file = fileOf(currency);
+    if (Files.exists(file)) {
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        long records = channel.size() / RECORD_SIZE;
+        if (records > 0) {
+          ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+          channel.read(buffer, (records - 1) * RECORD_SIZE);
+          last = buffer.getLong(0);
+        }
+      }
+    }
+    lastTimestamps.put(currency, last);
+    return last;
+  }
+
+  private Path fileOf(String currency) {
+    try {
+      return directory.resolve(URLEncoder.encode(currency, StandardCharsets.UTF_8.name()) + ".bin");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
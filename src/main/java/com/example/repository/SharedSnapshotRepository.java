@@ -0,0 +1,135 @@
+package com.example.repository;
+
+import java.util.List;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 叢集模式共用的 poller_lease（負責向上游更新的節點租約）與 price_snapshot（共用快照）資料表。
+ *
+ * <p>與 currency_map 使用同一個資料來源。寫入快照時以同一句 SQL 確認租約仍屬於寫入者，
+ * 租約已被其他節點取得時不會寫入（fencing）。
+ */
+@Repository
+public class SharedSnapshotRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public SharedSnapshotRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public void createTables() {
+    jdbcTemplate.execute("create table if not exists poller_lease ("
+        + "name varchar(64) primary key, owner varchar(255) not null, "
+        + "expires_at bigint not null)");
+    jdbcTemplate.execute("create table if not exists price_snapshot ("
+        + "version bigint primary key, owner varchar(255) not null, "
+        + "created_at bigint not null, snapshot_version bigint not null, "
+        + "payload blob not null)");
+  }
+
+  /**
+   * 取得或延長租約：租約不存在、已過期或原本就屬於 {@code owner} 時成功。
+   *
+   * @param now       目前時間（epoch millis）
+   * @param expiresAt 新的到期時間（epoch millis）
+   * @return 是否持有租約
+   */
+  public boolean tryAcquire(String name, String owner, long now, long expiresAt) {
+    int updated = jdbcTemplate.update("update poller_lease set owner = ?, expires_at = ? "
+        + "where name = ? and (owner = ? or expires_at < ?)", owner, expiresAt, name, owner, now);
+    if (updated > 0) {
+      return true;
+    }
+    try {
+      return jdbcTemplate.update("insert into poller_lease (name, owner, expires_at) "
+          + "values (?, ?, ?)", name, owner, expiresAt) > 0;
+    } catch (DuplicateKeyException e) {
+      // 租約由其他節點持有
+      return false;
+    }
+  }
+
+  /**
+   * 釋放租約，讓其他節點不必等到期即可接手。
+   */
+  public void release(String name, String owner) {
+    jdbcTemplate.update("update poller_lease set expires_at = 0 where name = ? and owner = ?",
+        name, owner);
+  }
+
+  /**
+   * 以下一個版本號寫入快照；{@code owner} 未持有有效租約時不寫入。
+   *
+   * @param snapshotVersion poller 發布時的快照版本號，follower 沿用
+   * @return 寫入的版本號，未寫入時回傳 -1
+   */
+  public long insertIfLeader(String lease, String owner, long now, long snapshotVersion,
+      byte[] payload) {
+    int inserted = jdbcTemplate.update("insert into price_snapshot "
+            + "(version, owner, created_at, snapshot_version, payload) "
+            + "select (select coalesce(max(version), 0) + 1 from price_snapshot), ?, ?, ?, ? "
+            + "from poller_lease where name = ? and owner = ? and expires_at >= ?",
+        owner, now, snapshotVersion, payload, lease, owner, now);
+    if (inserted == 0) {
+      return -1L;
+    }
+    Long version = jdbcTemplate.queryForObject(
+        "select max(version) from price_snapshot where owner = ?", Long.class, owner);
+    return version == null ? -1L : version;
+  }
+
+  /**
+   * @return 最新的快照版本，尚無快照時回傳 0
+   */
+  public long findLatestVersion() {
+    Long version = jdbcTemplate.queryForObject(
+        "select coalesce(max(version), 0) from price_snapshot", Long.class);
+    return version == null ? 0L : version;
+  }
+
+  /**
+   * @return 最新一版快照，尚無快照時回傳 null
+   */
+  public SharedSnapshotRow findLatest() {
+    List<SharedSnapshotRow> rows = jdbcTemplate.query(
+        "select version, snapshot_version, payload from price_snapshot "
+            + "where version = (select max(version) from price_snapshot)",
+        (rs, rowNum) -> new SharedSnapshotRow(rs.getLong(1), rs.getLong(2), rs.getBytes(3)));
+    return rows.isEmpty() ? null : rows.get(0);
+  }
+
+  /**
+   * 刪除早於 {@code version} 的快照。
+   */
+  public void deleteBefore(long version) {
+    jdbcTemplate.update("delete from price_snapshot where version < ?", version);
+  }
+
+  public static final class SharedSnapshotRow {
+
+    private final long version;
+    private final long snapshotVersion;
+    private final byte[] payload;
+
+    public SharedSnapshotRow(long version, long snapshotVersion, byte[] payload) {
+      this.version = version;
+      this.snapshotVersion = snapshotVersion;
+      this.payload = payload;
+    }
+
+    public long getVersion() {
+      return version;
+    }
+
+    public long getSnapshotVersion() {
+      return snapshotVersion;
+    }
+
+    public byte[] getPayload() {
+      return payload;
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package com.example.service;
+
+import com.example.dto.AlertNotificationDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 以背景執行緒將提醒通知分批送至 {@link AlertSink}，評估快照的執行緒不等待輸出端。
+ *
+ * <p>收到第一筆通知後最多再等待 {@code coindesk.alerts.linger-ms} 湊滿一批
+ * （{@code coindesk.alerts.batch-size} 筆）。佇列已滿時新的通知直接捨棄；送出失敗的批次不重試。
+ * 各結果以 {@code coindesk.alerts.notifications}（result=sent、dropped、failed）計數。
+ */
+@Component
+public class AlertDispatcher {
+
+  private static final Logger log = LoggerFactory.getLogger(AlertDispatcher.class);
+
+  private final AlertSink sink;
+  private final BlockingQueue<AlertNotificationDTO> queue;
+  private final int batchSize;
+  private final long lingerNanos;
+  private final Counter sent;
+  private final Counter dropped;
+  private final Counter failed;
+  private final Thread worker;
+  private volatile boolean running = true;
+
+  public AlertDispatcher(AlertSink sink, MeterRegistry registry,
+      @Value("${coindesk.alerts.queue-capacity:100000}") int queueCapacity,
+      @Value("${coindesk.alerts.batch-size:500}") int batchSize,
+      @Value("${coindesk.alerts.linger-ms:200}") long lingerMs) {
+    this.sink = sink;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.batchSize = batchSize;
+    this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+    this.sent = counter(registry, "sent");
+    this.dropped = counter(registry, "dropped");
+    this.failed = counter(registry, "failed");
+    this.worker = new Thread(this::run, "alert-dispatch");
+    this.worker.setDaemon(true);
+    this.worker.start();
+  }
+
+  private static Counter counter(MeterRegistry registry, String result) {
+    return Counter.builder("coindesk.alerts.notifications")
+        .tag("result", result)
+        .register(registry);
+  }
+
+  /**
+   * 排入通知，不會阻塞；佇列已滿的部分捨棄。
+   */
+  public void offer(List<AlertNotificationDTO> alerts) {
+    int rejected = 0;
+    for (AlertNotificationDTO alert : alerts) {
+      if (!queue.offer(alert)) {
+        rejected++;
+      }
+    }
+    if (rejected > 0) {
+      dropped.increment(rejected);
+      log.warn("Alert queue is full, dropped {} notifications", rejected);
+    }
+  }
+
+  private void run() {
+    while (running || !queue.isEmpty()) {
+      List<AlertNotificationDTO> batch;
+      try {
+        batch = nextBatch();
+      } catch (InterruptedException e) {
+        return;
+      }
+      if (batch.isEmpty()) {
+        continue;
+      }
+      try {
+        sink.send(batch);
+        sent.increment(batch.size());
+      } catch (RuntimeException e) {
+        failed.increment(batch.size());
+        log.warn("Failed to deliver {} alert notifications: {}", batch.size(), e.getMessage());
+      }
+    }
+  }
+
+  private List<AlertNotificationDTO> nextBatch() throws InterruptedException {
+    AlertNotificationDTO first = queue.poll(1, TimeUnit.SECONDS);
+    if (first == null) {
+      return new ArrayList<>(0);
+    }
+    List<AlertNotificationDTO> batch = new ArrayList<>(Math.min(batchSize, queue.size() + 1));
+    batch.add(first);
+    long deadline = System.nanoTime() + lingerNanos;
+    while (batch.size() < batchSize) {
+      queue.drainTo(batch, batchSize - batch.size());
+      long remaining = deadline - System.nanoTime();
+      if (batch.size() >= batchSize || remaining <= 0) {
+        break;
+      }
+      AlertNotificationDTO next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+      if (next == null) {
+        break;
+      }
+      batch.add(next);
+    }
+    return batch;
+  }
+
+  /**
+   * 送出佇列中剩餘的通知（最多等待 5 秒）後停止。
+   */
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    running = false;
+    worker.join(TimeUnit.SECONDS.toMillis(5));
+    worker.interrupt();
+  }
+}
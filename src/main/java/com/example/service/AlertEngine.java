@@ -0,0 +1,340 @@
+package com.example.service;
+
+import com.example.dto.AlertNotificationDTO;
+import com.example.dto.CurrencyInfoDTO;
+import com.example.model.AlertRule;
+import com.example.repository.AlertRuleRepository;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 價格提醒引擎：每次發布新快照時，以 {@link AlertIndex} 找出價格變動所跨過的規則，
+ * 交由 {@link AlertDispatcher} 送出。
+ *
+ * <p>評估於背景執行緒進行（合併連續的發布，只評估最新一版，前後價格仍以上次評估的值比較，
+ * 不會漏掉跨過的門檻）。規則皆為邊緣觸發：價格跨過門檻時通知一次，回到門檻另一側後才會再次觸發。
+ * 時間窗規則所需的價格紀錄只保留在記憶體中，保留長度為目前規則中最長的時間窗，
+ * 重新啟動後需累積一個時間窗才會開始比對。
+ *
+ * <p>叢集模式下只有 poller 評估與送出通知，follower 不處理快照。規則可能由任一節點新增或修改，
+ * poller 取得租約時及之後每隔 {@code coindesk.alerts.reload-interval-ms} 比對 alert_rule 的
+ * 筆數、最大 ID 與最後修改時間，有變動即重新載入全部規則；最後修改時間由寫入的節點產生，節點之間需校時。
+ * 取得租約時也清除價格紀錄，避免以擔任 follower 前的舊價格判斷跨過門檻。
+ */
+@Component
+public class AlertEngine {
+
+  private static final Logger log = LoggerFactory.getLogger(AlertEngine.class);
+
+  private static final long MINUTE_MS = 60_000L;
+  private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+  private final AlertRuleRepository repository;
+  private final AlertDispatcher dispatcher;
+  private final ClusterCoordinator cluster;
+  private final AlertIndex index = new AlertIndex();
+  private volatile List<Object> rulesSignature;
+
+  private final Map<String, CoinState> states = new HashMap<>();
+  private long evaluatedFetchedAt = -1L;
+  private final AtomicReference<CurrencySnapshot> pending = new AtomicReference<>();
+  private final AtomicBoolean evaluateScheduled = new AtomicBoolean();
+  private final ExecutorService evaluateExecutor = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "alert-evaluate");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  public AlertEngine(AlertRuleRepository repository, AlertDispatcher dispatcher,
+      ClusterCoordinator cluster) {
+    this.repository = repository;
+    this.dispatcher = dispatcher;
+    this.cluster = cluster;
+  }
+
+  /**
+   * 啟動時載入所有規則。
+   */
+  @PostConstruct
+  public void loadRules() {
+    for (AlertRule rule : repository.findAll()) {
+      index.put(rule);
+    }
+    log.info("Loaded {} alert rules", index.size());
+  }
+
+  /**
+   * 加入或取代規則（依 ID）。
+   */
+  public void register(AlertRule rule) {
+    index.put(rule);
+  }
+
+  public void unregister(long id) {
+    index.remove(id);
+  }
+
+  /**
+   * @return 索引中的規則數
+   */
+  public int ruleCount() {
+    return index.size();
+  }
+
+  /**
+   * 叢集模式下由 poller 比對 alert_rule，其他節點修改過規則時重新載入；失去租約後下次取得時重新載入。
+   */
+  @Scheduled(fixedDelayString = "${coindesk.alerts.reload-interval-ms:10000}")
+  public void syncRules() {
+    if (!cluster.isEnabled()) {
+      return;
+    }
+    if (!cluster.isPoller()) {
+      rulesSignature = null;
+      return;
+    }
+    AlertRuleRepository.RulesSignature current = repository.findSignature();
+    List<Object> signature = Arrays.asList(current.getCount(), current.getMaxId(),
+        current.getMaxUpdateAt());
+    List<Object> previous = rulesSignature;
+    if (signature.equals(previous)) {
+      return;
+    }
+    reload(repository.findAll(), previous == null);
+    rulesSignature = signature;
+    log.info("Reloaded {} alert rules", index.size());
+  }
+
+  private synchronized void reload(List<AlertRule> rules, boolean resetStates) {
+    index.reset(rules);
+    if (resetStates) {
+      states.clear();
+    }
+  }
+
+  /**
+   * @return 本節點取得租約後尚未載入規則
+   */
+  private boolean needsSync() {
+    return cluster.isEnabled() && rulesSignature == null;
+  }
+
+  @EventListener
+  public void onSnapshotPublished(CurrencySnapshotPublishedEvent event) {
+    if (!cluster.isPoller() || (index.size() == 0 && !needsSync())) {
+      return;
+    }
+    pending.set(event.getCurrent());
+    if (evaluateScheduled.compareAndSet(false, true)) {
+      evaluateExecutor.execute(() -> {
+        evaluateScheduled.set(false);
+        CurrencySnapshot snapshot = pending.getAndSet(null);
+        if (snapshot == null) {
+          return;
+        }
+        try {
+          if (needsSync()) {
+            syncRules();
+          }
+          List<AlertNotificationDTO> alerts = evaluate(snapshot);
+          if (!alerts.isEmpty()) {
+            dispatcher.offer(alerts);
+          }
+        } catch (RuntimeException e) {
+          log.warn("Alert evaluation failed for snapshot v{}", snapshot.getVersion(), e);
+        }
+      });
+    }
+  }
+
+  /**
+   * 以快照價格比對規則並更新價格紀錄；取得時間未晚於上次評估的快照（如只改中文名稱）不處理。
+   *
+   * @return 被觸發的規則通知
+   */
+  synchronized List<AlertNotificationDTO> evaluate(CurrencySnapshot snapshot) {
+    long now = snapshot.getFetchedAt();
+    List<AlertNotificationDTO> alerts = new ArrayList<>();
+    if (now <= evaluatedFetchedAt) {
+      return alerts;
+    }
+    evaluatedFetchedAt = now;
+    long retentionMs = index.maxWindowMinutes() * MINUTE_MS;
+    for (CurrencyInfoDTO dto : snapshot.getCurrencies()) {
+      BigDecimal current = dto.getRate();
+      if (current == null) {
+        continue;
+      }
+      String coin = dto.getCurrency();
+      CoinState state = states.computeIfAbsent(coin, key -> new CoinState());
+      BigDecimal previous = state.lastRate;
+      index.match(coin, previous, current, new Windows(state, now, current),
+          (rule, observed) -> alerts.add(new AlertNotificationDTO(rule.id, coin,
+              rule.condition.name(), rule.threshold, rule.windowMinutes, current, previous,
+              observed, now, snapshot.getVersion())));
+      state.lastRate = current;
+      state.record(now, current, retentionMs);
+    }
+    return alerts;
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    evaluateExecutor.shutdown();
+    evaluateExecutor.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  /**
+   * 單一幣別的上次價格、價格紀錄（依時間遞增）與各時間窗上次的漲跌幅。
+   *
+   * <p>突破最高價所需的時間窗最高價以單調佇列維護：每個查詢過的時間窗各保留一個價格遞減的紀錄子集，
+   * 加入新價格時移除尾端不高於它的紀錄，查詢時移除前端已離開時間窗的紀錄，前端即為最高價。
+   */
+  private static final class CoinState {
+
+    private BigDecimal lastRate;
+    private final ArrayDeque<Sample> samples = new ArrayDeque<>();
+    private final Map<Integer, BigDecimal> lastMoves = new HashMap<>();
+    private final Map<Integer, ArrayDeque<Sample>> maxima = new HashMap<>();
+
+    /**
+     * 加入本次價格，並保留一筆早於 retentionMs 的紀錄作為時間窗起點的價格。
+     */
+    private void record(long time, BigDecimal rate, long retentionMs) {
+      if (retentionMs <= 0) {
+        samples.clear();
+        maxima.clear();
+        return;
+      }
+      Sample sample = new Sample(time, rate);
+      samples.addLast(sample);
+      long cutoff = time - retentionMs;
+      while (samples.size() > 1) {
+        Iterator<Sample> iterator = samples.iterator();
+        iterator.next();
+        if (iterator.next().time > cutoff) {
+          break;
+        }
+        samples.removeFirst();
+      }
+      long oldest = samples.peekFirst().time;
+      for (ArrayDeque<Sample> window : maxima.values()) {
+        while (!window.isEmpty() && window.peekFirst().time < oldest) {
+          window.removeFirst();
+        }
+        push(window, sample);
+      }
+    }
+
+    /**
+     * @return 晚於 cutoff 的紀錄中的最高價，沒有時回傳 null
+     */
+    private BigDecimal high(int windowMinutes, long cutoff) {
+      ArrayDeque<Sample> window = maxima.get(windowMinutes);
+      if (window == null) {
+        window = new ArrayDeque<>();
+        for (Sample sample : samples) {
+          push(window, sample);
+        }
+        maxima.put(windowMinutes, window);
+      }
+      while (!window.isEmpty() && window.peekFirst().time <= cutoff) {
+        window.removeFirst();
+      }
+      return window.isEmpty() ? null : window.peekFirst().rate;
+    }
+
+    private static void push(ArrayDeque<Sample> window, Sample sample) {
+      while (!window.isEmpty() && window.peekLast().rate.compareTo(sample.rate) <= 0) {
+        window.removeLast();
+      }
+      window.addLast(sample);
+    }
+  }
+
+  private static final class Sample {
+
+    private final long time;
+    private final BigDecimal rate;
+
+    private Sample(long time, BigDecimal rate) {
+      this.time = time;
+      this.rate = rate;
+    }
+  }
+
+  /**
+   * 以本次評估前的價格紀錄計算時間窗資料；同一時間窗只計算一次。
+   */
+  private static final class Windows implements AlertIndex.PriceWindows {
+
+    private final CoinState state;
+    private final long now;
+    private final BigDecimal current;
+    private final Map<Integer, BigDecimal[]> changes = new HashMap<>(2);
+    private final Map<Integer, BigDecimal> highs = new HashMap<>(2);
+
+    private Windows(CoinState state, long now, BigDecimal current) {
+      this.state = state;
+      this.now = now;
+      this.current = current;
+    }
+
+    @Override
+    public BigDecimal[] change(int windowMinutes) {
+      if (changes.containsKey(windowMinutes)) {
+        return changes.get(windowMinutes);
+      }
+      BigDecimal[] moves = null;
+      BigDecimal reference = null;
+      long cutoff = now - windowMinutes * MINUTE_MS;
+      for (Sample sample : state.samples) {
+        if (sample.time > cutoff) {
+          break;
+        }
+        reference = sample.rate;
+      }
+      if (reference != null && reference.signum() > 0) {
+        BigDecimal move = current.subtract(reference).abs().multiply(HUNDRED)
+            .divide(reference, 6, RoundingMode.HALF_EVEN);
+        moves = new BigDecimal[] {state.lastMoves.put(windowMinutes, move), move};
+      }
+      changes.put(windowMinutes, moves);
+      return moves;
+    }
+
+    @Override
+    public BigDecimal high(int windowMinutes) {
+      if (highs.containsKey(windowMinutes)) {
+        return highs.get(windowMinutes);
+      }
+      BigDecimal high = null;
+      long cutoff = now - windowMinutes * MINUTE_MS;
+      Sample first = state.samples.peekFirst();
+      if (first != null && first.time <= cutoff) {
+        high = state.high(windowMinutes, cutoff);
+      }
+      highs.put(windowMinutes, high);
+      return high;
+    }
+  }
+}
@@ -0,0 +1,241 @@
+package com.example.service;
+
+import com.example.model.AlertCondition;
+import com.example.model.AlertRule;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * 依幣別分組的提醒規則索引。
+ *
+ * <p>價格門檻（PRICE_ABOVE、PRICE_BELOW）與漲跌幅門檻（CHANGE_PERCENT，依時間窗分開）存放於
+ * 以門檻排序的 {@link TreeMap}，新價格只需以前後兩次的值取出區間內的規則，不必逐一比對；
+ * HIGH_BREAKOUT 只依時間窗分組。currency 為 {@link AlertRule#ALL_CURRENCIES} 的規則另存一組，
+ * 每個幣別都會比對。
+ */
+final class AlertIndex {
+
+  private final Map<String, CoinRules> byCoin = new HashMap<>();
+  private final Map<Long, IndexedRule> byId = new HashMap<>();
+  private final TreeMap<Integer, Integer> windows = new TreeMap<>();
+
+  /**
+   * 加入規則；相同 ID 的規則先移除。
+   */
+  synchronized void put(AlertRule rule) {
+    remove(rule.getId());
+    IndexedRule indexed = new IndexedRule(rule);
+    CoinRules rules = byCoin.computeIfAbsent(indexed.currency, currency -> new CoinRules());
+    rules.bucket(indexed).add(indexed);
+    byId.put(indexed.id, indexed);
+    if (indexed.windowMinutes != null) {
+      windows.merge(indexed.windowMinutes, 1, Integer::sum);
+    }
+  }
+
+  /**
+   * 以 rules 取代索引中的所有規則。
+   */
+  synchronized void reset(Collection<AlertRule> rules) {
+    byCoin.clear();
+    byId.clear();
+    windows.clear();
+    for (AlertRule rule : rules) {
+      put(rule);
+    }
+  }
+
+  /**
+   * @return 是否有此規則
+   */
+  synchronized boolean remove(long id) {
+    IndexedRule indexed = byId.remove(id);
+    if (indexed == null) {
+      return false;
+    }
+    CoinRules rules = byCoin.get(indexed.currency);
+    List<IndexedRule> bucket = rules.bucket(indexed);
+    bucket.remove(indexed);
+    if (bucket.isEmpty()) {
+      rules.prune(indexed);
+      if (rules.isEmpty()) {
+        byCoin.remove(indexed.currency);
+      }
+    }
+    if (indexed.windowMinutes != null
+        && windows.merge(indexed.windowMinutes, -1, Integer::sum) == 0) {
+      windows.remove(indexed.windowMinutes);
+    }
+    return true;
+  }
+
+  synchronized int size() {
+    return byId.size();
+  }
+
+  /**
+   * @return 所有規則中最長的時間窗（分鐘），沒有時間窗規則時為 0
+   */
+  synchronized int maxWindowMinutes() {
+    return windows.isEmpty() ? 0 : windows.lastKey();
+  }
+
+  /**
+   * 以幣別的前後兩次價格找出被觸發的規則。
+   *
+   * @param previous 前一次價格，第一次出現時為 null（只比對時間窗規則）
+   * @param current  本次價格
+   * @param history  依時間窗計算漲跌幅與最高價
+   * @param fired    每個被觸發的規則與其觀測值（漲跌幅或最高價，價格門檻為 null）
+   */
+  synchronized void match(String coin, BigDecimal previous, BigDecimal current,
+      PriceWindows history, Listener fired) {
+    match(byCoin.get(coin), previous, current, history, fired);
+    match(byCoin.get(AlertRule.ALL_CURRENCIES), previous, current, history, fired);
+  }
+
+  private static void match(CoinRules rules, BigDecimal previous, BigDecimal current,
+      PriceWindows history, Listener fired) {
+    if (rules == null) {
+      return;
+    }
+    if (previous != null) {
+      int direction = current.compareTo(previous);
+      if (direction > 0) {
+        fire(rules.above.subMap(previous, false, current, true), null, fired);
+      } else if (direction < 0) {
+        fire(rules.below.subMap(current, true, previous, false), null, fired);
+      }
+    }
+    for (Map.Entry<Integer, TreeMap<BigDecimal, List<IndexedRule>>> entry
+        : rules.change.entrySet()) {
+      BigDecimal[] moves = history.change(entry.getKey());
+      if (moves == null) {
+        continue;
+      }
+      BigDecimal before = moves[0];
+      BigDecimal move = moves[1];
+      if (before == null) {
+        fire(entry.getValue().headMap(move, true), move, fired);
+      } else if (move.compareTo(before) > 0) {
+        fire(entry.getValue().subMap(before, false, move, true), move, fired);
+      }
+    }
+    if (previous != null) {
+      for (Map.Entry<Integer, List<IndexedRule>> entry : rules.breakout.entrySet()) {
+        BigDecimal high = history.high(entry.getKey());
+        if (high != null && previous.compareTo(high) <= 0 && current.compareTo(high) > 0) {
+          for (IndexedRule rule : entry.getValue()) {
+            fired.fired(rule, high);
+          }
+        }
+      }
+    }
+  }
+
+  private static void fire(NavigableMap<BigDecimal, List<IndexedRule>> crossed,
+      BigDecimal observed, Listener fired) {
+    for (Collection<IndexedRule> rules : crossed.values()) {
+      for (IndexedRule rule : rules) {
+        fired.fired(rule, observed);
+      }
+    }
+  }
+
+  /**
+   * 單一幣別的時間窗資料，由 {@link AlertEngine} 依價格紀錄計算。
+   */
+  interface PriceWindows {
+
+    /**
+     * @return {前一次, 本次} 與 windowMinutes 分鐘前相比的漲跌幅絕對值（%）；前一次未知時為
+     *     null，紀錄不足一個時間窗時整體回傳 null
+     */
+    BigDecimal[] change(int windowMinutes);
+
+    /**
+     * @return 前 windowMinutes 分鐘內（不含本次）的最高價，紀錄不足一個時間窗時回傳 null
+     */
+    BigDecimal high(int windowMinutes);
+  }
+
+  interface Listener {
+
+    void fired(IndexedRule rule, BigDecimal observed);
+  }
+
+  /**
+   * 索引中保存的規則內容，與 JPA 實體分開，避免實體修改影響索引。
+   */
+  static final class IndexedRule {
+
+    final long id;
+    final String currency;
+    final AlertCondition condition;
+    final BigDecimal threshold;
+    final Integer windowMinutes;
+
+    private IndexedRule(AlertRule rule) {
+      this.id = rule.getId();
+      this.currency = rule.getCurrency();
+      this.condition = rule.getCondition();
+      this.threshold = rule.getThreshold();
+      this.windowMinutes = rule.getWindowMinutes();
+    }
+  }
+
+  private static final class CoinRules {
+
+    private final TreeMap<BigDecimal, List<IndexedRule>> above = new TreeMap<>();
+    private final TreeMap<BigDecimal, List<IndexedRule>> below = new TreeMap<>();
+    private final Map<Integer, TreeMap<BigDecimal, List<IndexedRule>>> change = new HashMap<>();
+    private final Map<Integer, List<IndexedRule>> breakout = new HashMap<>();
+
+    private List<IndexedRule> bucket(IndexedRule rule) {
+      switch (rule.condition) {
+        case PRICE_ABOVE:
+          return above.computeIfAbsent(rule.threshold, key -> new ArrayList<>(1));
+        case PRICE_BELOW:
+          return below.computeIfAbsent(rule.threshold, key -> new ArrayList<>(1));
+        case CHANGE_PERCENT:
+          return change.computeIfAbsent(rule.windowMinutes, key -> new TreeMap<>())
+              .computeIfAbsent(rule.threshold, key -> new ArrayList<>(1));
+        default:
+          return breakout.computeIfAbsent(rule.windowMinutes, key -> new ArrayList<>());
+      }
+    }
+
+    /**
+     * 移除 {@code rule} 所在的空分組。
+     */
+    private void prune(IndexedRule rule) {
+      switch (rule.condition) {
+        case PRICE_ABOVE:
+          above.remove(rule.threshold);
+          break;
+        case PRICE_BELOW:
+          below.remove(rule.threshold);
+          break;
+        case CHANGE_PERCENT:
+          TreeMap<BigDecimal, List<IndexedRule>> thresholds = change.get(rule.windowMinutes);
+          thresholds.remove(rule.threshold);
+          if (thresholds.isEmpty()) {
+            change.remove(rule.windowMinutes);
+          }
+          break;
+        default:
+          breakout.remove(rule.windowMinutes);
+      }
+    }
+
+    private boolean isEmpty() {
+      return above.isEmpty() && below.isEmpty() && change.isEmpty() && breakout.isEmpty();
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package com.example.service;
+
+import static com.example.common.ErrorMessages.ALERT_CURRENCY_UNTRACKED;
+import static com.example.common.ErrorMessages.ALERT_RULE_NOT_FOUND;
+import static com.example.common.ErrorMessages.ALERT_THRESHOLD_REQUIRED;
+import static com.example.common.ErrorMessages.ALERT_WILDCARD_UNSUPPORTED;
+import static com.example.common.ErrorMessages.ALERT_WINDOW_INVALID;
+
+import com.example.exception.BadRequestException;
+import com.example.exception.ResourceNotFoundException;
+import com.example.model.AlertCondition;
+import com.example.model.AlertRule;
+import com.example.repository.AlertRuleRepository;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+/**
+ * 價格提醒規則的 CRUD，寫入資料庫後同步更新 {@link AlertEngine} 的索引。
+ */
+@Service
+public class AlertService {
+
+  private final AlertRuleRepository repository;
+  private final AlertEngine alertEngine;
+  private final CurrencyMapCache currencyMapCache;
+  private final int maxWindowMinutes;
+
+  public AlertService(AlertRuleRepository repository, AlertEngine alertEngine,
+      CurrencyMapCache currencyMapCache,
+      @Value("${coindesk.alerts.max-window-minutes:1440}") int maxWindowMinutes) {
+    this.repository = repository;
+    this.alertEngine = alertEngine;
+    this.currencyMapCache = currencyMapCache;
+    this.maxWindowMinutes = maxWindowMinutes;
+  }
+
+  /**
+   * @param currency 幣別 ID，未指定時回傳全部
+   */
+  public List<AlertRule> findAll(String currency) {
+    return currency == null ? repository.findAll(Sort.by("id"))
+        : repository.findByCurrencyOrderById(currency);
+  }
+
+  public AlertRule findById(long id) {
+    return repository.findById(id).orElseThrow(
+        () -> new ResourceNotFoundException(String.format(ALERT_RULE_NOT_FOUND, id)));
+  }
+
+  public AlertRule create(AlertRule rule) {
+    rule.setId(null);
+    validate(rule);
+    AlertRule saved = repository.save(rule);
+    alertEngine.register(saved);
+    return saved;
+  }
+
+  public AlertRule update(long id, AlertRule rule) {
+    AlertRule existing = findById(id);
+    validate(rule);
+    existing.setCurrency(rule.getCurrency());
+    existing.setCondition(rule.getCondition());
+    existing.setThreshold(rule.getThreshold());
+    existing.setWindowMinutes(rule.getWindowMinutes());
+    AlertRule saved = repository.save(existing);
+    alertEngine.register(saved);
+    return saved;
+  }
+
+  public void delete(long id) {
+    if (!repository.existsById(id)) {
+      throw new ResourceNotFoundException(String.format(ALERT_RULE_NOT_FOUND, id));
+    }
+    repository.deleteById(id);
+    alertEngine.unregister(id);
+  }
+
+  /**
+   * 檢查規則內容，並清除該條件不使用的欄位。
+   *
+   * @throws BadRequestException 幣別未追蹤、門檻或時間窗不合法
+   */
+  private void validate(AlertRule rule) {
+    AlertCondition condition = rule.getCondition();
+    String currency = rule.getCurrency();
+    if (AlertRule.ALL_CURRENCIES.equals(currency)) {
+      if (!condition.isWindowed()) {
+        throw new BadRequestException(ALERT_WILDCARD_UNSUPPORTED);
+      }
+    } else if (!currencyMapCache.contains(currency)) {
+      throw new BadRequestException(String.format(ALERT_CURRENCY_UNTRACKED, currency));
+    }
+    if (condition == AlertCondition.HIGH_BREAKOUT) {
+      rule.setThreshold(null);
+    } else if (rule.getThreshold() == null || rule.getThreshold().signum() <= 0) {
+      throw new BadRequestException(String.format(ALERT_THRESHOLD_REQUIRED, condition));
+    }
+    if (!condition.isWindowed()) {
+      rule.setWindowMinutes(null);
+    } else if (rule.getWindowMinutes() == null || rule.getWindowMinutes() < 1
+        || rule.getWindowMinutes() > maxWindowMinutes) {
+      throw new BadRequestException(
+          String.format(ALERT_WINDOW_INVALID, condition, maxWindowMinutes));
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package com.example.service;
+
+import com.example.dto.AlertNotificationDTO;
+import java.util.List;
+
+/**
+ * 價格提醒通知的輸出端，由 {@link AlertDispatcher} 在背景執行緒依批次呼叫。
+ */
+public interface AlertSink {
+
+  /**
+   * 送出一批通知；失敗時拋出例外，該批通知會被記錄為失敗並捨棄。
+   */
+  void send(List<AlertNotificationDTO> batch);
+}
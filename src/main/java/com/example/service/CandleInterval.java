@@ -0,0 +1,46 @@
+package com.example.service;
+
+import static com.example.common.ErrorMessages.INVALID_CANDLE_INTERVAL;
+
+import com.example.exception.BadRequestException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * K 線週期。
+ */
+public enum CandleInterval {
+
+  ONE_MINUTE("1m", TimeUnit.MINUTES.toMillis(1)),
+  FIVE_MINUTES("5m", TimeUnit.MINUTES.toMillis(5)),
+  ONE_HOUR("1h", TimeUnit.HOURS.toMillis(1)),
+  ONE_DAY("1d", TimeUnit.DAYS.toMillis(1));
+
+  private final String code;
+  private final long millis;
+
+  CandleInterval(String code, long millis) {
+    this.code = code;
+    this.millis = millis;
+  }
+
+  public String getCode() {
+    return code;
+  }
+
+  public long getMillis() {
+    return millis;
+  }
+
+  /**
+   * @param code 週期代碼（1m、5m、1h、1d）
+   * @throws BadRequestException 不支援的週期
+   */
+  public static CandleInterval fromCode(String code) {
+    for (CandleInterval interval : values()) {
+      if (interval.code.equals(code)) {
+        return interval;
+      }
+    }
+    throw new BadRequestException(INVALID_CANDLE_INTERVAL);
+  }
+}
@@ -0,0 +1,96 @@
+package com.example.service;
+
+import com.example.dto.CandleDTO;
+import com.example.repository.PriceHistoryStore;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 單一幣別、單一週期的 K 線，以固定大小的環狀陣列保存最近 {@code capacity} 個週期。
+ *
+ * <p>價格以 {@link PriceHistoryStore} 的放大 long 儲存，新增樣本只更新對應週期的欄位，
+ * 查詢時才轉為 {@link CandleDTO}。
+ */
+final class CandleSeries {
+
+  private static final long EMPTY = Long.MIN_VALUE;
+
+  private final long intervalMillis;
+  private final int capacity;
+  private final long[] starts;
+  private final long[] open;
+  private final long[] high;
+  private final long[] low;
+  private final long[] close;
+  private final int[] count;
+  private long latestStart = EMPTY;
+
+  CandleSeries(long intervalMillis, int capacity) {
+    this.intervalMillis = intervalMillis;
+    this.capacity = capacity;
+    this.starts = new long[capacity];
+    this.open = new long[capacity];
+    this.high = new long[capacity];
+    this.low = new long[capacity];
+    this.close = new long[capacity];
+    this.count = new int[capacity];
+    Arrays.fill(starts, EMPTY);
+  }
+
+  /**
+   * 加入一筆樣本；早於最新週期保留範圍的樣本會被略過。
+   */
+  synchronized void add(long timestamp, long price) {
+    long start = Math.floorDiv(timestamp, intervalMillis) * intervalMillis;
+    if (latestStart != EMPTY && start <= latestStart - (long) capacity * intervalMillis) {
+      return;
+    }
+    int slot = slotOf(start);
+    if (starts[slot] != start) {
+      if (starts[slot] > start) {
+        return;
+      }
+      starts[slot] = start;
+      open[slot] = price;
+      high[slot] = price;
+      low[slot] = price;
+      count[slot] = 0;
+    } else {
+      high[slot] = Math.max(high[slot], price);
+      low[slot] = Math.min(low[slot], price);
+    }
+    close[slot] = price;
+    count[slot]++;
+    latestStart = Math.max(latestStart, start);
+  }
+
+  /**
+   * 查詢起始時間落在區間內（含起訖）的 K 線，依時間遞增排序；沒有樣本的週期不列出。
+   */
+  synchronized List<CandleDTO> range(long from, long to) {
+    List<CandleDTO> result = new ArrayList<>();
+    if (latestStart == EMPTY) {
+      return result;
+    }
+    long oldest = latestStart - (long) (capacity - 1) * intervalMillis;
+    long first = Math.max(oldest, Math.floorDiv(from, intervalMillis) * intervalMillis);
+    if (first < from) {
+      first += intervalMillis;
+    }
+    long last = Math.min(latestStart, to);
+    for (long start = first; start <= last; start += intervalMillis) {
+      int slot = slotOf(start);
+      if (starts[slot] == start) {
+        result.add(new CandleDTO(start, PriceHistoryStore.toPrice(open[slot]),
+            PriceHistoryStore.toPrice(high[slot]), PriceHistoryStore.toPrice(low[slot]),
+            PriceHistoryStore.toPrice(close[slot]), count[slot]));
+      }
+    }
+    return result;
+  }
+
+  private int slotOf(long start) {
+    return (int) Math.floorMod(start / intervalMillis, (long) capacity);
+  }
+}
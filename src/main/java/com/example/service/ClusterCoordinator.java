@@ -0,0 +1,286 @@
+package com.example.service;
+
+import com.example.repository.SharedSnapshotRepository;
+import com.example.repository.SharedSnapshotRepository.SharedSnapshotRow;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * 叢集模式：多個節點共用同一個資料庫時，只由持有租約的節點（poller）向 CoinGecko 更新快照。
+ *
+ * <p>各節點定期嘗試取得或延長 poller_lease 的租約；poller 將發布的快照寫入 price_snapshot，
+ * 其他節點（follower）只讀取最新版本，不呼叫上游。poller 停止延長租約後，其他節點在租約到期後的
+ * 下一次檢查即接手；正常關閉時直接釋放租約。快照內容沿用 {@link SnapshotWarmStart} 的格式
+ * （不含幣別對應表：各節點更新前自共用的 currency_map 重新載入，follower 以其套用於共用市價）。
+ *
+ * <p>{@code coindesk.cluster.enabled} 為 false（預設）時每個節點都視為 poller，不存取共用資料表。
+ * 租約到期時間以各節點的系統時間判斷，節點之間需校時。
+ */
+@Component
+public class ClusterCoordinator {
+
+  private static final Logger log = LoggerFactory.getLogger(ClusterCoordinator.class);
+
+  static final String LEASE_NAME = "coingecko-poller";
+  private static final int RETAINED_VERSIONS = 10;
+  /** 2024-01-01T00:00:00Z，poller 版本號的秒數起點 */
+  private static final long VERSION_EPOCH_MS = 1_704_067_200_000L;
+  /** 版本號低位元：節點代號與本節點序號 */
+  static final int LOCAL_VERSION_BITS = 22;
+  private static final int LOCAL_COUNTER_BITS = 12;
+
+  private final SharedSnapshotRepository repository;
+  private final boolean enabled;
+  private final String nodeId;
+  private final long leaseMs;
+  private final long localVersionTag;
+
+  private volatile long leaderUntil;
+  private final AtomicReference<CurrencySnapshot> pending = new AtomicReference<>();
+  private final AtomicBoolean writeScheduled = new AtomicBoolean();
+  private final ExecutorService writeExecutor = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "snapshot-share");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private long lastSharedFetchedAt = -1L;
+  private long lastSharedMappingModifiedAt = -1L;
+
+  public ClusterCoordinator(SharedSnapshotRepository repository,
+      @Value("${coindesk.cluster.enabled:false}") boolean enabled,
+      @Value("${coindesk.cluster.node-id:}") String nodeId,
+      @Value("${coindesk.cluster.lease-ms:15000}") long leaseMs) {
+    this.repository = repository;
+    this.enabled = enabled;
+    this.nodeId = StringUtils.hasText(nodeId) ? nodeId
+        : ManagementFactory.getRuntimeMXBean().getName();
+    this.leaseMs = leaseMs;
+    this.localVersionTag = (long) ThreadLocalRandom.current()
+        .nextInt(1, 1 << (LOCAL_VERSION_BITS - LOCAL_COUNTER_BITS)) << LOCAL_COUNTER_BITS;
+  }
+
+  @PostConstruct
+  public void init() {
+    if (enabled) {
+      repository.createTables();
+      renew();
+    }
+  }
+
+  /**
+   * 取得或延長租約；資料庫無法使用時視為失去租約。
+   */
+  @Scheduled(fixedDelayString = "${coindesk.cluster.renew-interval-ms:5000}")
+  public void renew() {
+    if (!enabled) {
+      return;
+    }
+    boolean wasLeader = isLeader();
+    long now = System.currentTimeMillis();
+    boolean acquired;
+    try {
+      acquired = repository.tryAcquire(LEASE_NAME, nodeId, now, now + leaseMs);
+    } catch (DataAccessException e) {
+      log.warn("Lease renewal failed: {}", e.getMessage());
+      acquired = false;
+    }
+    leaderUntil = acquired ? now + leaseMs : 0L;
+    if (acquired != wasLeader) {
+      log.info("Node {} is now the {}", nodeId, acquired ? "poller" : "follower");
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * 下一個快照版本號。叢集模式下 poller 的版本號寫入共用資料表，follower 載入內容相同的共用快照時
+   * 沿用同一個版本號，差異查詢可在不同節點之間接續。
+   *
+   * <p>poller 的版本號只使用高位元，取上一版加一與自 2024 年起的秒數中較大者，接手的 poller
+   * 不會重複使用前一個 poller 來不及寫入的版本號；follower 自行產生的版本（對應表異動、與共用快照
+   * 內容不同時）在最近的 poller 版本之上加上隨機節點代號與序號，不與其他節點重疊。
+   * 上限仍小於 2^53，JavaScript 用戶端可精確表示。
+   *
+   * @param previous 本節點上一個版本號
+   * @return 下一個版本號，未啟用叢集模式時為 previous + 1
+   */
+  public long nextVersion(long previous) {
+    if (!enabled) {
+      return previous + 1;
+    }
+    if (!isLeader()) {
+      return nextLocalVersion(previous);
+    }
+    long seconds = (System.currentTimeMillis() - VERSION_EPOCH_MS) / 1000;
+    return Math.max((previous >>> LOCAL_VERSION_BITS) + 1, seconds) << LOCAL_VERSION_BITS;
+  }
+
+  /**
+   * 只在本節點使用、不寫入共用資料表的版本號。
+   *
+   * @param previous 本節點上一個版本號
+   * @return 下一個版本號，未啟用叢集模式時為 previous + 1
+   */
+  public long nextLocalVersion(long previous) {
+    if (!enabled) {
+      return previous + 1;
+    }
+    long leader = previous >>> LOCAL_VERSION_BITS << LOCAL_VERSION_BITS;
+    if (previous - leader >= localVersionTag) {
+      return previous + 1;
+    }
+    return leader + localVersionTag + 1;
+  }
+
+  /**
+   * @return 是否由本節點向上游更新快照（未啟用叢集模式時一律為 true）
+   */
+  public boolean isPoller() {
+    return !enabled || isLeader();
+  }
+
+  /**
+   * @return 是否為叢集中的 follower，只讀取共用快照
+   */
+  public boolean isFollower() {
+    return enabled && !isLeader();
+  }
+
+  private boolean isLeader() {
+    return System.currentTimeMillis() < leaderUntil;
+  }
+
+  /**
+   * @return 共用快照的最新版本，尚無快照時回傳 0
+   */
+  public long latestVersion() {
+    return repository.findLatestVersion();
+  }
+
+  /**
+   * @return 最新一版共用快照，尚無快照時回傳 null
+   */
+  public SharedSnapshot latest() {
+    SharedSnapshotRow row = repository.findLatest();
+    if (row == null) {
+      return null;
+    }
+    SnapshotWarmStart.SavedSnapshot saved;
+    try {
+      saved = SnapshotWarmStart.decode(new ByteArrayInputStream(row.getPayload()));
+    } catch (IOException e) {
+      throw new IllegalStateException("Unreadable shared snapshot v" + row.getVersion(), e);
+    }
+    synchronized (this) {
+      lastSharedFetchedAt = saved.fetchedAt;
+      lastSharedMappingModifiedAt = saved.mappingModifiedAt;
+    }
+    return new SharedSnapshot(row.getVersion(), row.getSnapshotVersion(), saved);
+  }
+
+  /**
+   * poller 發布快照後於背景寫入共用資料表（合併連續的發布，只寫最新一版）；
+   * 由共用快照還原的內容不再寫回。
+   */
+  @EventListener
+  public void onSnapshotPublished(CurrencySnapshotPublishedEvent event) {
+    if (!enabled || !isLeader()) {
+      return;
+    }
+    pending.set(event.getCurrent());
+    if (writeScheduled.compareAndSet(false, true)) {
+      writeExecutor.execute(() -> {
+        writeScheduled.set(false);
+        CurrencySnapshot snapshot = pending.getAndSet(null);
+        if (snapshot != null) {
+          share(snapshot);
+        }
+      });
+    }
+  }
+
+  /**
+   * @return 寫入的共用快照版本，未寫入時回傳 -1
+   */
+  synchronized long share(CurrencySnapshot snapshot) {
+    if (snapshot.getFetchedAt() == lastSharedFetchedAt
+        && snapshot.getMappingModifiedAt() == lastSharedMappingModifiedAt) {
+      return -1L;
+    }
+    try {
+      ByteArrayOutputStream payload = new ByteArrayOutputStream();
+      SnapshotWarmStart.encode(new SnapshotWarmStart.SavedSnapshot(snapshot.getFetchedAt(),
+          snapshot.getMappingModifiedAt(), Collections.emptyList(), snapshot.getCurrencies(),
+          snapshot.getQuoteRates(), snapshot.getRawData()), payload);
+      long version = repository.insertIfLeader(LEASE_NAME, nodeId, System.currentTimeMillis(),
+          snapshot.getVersion(), payload.toByteArray());
+      if (version < 0) {
+        log.info("Not sharing snapshot v{}: node {} no longer holds the lease",
+            snapshot.getVersion(), nodeId);
+        return -1L;
+      }
+      repository.deleteBefore(version - RETAINED_VERSIONS + 1);
+      lastSharedFetchedAt = snapshot.getFetchedAt();
+      lastSharedMappingModifiedAt = snapshot.getMappingModifiedAt();
+      return version;
+    } catch (IOException | DataAccessException e) {
+      log.warn("Failed to share snapshot v{}: {}", snapshot.getVersion(), e.getMessage());
+      return -1L;
+    }
+  }
+
+  /**
+   * 釋放租約並等待寫入中的快照完成。
+   */
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    writeExecutor.shutdown();
+    writeExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    if (enabled && isLeader()) {
+      leaderUntil = 0L;
+      try {
+        repository.release(LEASE_NAME, nodeId);
+      } catch (DataAccessException e) {
+        log.warn("Failed to release lease: {}", e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * 共用資料表中的一版快照。
+   */
+  static final class SharedSnapshot {
+
+    final long version;
+    /** poller 發布時的快照版本號 */
+    final long snapshotVersion;
+    final SnapshotWarmStart.SavedSnapshot saved;
+
+    SharedSnapshot(long version, long snapshotVersion, SnapshotWarmStart.SavedSnapshot saved) {
+      this.version = version;
+      this.snapshotVersion = snapshotVersion;
+      this.saved = saved;
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package com.example.service;
+
+import com.example.dto.CoinDTO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * CoinGecko 幣別清單的前綴索引，建立後即不再變動。
+ *
+ * <p>幣別依 ID 排序存放於陣列，ID 查詢以二分搜尋完成。搜尋用的 key（小寫的 ID、代號、名稱及
+ * 名稱中每個單字起頭的片段）排序後存放於平行陣列，前綴查詢以二分搜尋找出範圍後依比對方式排名：
+ * 代號完全相同、ID 完全相同、名稱完全相同、ID 前綴、代號前綴、名稱前綴、名稱單字前綴；
+ * 同名次以 ID 較短者優先。
+ */
+final class CoinIndex {
+
+  static final CoinIndex EMPTY = of(Collections.emptyList());
+
+  private static final int ID = 0;
+  private static final int SYMBOL = 1;
+  private static final int NAME = 2;
+  private static final int NAME_WORD = 3;
+
+  private final String[] ids;
+  private final String[] symbols;
+  private final String[] names;
+  private final String[] keys;
+  private final int[] coinOfKey;
+  private final byte[] fieldOfKey;
+
+  private CoinIndex(String[] ids, String[] symbols, String[] names, String[] keys,
+      int[] coinOfKey, byte[] fieldOfKey) {
+    this.ids = ids;
+    this.symbols = symbols;
+    this.names = names;
+    this.keys = keys;
+    this.coinOfKey = coinOfKey;
+    this.fieldOfKey = fieldOfKey;
+  }
+
+  /**
+   * 重複的 ID 只保留第一筆。
+   */
+  static CoinIndex of(List<CoinDTO> coins) {
+    List<CoinDTO> sorted = new ArrayList<>(coins.size());
+    for (CoinDTO coin : coins) {
+      if (coin.getId() != null && !coin.getId().isEmpty()) {
+        sorted.add(coin);
+      }
+    }
+    sorted.sort(Comparator.comparing(CoinDTO::getId));
+    List<CoinDTO> unique = new ArrayList<>(sorted.size());
+    for (CoinDTO coin : sorted) {
+      if (unique.isEmpty() || !unique.get(unique.size() - 1).getId().equals(coin.getId())) {
+        unique.add(coin);
+      }
+    }
+
+    int size = unique.size();
+    String[] ids = new String[size];
+    String[] symbols = new String[size];
+    String[] names = new String[size];
+    List<Key> keys = new ArrayList<>(size * 4);
+    for (int i = 0; i < size; i++) {
+      CoinDTO coin = unique.get(i);
+      ids[i] = coin.getId();
+      symbols[i] = coin.getSymbol() == null ? "" : coin.getSymbol();
+      names[i] = coin.getName() == null ? "" : coin.getName();
+      keys.add(new Key(normalize(ids[i]), i, ID));
+      if (!symbols[i].isEmpty()) {
+        keys.add(new Key(normalize(symbols[i]), i, SYMBOL));
+      }
+      String name = normalize(names[i]);
+      if (!name.isEmpty()) {
+        keys.add(new Key(name, i, NAME));
+        for (int at = name.indexOf(' '); at >= 0; at = name.indexOf(' ', at + 1)) {
+          if (at + 1 < name.length() && name.charAt(at + 1) != ' ') {
+            keys.add(new Key(name.substring(at + 1), i, NAME_WORD));
+          }
+        }
+      }
+    }
+    keys.sort(Comparator.comparing((Key key) -> key.text));
+    String[] keyTexts = new String[keys.size()];
+    int[] coinOfKey = new int[keys.size()];
+    byte[] fieldOfKey = new byte[keys.size()];
+    for (int i = 0; i < keys.size(); i++) {
+      Key key = keys.get(i);
+      keyTexts[i] = key.text;
+      coinOfKey[i] = key.coin;
+      fieldOfKey[i] = (byte) key.field;
+    }
+    return new CoinIndex(ids, symbols, names, keyTexts, coinOfKey, fieldOfKey);
+  }
+
+  int size() {
+    return ids.length;
+  }
+
+  boolean contains(String id) {
+    return id != null && Arrays.binarySearch(ids, id) >= 0;
+  }
+
+  /**
+   * @param query 查詢字串，不分大小寫
+   * @param limit 最多回傳筆數
+   * @return 依排名排序的幣別
+   */
+  List<CoinDTO> search(String query, int limit) {
+    String prefix = normalize(query);
+    if (prefix.isEmpty() || limit <= 0) {
+      return Collections.emptyList();
+    }
+    Map<Integer, Integer> ranks = new HashMap<>();
+    for (int i = lowerBound(prefix); i < keys.length && keys[i].startsWith(prefix); i++) {
+      int rank = rank(fieldOfKey[i], keys[i].length() == prefix.length());
+      ranks.merge(coinOfKey[i], rank, Math::min);
+    }
+    List<Map.Entry<Integer, Integer>> matches = new ArrayList<>(ranks.entrySet());
+    matches.sort(Comparator.comparing((Map.Entry<Integer, Integer> match) -> match.getValue())
+        .thenComparing(match -> ids[match.getKey()].length())
+        .thenComparing(match -> ids[match.getKey()]));
+    List<CoinDTO> result = new ArrayList<>(Math.min(limit, matches.size()));
+    for (Map.Entry<Integer, Integer> match : matches) {
+      if (result.size() == limit) {
+        break;
+      }
+      int coin = match.getKey();
+      result.add(new CoinDTO(ids[coin], symbols[coin], names[coin]));
+    }
+    return result;
+  }
+
+  private static int rank(int field, boolean exact) {
+    if (exact) {
+      switch (field) {
+        case SYMBOL:
+          return 0;
+        case ID:
+          return 1;
+        case NAME:
+          return 2;
+        default:
+          break;
+      }
+    }
+    switch (field) {
+      case ID:
+        return 3;
+      case SYMBOL:
+        return 4;
+      case NAME:
+        return 5;
+      default:
+        return 6;
+    }
+  }
+
+  private int lowerBound(String prefix) {
+    int low = 0;
+    int high = keys.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (keys[mid].compareTo(prefix) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private static String normalize(String value) {
+    return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static final class Key {
+
+    private final String text;
+    private final int coin;
+    private final int field;
+
+    private Key(String text, int coin, int field) {
+      this.text = text;
+      this.coin = coin;
+      this.field = field;
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package com.example.service;
+
+import com.example.client.CoingeckoClient;
+import com.example.client.UpstreamPriority;
+import com.example.dto.CoinDTO;
+import com.example.metrics.StageMetrics;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * CoinGecko 幣別清單（coins/list）快取，用於驗證新增的幣別 ID 與幣別搜尋。
+ *
+ * <p>由背景排程以 {@link UpstreamPriority#BACKFILL} 額度定期重新取得，建立新的 {@link CoinIndex}
+ * 後整份替換，請求不會等待上游。尚未成功載入時驗證一律通過（fail open），避免上游無法使用時
+ * 無法新增幣別。
+ */
+@Component
+public class CoinListCache {
+
+  private static final Logger log = LoggerFactory.getLogger(CoinListCache.class);
+
+  private final CoingeckoClient coingeckoClient;
+  private final JsonFactory jsonFactory;
+  private final StageMetrics stageMetrics;
+  private final boolean validate;
+  private final long refreshIntervalMs;
+
+  private volatile CoinIndex index = CoinIndex.EMPTY;
+  private volatile long loadedAt;
+
+  public CoinListCache(CoingeckoClient coingeckoClient, ObjectMapper objectMapper,
+      StageMetrics stageMetrics,
+      @Value("${coindesk.coins.validate:true}") boolean validate,
+      @Value("${coindesk.coins.refresh-interval-ms:86400000}") long refreshIntervalMs) {
+    this.coingeckoClient = coingeckoClient;
+    this.jsonFactory = objectMapper.getFactory();
+    this.stageMetrics = stageMetrics;
+    this.validate = validate;
+    this.refreshIntervalMs = refreshIntervalMs;
+  }
+
+  /**
+   * 定期檢查，尚未載入或超過更新間隔時重新取得；失敗時於下次檢查重試。
+   */
+  @Scheduled(initialDelayString = "${coindesk.coins.initial-delay-ms:0}",
+      fixedDelayString = "${coindesk.coins.check-interval-ms:60000}")
+  public void scheduledRefresh() {
+    if (index.size() > 0 && System.currentTimeMillis() - loadedAt < refreshIntervalMs) {
+      return;
+    }
+    try {
+      refresh();
+    } catch (Exception e) {
+      log.warn("Coin list refresh failed: {}", e.getMessage());
+    }
+  }
+
+  private void refresh() {
+    long now = System.currentTimeMillis();
+    String body = stageMetrics.record(StageMetrics.UPSTREAM,
+        () -> coingeckoClient.fetchCoinsList(UpstreamPriority.BACKFILL));
+    CoinIndex built = stageMetrics.record(StageMetrics.PARSE, () -> CoinIndex.of(parse(body)));
+    if (built.size() == 0) {
+      log.warn("Ignoring empty coin list from CoinGecko");
+      return;
+    }
+    index = built;
+    loadedAt = now;
+    log.info("Loaded {} coins from CoinGecko", built.size());
+  }
+
+  /**
+   * @return 幣別 ID 是否存在於 CoinGecko；未啟用驗證或清單尚未載入時回傳 true
+   */
+  public boolean isKnown(String id) {
+    CoinIndex current = index;
+    return !validate || current.size() == 0 || current.contains(id);
+  }
+
+  /**
+   * @param query 幣別 ID、代號或名稱的前綴
+   * @param limit 最多回傳筆數
+   * @return 依排名排序的幣別，清單尚未載入時為空
+   */
+  public List<CoinDTO> search(String query, int limit) {
+    return index.search(query, limit);
+  }
+
+  /**
+   * @return 目前索引中的幣別數
+   */
+  public int size() {
+    return index.size();
+  }
+
+  /**
+   * 以串流方式讀取 id、symbol、name，其餘欄位略過。
+   */
+  List<CoinDTO> parse(String body) {
+    List<CoinDTO> coins = new ArrayList<>(16384);
+    try (JsonParser parser = jsonFactory.createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw new IOException("Expected a JSON array but got " + parser.currentToken());
+      }
+      JsonToken token;
+      while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+        if (token != JsonToken.START_OBJECT) {
+          throw new IOException("Expected a JSON object but got " + token);
+        }
+        CoinDTO coin = new CoinDTO();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String field = parser.getCurrentName();
+          parser.nextToken();
+          switch (field) {
+            case "id":
+              coin.setId(parser.getValueAsString());
+              break;
+            case "symbol":
+              coin.setSymbol(parser.getValueAsString());
+              break;
+            case "name":
+              coin.setName(parser.getValueAsString());
+              break;
+            default:
+              parser.skipChildren();
+          }
+        }
+        coins.add(coin);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Invalid coins/list response", e);
+    }
+    return coins;
+  }
+}
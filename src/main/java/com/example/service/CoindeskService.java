@@ -1,32 +1,25 @@
 package com.example.service;
 
-import static com.example.common.ErrorMessages.COINGECKO_NO_DATA;
-import static com.example.common.ErrorMessages.COINGECKO_PARSE_ERROR;
-import static com.example.common.ErrorMessages.TABLE_NO_DATA;
+import static com.example.common.ErrorMessages.UNKNOWN_COIN_ID;
 
+import com.example.dto.CoinDTO;
+import com.example.dto.CurrencyDeltaDTO;
 import com.example.dto.CurrencyInfoDTO;
+import com.example.exception.BadRequestException;
 import com.example.exception.ResourceNotFoundException;
+import com.example.metrics.StageMetrics;
 import com.example.model.CurrencyMap;
 import com.example.repository.CurrencyMapRepository;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.math.BigDecimal;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.time.LocalDateTime;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 /**
  * 原指定為 Coindesk API，但其已下線，故改以功能相近 CoinGecko 提供的開源 API 實作：
@@ -37,20 +30,36 @@ public class CoindeskService {
 
   private static final Logger log = LoggerFactory.getLogger(CoindeskService.class);
 
-  private final RestTemplate restTemplate;
   private final CurrencyMapRepository repository;
-  private final ObjectMapper objectMapper;
-
-  public CoindeskService(RestTemplate restTemplate, CurrencyMapRepository repository,
-      ObjectMapper objectMapper) {
-    this.restTemplate = restTemplate;
+  private final CurrencyMapCache currencyMapCache;
+  private final CurrencySnapshotCache snapshotCache;
+  private final CurrencyDeltaLog deltaLog;
+  private final StageMetrics stageMetrics;
+  private final QuoteRateCache quoteRateCache;
+  private final SnapshotWarmStart warmStart;
+  private final CoinListCache coinListCache;
+
+  public CoindeskService(CurrencyMapRepository repository, CurrencyMapCache currencyMapCache,
+      CurrencySnapshotCache snapshotCache, CurrencyDeltaLog deltaLog,
+      StageMetrics stageMetrics, QuoteRateCache quoteRateCache, SnapshotWarmStart warmStart,
+      CoinListCache coinListCache) {
     this.repository = repository;
-    this.objectMapper = objectMapper;
+    this.currencyMapCache = currencyMapCache;
+    this.snapshotCache = snapshotCache;
+    this.deltaLog = deltaLog;
+    this.stageMetrics = stageMetrics;
+    this.quoteRateCache = quoteRateCache;
+    this.warmStart = warmStart;
+    this.coinListCache = coinListCache;
   }
 
+  /**
+   * 先以上次保存的快照與對應表還原；資料表仍為空時才寫入預設幣別。
+   */
   @PostConstruct
   public void initDefaultCurrencies() {
-    if (repository.count() == 0) {
+    boolean empty = repository.count() == 0;
+    if (warmStart.restore(empty) == 0 && empty) {
       repository.saveAll(Arrays.asList(
           new CurrencyMap("bitcoin", "比特幣"),
           new CurrencyMap("ethereum", "以太幣"),
@@ -59,92 +68,105 @@ public class CoindeskService {
     }
   }
 
-  public String getCoingeckoData() {
-    List<String> currencyList = repository.findAll().stream()
-        .map(CurrencyMap::getCurrency)
-        .collect(Collectors.toList());
-    if (currencyList.isEmpty()) {
-      throw new ResourceNotFoundException(TABLE_NO_DATA);
-    }
-    String joinedIds = String.join(",", currencyList);
-    String url = "https://api.coingecko.com/api/v3/coins/markets?vs_currency=twd&ids=" + joinedIds;
-    log.info("Fetching data from CoinGecko API: {}", url);
-    String coingeckoData = restTemplate.getForObject(url, String.class);
-    try {
-      JsonNode jsonCoingeckoData = objectMapper.readTree(coingeckoData);
-      if (jsonCoingeckoData.isArray() && jsonCoingeckoData.isEmpty()) {
-        throw new ResourceNotFoundException(COINGECKO_NO_DATA);
-      }
-    } catch (Exception e) {
-      log.error("Failed to parse CoinGecko response", e);
-      throw new RuntimeException(COINGECKO_PARSE_ERROR, e);
-    }
-
-    return coingeckoData;
+  /**
+   * @return 目前的幣別市價快照
+   */
+  public CurrencySnapshot getCurrencySnapshot() {
+    return snapshotCache.get();
   }
 
-  public List<CurrencyInfoDTO> getAllCurrencies() {
-    String rawData = getCoingeckoData();
-    JsonNode jsonNode;
-    try {
-      jsonNode = objectMapper.readTree(rawData);
-    } catch (Exception e) {
-      log.error("Failed to parse CoinGecko response", e);
-      throw new RuntimeException(COINGECKO_PARSE_ERROR, e);
-    }
-
-    Map<String, String> currencyToChineseName = repository.findAll().stream()
-        .collect(Collectors.toMap(CurrencyMap::getCurrency, CurrencyMap::getChineseName));
-
-    List<CurrencyInfoDTO> result = new ArrayList<>();
-    for (JsonNode node : jsonNode) {
-      String lastUpdated = formatToTaipeiTime(node.path("last_updated").asText());
-      String id = node.path("id").asText();
-      String chineseName = currencyToChineseName.getOrDefault(id, "");
-      BigDecimal rate = node.path("current_price").decimalValue();
+  /**
+   * @return 快照是否已超過最大容許延遲（上游額度不足時回傳的舊資料）
+   */
+  public boolean isStale(CurrencySnapshot snapshot) {
+    return snapshotCache.isStale(snapshot);
+  }
 
-      CurrencyInfoDTO dto = new CurrencyInfoDTO();
-      dto.setUpdateAt(lastUpdated);
-      dto.setCurrency(id);
-      dto.setChineseName(chineseName);
-      dto.setRate(rate);
+  /**
+   * @param vs 查詢參數指定的計價幣別，未指定時為 TWD
+   * @return 正規化後的計價幣別
+   * @throws com.example.exception.BadRequestException 不支援的計價幣別
+   */
+  public String resolveQuoteCurrency(String vs) {
+    return quoteRateCache.resolve(vs);
+  }
 
-      result.add(dto);
-    }
-    result.sort(Comparator.comparing(CurrencyInfoDTO::getCurrency));
+  public String getCoingeckoData() {
+    return snapshotCache.get().getRawData();
+  }
 
-    return result;
+  public List<CurrencyInfoDTO> getAllCurrencies() {
+    return snapshotCache.get().getCurrencies();
   }
 
-  private String formatToTaipeiTime(String lastUpdated) {
-    return ZonedDateTime.parse(lastUpdated)
-        .withZoneSameInstant(ZoneId.of("Asia/Taipei"))
-        .format(DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"));
+  /**
+   * @param sinceVersion 用戶端持有的快照版本
+   * @return 自該版本以來異動的幣別；版本過舊或不明時回傳完整清單
+   */
+  public CurrencyDeltaDTO getCurrenciesSince(long sinceVersion) {
+    return deltaLog.since(snapshotCache.get(), sinceVersion);
   }
 
   public Optional<CurrencyMap> findByCurrency(String currency) {
-    return repository.findById(currency);
+    return currencyMapCache.find(currency);
+  }
+
+  /**
+   * @param query 幣別 ID、代號或名稱的前綴
+   * @param limit 最多回傳筆數
+   * @return 依排名排序的 CoinGecko 幣別
+   */
+  public List<CoinDTO> searchCoins(String query, int limit) {
+    return coinListCache.search(query, limit);
   }
 
+  /**
+   * @throws BadRequestException CoinGecko 沒有此幣別 ID（幣別清單已載入時才檢查）
+   */
   public CurrencyMap insert(CurrencyMap currencyMap) {
     String currency = currencyMap.getCurrency();
-    if (repository.existsById(currency)) {
+    if (currencyMapCache.contains(currency)) {
       throw new DuplicateKeyException("Currency '" + currency + "' already exists.");
     }
-    return repository.save(currencyMap);
+    if (!coinListCache.isKnown(currency)) {
+      throw new BadRequestException(String.format(UNKNOWN_COIN_ID, currency));
+    }
+    CurrencyMap saved;
+    try {
+      // 實體寫入由 CurrencyMapEntityListener 於 commit 後同步至快取
+      saved = stageMetrics.record(StageMetrics.DB, () -> repository.save(currencyMap));
+    } catch (DataIntegrityViolationException e) {
+      throw new DuplicateKeyException("Currency '" + currency + "' already exists.", e);
+    }
+    snapshotCache.onCurrencyInserted(currency);
+    return saved;
   }
 
   public CurrencyMap update(String currency, String chineseName) {
-    CurrencyMap currencyData = repository.findById(currency)
+    CurrencyMap currencyData = currencyMapCache.find(currency)
         .orElseThrow(() -> new ResourceNotFoundException("Currency '" + currency + "' not found."));
+    LocalDateTime now = LocalDateTime.now();
+    int updated = stageMetrics.record(StageMetrics.DB,
+        () -> repository.updateChineseName(currency, chineseName, now));
+    if (updated == 0) {
+      currencyMapCache.remove(currency);
+      throw new ResourceNotFoundException("Currency '" + currency + "' not found.");
+    }
     currencyData.setChineseName(chineseName);
-    return repository.save(currencyData);
+    currencyData.setUpdateAt(now);
+    currencyMapCache.put(currencyData);
+    snapshotCache.onChineseNameUpdated(currency, chineseName);
+    return currencyData;
   }
 
   public void delete(String currency) {
     log.warn("Deleting currency information : [{}]", currency);
-    repository.findById(currency)
-        .orElseThrow(() -> new ResourceNotFoundException("Currency '" + currency + "' not found."));
-    repository.deleteById(currency);
+    if (!currencyMapCache.contains(currency)
+        || stageMetrics.record(StageMetrics.DB, () -> repository.deleteByCurrency(currency)) == 0) {
+      currencyMapCache.remove(currency);
+      throw new ResourceNotFoundException("Currency '" + currency + "' not found.");
+    }
+    currencyMapCache.remove(currency);
+    snapshotCache.onCurrencyDeleted(currency);
   }
 }
@@ -0,0 +1,85 @@
+package com.example.service;
+
+import static com.example.common.ErrorMessages.CONVERT_TOO_MANY_LINES;
+
+import com.example.dto.ConversionRequestDTO;
+import com.example.dto.ConversionResponseDTO;
+import com.example.dto.ConversionResultDTO;
+import com.example.exception.BadRequestException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * 以市價快照的 TWD 價格批次換算幣別數量，交叉匯率於本地計算。
+ *
+ * <p>換算表每個快照只建立一次（見 {@link RateMatrix}）；筆數達
+ * {@code coindesk.convert.parallel-threshold} 時以 parallel stream 並行換算。
+ */
+@Service
+public class ConversionService {
+
+  private final int maxLines;
+  private final int parallelThreshold;
+
+  public ConversionService(@Value("${coindesk.convert.max-lines:100000}") int maxLines,
+      @Value("${coindesk.convert.parallel-threshold:4096}") int parallelThreshold) {
+    this.maxLines = maxLines;
+    this.parallelThreshold = parallelThreshold;
+  }
+
+  /**
+   * @param snapshot 換算所用的市價快照
+   * @param lines    換算項目
+   * @return 依請求順序排列的換算結果；個別項目失敗不影響其他項目
+   */
+  public ConversionResponseDTO convert(CurrencySnapshot snapshot,
+      List<ConversionRequestDTO> lines) {
+    if (lines.size() > maxLines) {
+      throw new BadRequestException(String.format(CONVERT_TOO_MANY_LINES, maxLines));
+    }
+    RateMatrix matrix = snapshot.getRateMatrix();
+    ConversionResultDTO[] results = new ConversionResultDTO[lines.size()];
+    IntStream indexes = IntStream.range(0, results.length);
+    if (results.length >= parallelThreshold) {
+      indexes = indexes.parallel();
+    }
+    indexes.forEach(i -> results[i] = convert(matrix, lines.get(i)));
+    return new ConversionResponseDTO(snapshot.getVersion(), Arrays.asList(results));
+  }
+
+  private static ConversionResultDTO convert(RateMatrix matrix, ConversionRequestDTO line) {
+    if (line == null) {
+      return new ConversionResultDTO(null, null, null, null, "line is required");
+    }
+    String from = line.getFrom();
+    String to = line.getTo();
+    BigDecimal amount = line.getAmount();
+    if (from == null || to == null || amount == null) {
+      return new ConversionResultDTO(from, to, amount, null,
+          "from, to and amount are required");
+    }
+    int fromIndex = matrix.indexOf(normalize(from));
+    if (fromIndex < 0) {
+      return new ConversionResultDTO(from, to, amount, null, noRate(from));
+    }
+    int toIndex = matrix.indexOf(normalize(to));
+    if (toIndex < 0) {
+      return new ConversionResultDTO(from, to, amount, null, noRate(to));
+    }
+    return new ConversionResultDTO(from, to, amount, matrix.convert(fromIndex, toIndex, amount),
+        null);
+  }
+
+  private static String normalize(String currency) {
+    return currency.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static String noRate(String currency) {
+    return "Currency '" + currency + "' has no rate in the current snapshot.";
+  }
+}
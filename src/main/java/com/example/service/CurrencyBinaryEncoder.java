@@ -0,0 +1,77 @@
+package com.example.service;
+
+import com.example.dto.CurrencyInfoDTO;
+import com.example.metrics.StageMetrics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.io.UncheckedIOException;
+import java.util.List;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * /currencies 的二進位回應格式（Smile、CBOR），供內部服務之間使用。
+ *
+ * <p>與 JSON 回應採用相同的 Jackson 設定；編碼結果保存於快照中，每個快照、格式與計價幣別
+ * 只編碼一次，之後的請求直接寫出相同的位元組。
+ */
+@Component
+public class CurrencyBinaryEncoder {
+
+  public static final String SMILE_VALUE = "application/x-jackson-smile";
+  public static final String CBOR_VALUE = "application/cbor";
+
+  private final ObjectWriter smileWriter;
+  private final ObjectWriter cborWriter;
+  private final StageMetrics stageMetrics;
+
+  public CurrencyBinaryEncoder(Jackson2ObjectMapperBuilder objectMapperBuilder,
+      StageMetrics stageMetrics) {
+    this.smileWriter = listWriter(objectMapperBuilder.factory(new SmileFactory()).build());
+    this.cborWriter = listWriter(objectMapperBuilder.factory(new CBORFactory()).build());
+    this.stageMetrics = stageMetrics;
+  }
+
+  private static ObjectWriter listWriter(ObjectMapper objectMapper) {
+    return objectMapper.writerFor(objectMapper.getTypeFactory()
+        .constructCollectionType(List.class, CurrencyInfoDTO.class));
+  }
+
+  /**
+   * @return 以 Smile 編碼的幣別資訊清單
+   */
+  public byte[] smile(CurrencySnapshot snapshot, String quote) {
+    return snapshot.getEncodedCurrencies("smile", quote,
+        currencies -> encode(smileWriter, currencies));
+  }
+
+  /**
+   * @return 以 CBOR 編碼的幣別資訊清單
+   */
+  public byte[] cbor(CurrencySnapshot snapshot, String quote) {
+    return snapshot.getEncodedCurrencies("cbor", quote,
+        currencies -> encode(cborWriter, currencies));
+  }
+
+  /**
+   * @param format 格式名稱（smile、cbor）
+   * @return 該格式的 strong ETag，與 JSON 表示區分
+   */
+  public static String etag(CurrencySnapshot snapshot, String quote, String format) {
+    String etag = snapshot.getCurrenciesEtag(quote);
+    return etag.substring(0, etag.length() - 1) + "-" + format + "\"";
+  }
+
+  private byte[] encode(ObjectWriter writer, List<CurrencyInfoDTO> currencies) {
+    return stageMetrics.record(StageMetrics.SERIALIZE, () -> {
+      try {
+        return writer.writeValueAsBytes(currencies);
+      } catch (JsonProcessingException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+}
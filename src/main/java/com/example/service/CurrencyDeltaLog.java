@@ -0,0 +1,112 @@
+package com.example.service;
+
+import com.example.dto.CurrencyDeltaDTO;
+import com.example.dto.CurrencyInfoDTO;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 保存最近 {@code coindesk.delta.max-versions} 次快照之間異動的幣別，用來回應差異查詢。
+ *
+ * <p>每筆紀錄只保存前後版本號與異動的幣別 ID；回應時再以目前快照的內容組成，
+ * 因此多個版本的異動會自動合併為最新值。
+ */
+@Component
+public class CurrencyDeltaLog {
+
+  private final int maxVersions;
+  /** 以前一版版本號為 key，依發布順序排列 */
+  private final Map<Long, Diff> diffsByPrevious;
+
+  public CurrencyDeltaLog(@Value("${coindesk.delta.max-versions:120}") int maxVersions) {
+    this.maxVersions = maxVersions;
+    this.diffsByPrevious = new LinkedHashMap<Long, Diff>(16, 0.75f, false) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Diff> eldest) {
+        return size() > CurrencyDeltaLog.this.maxVersions;
+      }
+    };
+  }
+
+  @EventListener
+  public void onSnapshotPublished(CurrencySnapshotPublishedEvent event) {
+    CurrencySnapshot previous = event.getPrevious();
+    if (previous == null) {
+      return;
+    }
+    CurrencySnapshot current = event.getCurrent();
+    Set<String> touched = new HashSet<>();
+    for (CurrencyInfoDTO dto : current.changedSince(previous)) {
+      touched.add(dto.getCurrency());
+    }
+    touched.addAll(current.removedSince(previous));
+    synchronized (diffsByPrevious) {
+      diffsByPrevious.put(previous.getVersion(), new Diff(current.getVersion(), touched));
+    }
+  }
+
+  /**
+   * 計算自指定版本以來的異動；版本已不在紀錄範圍內時回傳完整清單。
+   *
+   * @param snapshot     目前快照
+   * @param sinceVersion 用戶端持有的版本
+   * @return 差異或完整清單
+   */
+  public CurrencyDeltaDTO since(CurrencySnapshot snapshot, long sinceVersion) {
+    Set<String> touched = collect(sinceVersion, snapshot.getVersion());
+    if (touched == null) {
+      return new CurrencyDeltaDTO(snapshot.getVersion(), true, snapshot.getCurrencies(),
+          Collections.emptyList());
+    }
+    List<CurrencyInfoDTO> changed = new ArrayList<>();
+    List<String> removed = new ArrayList<>();
+    for (String currency : new TreeSet<>(touched)) {
+      CurrencyInfoDTO dto = snapshot.find(currency);
+      if (dto == null) {
+        removed.add(currency);
+      } else {
+        changed.add(dto);
+      }
+    }
+    return new CurrencyDeltaDTO(snapshot.getVersion(), false, changed, removed);
+  }
+
+  /**
+   * @return 兩版本間所有異動的幣別，無法串接時回傳 null
+   */
+  private Set<String> collect(long fromVersion, long toVersion) {
+    Set<String> touched = new HashSet<>();
+    long version = fromVersion;
+    synchronized (diffsByPrevious) {
+      while (version != toVersion) {
+        Diff diff = diffsByPrevious.get(version);
+        if (diff == null || diff.version > toVersion) {
+          return null;
+        }
+        touched.addAll(diff.touched);
+        version = diff.version;
+      }
+    }
+    return touched;
+  }
+
+  private static final class Diff {
+
+    private final long version;
+    private final Set<String> touched;
+
+    Diff(long version, Set<String> touched) {
+      this.version = version;
+      this.touched = touched;
+    }
+  }
+}
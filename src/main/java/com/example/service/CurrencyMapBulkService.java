@@ -0,0 +1,233 @@
+package com.example.service;
+
+import static com.example.common.ErrorMessages.BULK_TOO_MANY_ROWS;
+import static com.example.common.ErrorMessages.UNKNOWN_COIN_ID;
+
+import com.example.dto.BulkResultDTO;
+import com.example.dto.BulkRowResultDTO;
+import com.example.dto.BulkRowStatus;
+import com.example.exception.BadRequestException;
+import com.example.metrics.StageMetrics;
+import com.example.model.CurrencyMap;
+import com.example.repository.CurrencyMapBatchRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 幣別對應表的批次新增、更新與刪除。
+ *
+ * <p>每個請求先逐筆驗證，再於單一交易內以 JDBC batch 寫入；commit 後一次更新
+ * {@link CurrencyMapCache} 與市價快照。每筆資料的處理結果依請求順序回傳。
+ */
+@Service
+public class CurrencyMapBulkService {
+
+  private static final Logger log = LoggerFactory.getLogger(CurrencyMapBulkService.class);
+
+  private final CurrencyMapBatchRepository batchRepository;
+  private final CurrencyMapCache currencyMapCache;
+  private final CurrencySnapshotCache snapshotCache;
+  private final TransactionTemplate transactionTemplate;
+  private final Validator validator;
+  private final StageMetrics stageMetrics;
+  private final CoinListCache coinListCache;
+  private final int maxRows;
+
+  public CurrencyMapBulkService(CurrencyMapBatchRepository batchRepository,
+      CurrencyMapCache currencyMapCache, CurrencySnapshotCache snapshotCache,
+      TransactionTemplate transactionTemplate, Validator validator, StageMetrics stageMetrics,
+      CoinListCache coinListCache,
+      @Value("${coindesk.bulk.max-rows:1000}") int maxRows) {
+    this.batchRepository = batchRepository;
+    this.currencyMapCache = currencyMapCache;
+    this.snapshotCache = snapshotCache;
+    this.transactionTemplate = transactionTemplate;
+    this.validator = validator;
+    this.stageMetrics = stageMetrics;
+    this.coinListCache = coinListCache;
+    this.maxRows = maxRows;
+  }
+
+  /**
+   * 批次新增；已存在的幣別標示為 DUPLICATE。
+   */
+  public BulkResultDTO insert(List<CurrencyMap> rows) {
+    return save(rows, false);
+  }
+
+  /**
+   * 批次新增或更新中文名稱。
+   */
+  public BulkResultDTO upsert(List<CurrencyMap> rows) {
+    return save(rows, true);
+  }
+
+  /**
+   * 批次刪除；不存在的幣別標示為 NOT_FOUND。
+   */
+  public BulkResultDTO delete(List<String> currencies) {
+    checkSize(currencies.size());
+    BulkRowResultDTO[] results = new BulkRowResultDTO[currencies.size()];
+    Map<String, Integer> accepted = new LinkedHashMap<>();
+    for (int i = 0; i < currencies.size(); i++) {
+      String currency = currencies.get(i);
+      if (currency == null || currency.trim().isEmpty()) {
+        results[i] = new BulkRowResultDTO(i, currency, BulkRowStatus.INVALID,
+            "currency is required");
+      } else if (accepted.putIfAbsent(currency, i) != null) {
+        results[i] = duplicateInRequest(i, currency);
+      }
+    }
+
+    Set<String> deleted = stageMetrics.record(StageMetrics.DB,
+        () -> transactionTemplate.execute(status -> {
+          Set<String> existing = batchRepository.findExisting(accepted.keySet());
+          List<String> toDelete = new ArrayList<>(existing.size());
+          for (Map.Entry<String, Integer> entry : accepted.entrySet()) {
+            String currency = entry.getKey();
+            int index = entry.getValue();
+            if (existing.contains(currency)) {
+              toDelete.add(currency);
+              results[index] = new BulkRowResultDTO(index, currency, BulkRowStatus.DELETED, null);
+            } else {
+              results[index] = new BulkRowResultDTO(index, currency, BulkRowStatus.NOT_FOUND,
+                  "Currency '" + currency + "' not found.");
+            }
+          }
+          batchRepository.deleteAll(toDelete);
+          return new LinkedHashSet<>(toDelete);
+        }));
+
+    if (!deleted.isEmpty()) {
+      log.warn("Deleting currency information in bulk : {}", deleted);
+      currencyMapCache.removeAll(deleted);
+      snapshotCache.onMappingsChanged(Collections.emptyMap(), deleted, false);
+    }
+    return new BulkResultDTO(Arrays.asList(results));
+  }
+
+  private BulkResultDTO save(List<CurrencyMap> rows, boolean upsert) {
+    checkSize(rows.size());
+    BulkRowResultDTO[] results = new BulkRowResultDTO[rows.size()];
+    Map<String, Integer> accepted = new LinkedHashMap<>();
+    for (int i = 0; i < rows.size(); i++) {
+      CurrencyMap row = rows.get(i);
+      String invalid = validate(row);
+      if (invalid != null) {
+        results[i] = new BulkRowResultDTO(i, row == null ? null : row.getCurrency(),
+            BulkRowStatus.INVALID, invalid);
+      } else if (accepted.putIfAbsent(row.getCurrency(), i) != null) {
+        results[i] = duplicateInRequest(i, row.getCurrency());
+      }
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    List<CurrencyMap> created = new ArrayList<>();
+    List<CurrencyMap> updated = new ArrayList<>();
+    try {
+      stageMetrics.record(StageMetrics.DB,
+          () -> transactionTemplate.executeWithoutResult(status -> {
+            Set<String> existing = batchRepository.findExisting(accepted.keySet());
+            for (Map.Entry<String, Integer> entry : accepted.entrySet()) {
+              String currency = entry.getKey();
+              int index = entry.getValue();
+              CurrencyMap row = rows.get(index);
+              if (!existing.contains(currency)) {
+                created.add(row);
+                results[index] = new BulkRowResultDTO(index, currency, BulkRowStatus.CREATED, null);
+              } else if (upsert) {
+                updated.add(row);
+                results[index] = new BulkRowResultDTO(index, currency, BulkRowStatus.UPDATED, null);
+              } else {
+                results[index] = new BulkRowResultDTO(index, currency, BulkRowStatus.DUPLICATE,
+                    "Currency '" + currency + "' already exists.");
+              }
+            }
+            batchRepository.insertAll(created, now);
+            batchRepository.updateChineseNames(updated, now);
+          }));
+    } catch (DataIntegrityViolationException e) {
+      // 查詢後、寫入前有其他請求新增了相同幣別，整批回滾
+      throw new DuplicateKeyException("Some currencies were added concurrently. Please retry.", e);
+    }
+
+    afterCommit(created, updated, now);
+    return new BulkResultDTO(Arrays.asList(results));
+  }
+
+  private void afterCommit(List<CurrencyMap> created, List<CurrencyMap> updated,
+      LocalDateTime now) {
+    if (created.isEmpty() && updated.isEmpty()) {
+      return;
+    }
+    List<CurrencyMap> cached = new ArrayList<>(created.size() + updated.size());
+    Map<String, String> renamed = new HashMap<>(updated.size() * 2);
+    for (CurrencyMap row : created) {
+      cached.add(copyOf(row, now, now));
+    }
+    for (CurrencyMap row : updated) {
+      LocalDateTime createAt = currencyMapCache.find(row.getCurrency())
+          .map(CurrencyMap::getCreateAt)
+          .orElse(null);
+      cached.add(copyOf(row, createAt, now));
+      renamed.put(row.getCurrency(), row.getChineseName());
+    }
+    currencyMapCache.putAll(cached);
+    snapshotCache.onMappingsChanged(renamed, Collections.emptySet(), !created.isEmpty());
+  }
+
+  /**
+   * @return 驗證失敗訊息，通過時回傳 null
+   */
+  private String validate(CurrencyMap row) {
+    if (row == null) {
+      return "row is required";
+    }
+    Set<ConstraintViolation<CurrencyMap>> violations = validator.validate(row);
+    if (violations.isEmpty()) {
+      return coinListCache.isKnown(row.getCurrency()) ? null
+          : String.format(UNKNOWN_COIN_ID, row.getCurrency());
+    }
+    return violations.stream()
+        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+        .sorted()
+        .collect(Collectors.joining(", "));
+  }
+
+  private void checkSize(int size) {
+    if (size > maxRows) {
+      throw new BadRequestException(String.format(BULK_TOO_MANY_ROWS, maxRows));
+    }
+  }
+
+  private static BulkRowResultDTO duplicateInRequest(int index, String currency) {
+    return new BulkRowResultDTO(index, currency, BulkRowStatus.DUPLICATE,
+        "Currency '" + currency + "' appears more than once in the request.");
+  }
+
+  private static CurrencyMap copyOf(CurrencyMap row, LocalDateTime createAt,
+      LocalDateTime updateAt) {
+    CurrencyMap copy = new CurrencyMap(row.getCurrency(), row.getChineseName());
+    copy.setCreateAt(createAt);
+    copy.setUpdateAt(updateAt);
+    return copy;
+  }
+}
@@ -0,0 +1,191 @@
+package com.example.service;
+
+import com.example.metrics.StageMetrics;
+import com.example.model.CurrencyMap;
+import com.example.repository.CurrencyMapRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+/**
+ * 幣別對應表（currency_map）的程序內快取。
+ *
+ * <p>資料表小且以讀取為主，故整表載入記憶體；讀取不需查詢資料庫，寫入時以 copy-on-write
+ * 方式整份替換，並遞增版本號，供其他元件判斷對應表是否已異動。
+ */
+@Component
+public class CurrencyMapCache {
+
+  private final CurrencyMapRepository repository;
+  private final StageMetrics stageMetrics;
+  private final AtomicLong version = new AtomicLong();
+
+  private volatile Map<String, CurrencyMap> entries = Collections.emptyMap();
+  private volatile Map<String, String> chineseNames = Collections.emptyMap();
+
+  public CurrencyMapCache(CurrencyMapRepository repository, StageMetrics stageMetrics) {
+    this.repository = repository;
+    this.stageMetrics = stageMetrics;
+  }
+
+  /**
+   * 自資料庫重新載入整份對應表。
+   */
+  @PostConstruct
+  public synchronized void reload() {
+    Map<String, CurrencyMap> loaded = new TreeMap<>();
+    List<CurrencyMap> rows = stageMetrics.record(StageMetrics.DB, () -> repository.findAll());
+    for (CurrencyMap currencyMap : rows) {
+      loaded.put(currencyMap.getCurrency(), copyOf(currencyMap));
+    }
+    replace(loaded);
+  }
+
+  /**
+   * 自資料庫重新載入整份對應表；內容與快取相同時不替換，版本號不變。供叢集模式取得其他節點的異動。
+   *
+   * @return 是否有異動
+   */
+  public synchronized boolean reloadIfChanged() {
+    Map<String, CurrencyMap> loaded = new TreeMap<>();
+    List<CurrencyMap> rows = stageMetrics.record(StageMetrics.DB, () -> repository.findAll());
+    for (CurrencyMap currencyMap : rows) {
+      loaded.put(currencyMap.getCurrency(), copyOf(currencyMap));
+    }
+    if (sameContent(loaded, entries)) {
+      return false;
+    }
+    replace(loaded);
+    return true;
+  }
+
+  private static boolean sameContent(Map<String, CurrencyMap> loaded,
+      Map<String, CurrencyMap> cached) {
+    if (!loaded.keySet().equals(cached.keySet())) {
+      return false;
+    }
+    for (CurrencyMap currencyMap : loaded.values()) {
+      CurrencyMap existing = cached.get(currencyMap.getCurrency());
+      if (!Objects.equals(currencyMap.getChineseName(), existing.getChineseName())
+          || !Objects.equals(currencyMap.getUpdateAt(), existing.getUpdateAt())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return 指定幣別對應資料的複本
+   */
+  public Optional<CurrencyMap> find(String currency) {
+    CurrencyMap cached = entries.get(currency);
+    return cached == null ? Optional.empty() : Optional.of(copyOf(cached));
+  }
+
+  /**
+   * @return 所有對應資料的複本，依幣別排序
+   */
+  public List<CurrencyMap> findAll() {
+    List<CurrencyMap> copies = new ArrayList<>(entries.size());
+    for (CurrencyMap cached : entries.values()) {
+      copies.add(copyOf(cached));
+    }
+    return copies;
+  }
+
+  public boolean contains(String currency) {
+    return entries.containsKey(currency);
+  }
+
+  /**
+   * @return 依幣別排序的幣別 ID
+   */
+  public Set<String> currencies() {
+    return entries.keySet();
+  }
+
+  /**
+   * @return 幣別與中文名稱對應（唯讀）
+   */
+  public Map<String, String> chineseNames() {
+    return chineseNames;
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return 對應表版本號，每次異動都會遞增
+   */
+  public long version() {
+    return version.get();
+  }
+
+  public synchronized void put(CurrencyMap currencyMap) {
+    Map<String, CurrencyMap> updated = new TreeMap<>(entries);
+    updated.put(currencyMap.getCurrency(), copyOf(currencyMap));
+    replace(updated);
+  }
+
+  /**
+   * 一次寫入多筆對應資料，只替換一次快取。
+   */
+  public synchronized void putAll(Collection<CurrencyMap> currencyMaps) {
+    if (currencyMaps.isEmpty()) {
+      return;
+    }
+    Map<String, CurrencyMap> updated = new TreeMap<>(entries);
+    for (CurrencyMap currencyMap : currencyMaps) {
+      updated.put(currencyMap.getCurrency(), copyOf(currencyMap));
+    }
+    replace(updated);
+  }
+
+  /**
+   * 一次移除多筆對應資料，只替換一次快取。
+   */
+  public synchronized void removeAll(Collection<String> currencies) {
+    Map<String, CurrencyMap> updated = new TreeMap<>(entries);
+    if (!updated.keySet().removeAll(currencies)) {
+      return;
+    }
+    replace(updated);
+  }
+
+  public synchronized void remove(String currency) {
+    if (!entries.containsKey(currency)) {
+      return;
+    }
+    Map<String, CurrencyMap> updated = new TreeMap<>(entries);
+    updated.remove(currency);
+    replace(updated);
+  }
+
+  private void replace(Map<String, CurrencyMap> updated) {
+    Map<String, String> names = new LinkedHashMap<>();
+    for (CurrencyMap currencyMap : updated.values()) {
+      names.put(currencyMap.getCurrency(), currencyMap.getChineseName());
+    }
+    entries = Collections.unmodifiableMap(updated);
+    chineseNames = Collections.unmodifiableMap(names);
+    version.incrementAndGet();
+  }
+
+  private static CurrencyMap copyOf(CurrencyMap source) {
+    CurrencyMap copy = new CurrencyMap(source.getCurrency(), source.getChineseName());
+    copy.setCreateAt(source.getCreateAt());
+    copy.setUpdateAt(source.getUpdateAt());
+    return copy;
+  }
+}
@@ -0,0 +1,49 @@
+package com.example.service;
+
+import com.example.model.CurrencyMap;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 將 {@link CurrencyMap} 的寫入同步至 {@link CurrencyMapCache}，於交易 commit 後才套用。
+ *
+ * <p>於 META-INF/orm.xml 註冊，實體類別不需相依於 service。由 Hibernate 透過 Spring bean
+ * container 建立；快取以 {@link ObjectProvider} 延遲取得，避免與 EntityManagerFactory 形成循環相依。
+ */
+public class CurrencyMapEntityListener {
+
+  private final ObjectProvider<CurrencyMapCache> cacheProvider;
+
+  public CurrencyMapEntityListener(ObjectProvider<CurrencyMapCache> cacheProvider) {
+    this.cacheProvider = cacheProvider;
+  }
+
+  @PostPersist
+  @PostUpdate
+  public void onSaved(CurrencyMap currencyMap) {
+    afterCommit(() -> cacheProvider.ifAvailable(cache -> cache.put(currencyMap)));
+  }
+
+  @PostRemove
+  public void onRemoved(CurrencyMap currencyMap) {
+    String currency = currencyMap.getCurrency();
+    afterCommit(() -> cacheProvider.ifAvailable(cache -> cache.remove(currency)));
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+}
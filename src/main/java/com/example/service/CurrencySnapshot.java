@@ -0,0 +1,428 @@
+package com.example.service;
+
+import static com.example.common.ErrorMessages.QUOTE_RATES_UNAVAILABLE;
+
+import com.example.client.CoingeckoMarketsParser;
+import com.example.client.MarketsChunkStatus;
+import com.example.dto.CurrencyInfoDTO;
+import com.example.exception.ServiceUnavailableException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 某一版本的幣別市價快照，建立後即不再變動。
+ *
+ * <p>其中的 {@link CurrencyInfoDTO} 會被多個請求共用，取得後請勿修改其內容。
+ *
+ * <p>市價以 TWD 計價；其他計價幣別依建立快照時的參考匯率（每 1 BTC 可兌換的數量）換算，
+ * 首次查詢時建立並保留於此快照。
+ */
+public final class CurrencySnapshot {
+
+  private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+  private static final MathContext QUOTE_CONTEXT = new MathContext(12, RoundingMode.HALF_EVEN);
+
+  private final long version;
+  private final long mappingVersion;
+  private final long fetchedAt;
+  private final String rawData;
+  private final List<CurrencyInfoDTO> currencies;
+  private final List<MarketsChunkStatus> upstreamChunks;
+  private final Map<String, CurrencyInfoDTO> byCurrency;
+  private final long mappingModifiedAt;
+  private final Map<String, BigDecimal> quoteRates;
+  private final ConcurrentMap<String, List<CurrencyInfoDTO>> quotedCurrencies =
+      new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, String> quotedEtags = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, byte[]> encodedCurrencies = new ConcurrentHashMap<>();
+
+  private volatile String currenciesEtag;
+  private volatile String rawDataEtag;
+  private volatile byte[] rawDataBytes;
+  private volatile byte[] rawDataGzip;
+  private volatile long lastModified = -1;
+  private volatile RateMatrix rateMatrix;
+
+  public CurrencySnapshot(long version, long mappingVersion, long fetchedAt, String rawData,
+      List<CurrencyInfoDTO> currencies, List<MarketsChunkStatus> upstreamChunks,
+      long mappingModifiedAt) {
+    this(version, mappingVersion, fetchedAt, rawData, currencies, upstreamChunks,
+        mappingModifiedAt, Collections.emptyMap());
+  }
+
+  /**
+   * @param quoteRates 每 1 BTC 可兌換的各計價幣別數量（需含 TWD），用於換算其他計價幣別
+   */
+  public CurrencySnapshot(long version, long mappingVersion, long fetchedAt, String rawData,
+      List<CurrencyInfoDTO> currencies, List<MarketsChunkStatus> upstreamChunks,
+      long mappingModifiedAt, Map<String, BigDecimal> quoteRates) {
+    this.version = version;
+    this.mappingVersion = mappingVersion;
+    this.fetchedAt = fetchedAt;
+    this.mappingModifiedAt = mappingModifiedAt;
+    this.rawData = rawData;
+    this.currencies = Collections.unmodifiableList(new ArrayList<>(currencies));
+    this.upstreamChunks = Collections.unmodifiableList(new ArrayList<>(upstreamChunks));
+    this.quoteRates = quoteRates;
+    this.byCurrency = new HashMap<>(currencies.size() * 2);
+    for (CurrencyInfoDTO dto : currencies) {
+      byCurrency.put(dto.getCurrency(), dto);
+    }
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * @return 建立此快照時所依據的幣別對應表版本
+   */
+  public long getMappingVersion() {
+    return mappingVersion;
+  }
+
+  /**
+   * @return 建立此快照時的對應表最後異動時間（epoch millis）
+   */
+  public long getMappingModifiedAt() {
+    return mappingModifiedAt;
+  }
+
+  /**
+   * @return 向 CoinGecko 取得資料的時間（epoch millis）
+   */
+  public long getFetchedAt() {
+    return fetchedAt;
+  }
+
+  public String getRawData() {
+    return rawData;
+  }
+
+  /**
+   * @return 原始回應內容的 UTF-8 編碼，首次呼叫時建立；共用陣列，請勿修改
+   */
+  public byte[] getRawDataBytes() {
+    byte[] bytes = rawDataBytes;
+    if (bytes == null) {
+      bytes = rawData.getBytes(StandardCharsets.UTF_8);
+      rawDataBytes = bytes;
+    }
+    return bytes;
+  }
+
+  /**
+   * @return gzip 壓縮後的原始回應內容，首次呼叫時建立；共用陣列，請勿修改
+   */
+  public byte[] getRawDataGzip() {
+    byte[] gzip = rawDataGzip;
+    if (gzip == null) {
+      byte[] bytes = getRawDataBytes();
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 4 + 64);
+      try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+        out.write(bytes);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      gzip = buffer.toByteArray();
+      rawDataGzip = gzip;
+    }
+    return gzip;
+  }
+
+  public List<CurrencyInfoDTO> getCurrencies() {
+    return currencies;
+  }
+
+  /**
+   * @param quote 計價幣別（已正規化為小寫）
+   * @return 以該幣別計價的幣別資訊清單，首次查詢時換算
+   * @throws ServiceUnavailableException 建立此快照時沒有該幣別的參考匯率
+   */
+  public List<CurrencyInfoDTO> getCurrencies(String quote) {
+    if (RateMatrix.QUOTE_CURRENCY.equals(quote)) {
+      return currencies;
+    }
+    return quotedCurrencies.computeIfAbsent(quote, this::convertTo);
+  }
+
+  /**
+   * @param format  編碼格式名稱，作為快取 key 的一部分
+   * @param quote   計價幣別（已正規化為小寫）
+   * @param encoder 將幣別資訊清單編碼為位元組
+   * @return 編碼結果，每個格式與計價幣別只編碼一次；共用陣列，請勿修改
+   */
+  public byte[] getEncodedCurrencies(String format, String quote,
+      Function<List<CurrencyInfoDTO>, byte[]> encoder) {
+    return encodedCurrencies.computeIfAbsent(format + ':' + quote,
+        key -> encoder.apply(getCurrencies(quote)));
+  }
+
+  /**
+   * @return 建立此快照時的參考匯率（每 1 BTC 可兌換的各計價幣別數量）
+   */
+  public Map<String, BigDecimal> getQuoteRates() {
+    return quoteRates;
+  }
+
+  private List<CurrencyInfoDTO> convertTo(String quote) {
+    BigDecimal target = quoteRates.get(quote);
+    BigDecimal base = quoteRates.get(RateMatrix.QUOTE_CURRENCY);
+    if (target == null || base == null) {
+      throw new ServiceUnavailableException(QUOTE_RATES_UNAVAILABLE);
+    }
+    List<CurrencyInfoDTO> converted = new ArrayList<>(currencies.size());
+    for (CurrencyInfoDTO dto : currencies) {
+      CurrencyInfoDTO copy = new CurrencyInfoDTO();
+      copy.setCurrency(dto.getCurrency());
+      copy.setChineseName(dto.getChineseName());
+      copy.setUpdateAt(dto.getUpdateAt());
+      if (dto.getRate() != null) {
+        BigDecimal rate = dto.getRate().multiply(target).divide(base, QUOTE_CONTEXT)
+            .stripTrailingZeros();
+        copy.setRate(rate.scale() < 0 ? rate.setScale(0) : rate);
+      }
+      converted.add(copy);
+    }
+    return Collections.unmodifiableList(converted);
+  }
+
+  /**
+   * @return 指定幣別的資訊，不存在時回傳 null
+   */
+  public CurrencyInfoDTO find(String currency) {
+    return byCurrency.get(currency);
+  }
+
+  /**
+   * 找出相較於前一版快照，匯率、更新時間或中文名稱有異動（含新增）的幣別。
+   *
+   * @param previous 前一版快照，可為 null（視為全部異動）
+   * @return 異動的幣別資訊，依幣別排序
+   */
+  public List<CurrencyInfoDTO> changedSince(CurrencySnapshot previous) {
+    if (previous == null) {
+      return currencies;
+    }
+    List<CurrencyInfoDTO> changed = new ArrayList<>();
+    for (CurrencyInfoDTO dto : currencies) {
+      if (!sameContent(dto, previous.find(dto.getCurrency()))) {
+        changed.add(dto);
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * @param previous 前一版快照，可為 null
+   * @return 前一版存在、此版已移除的幣別
+   */
+  public List<String> removedSince(CurrencySnapshot previous) {
+    if (previous == null) {
+      return Collections.emptyList();
+    }
+    List<String> removed = new ArrayList<>();
+    for (CurrencyInfoDTO dto : previous.currencies) {
+      if (!byCurrency.containsKey(dto.getCurrency())) {
+        removed.add(dto.getCurrency());
+      }
+    }
+    return removed;
+  }
+
+  private static boolean sameContent(CurrencyInfoDTO current, CurrencyInfoDTO previous) {
+    if (previous == null) {
+      return false;
+    }
+    boolean sameRate = current.getRate() == null
+        ? previous.getRate() == null
+        : previous.getRate() != null && current.getRate().compareTo(previous.getRate()) == 0;
+    return sameRate
+        && Objects.equals(current.getUpdateAt(), previous.getUpdateAt())
+        && Objects.equals(current.getChineseName(), previous.getChineseName());
+  }
+
+  /**
+   * @return 建立此快照時各上游批次的查詢結果
+   */
+  public List<MarketsChunkStatus> getUpstreamChunks() {
+    return upstreamChunks;
+  }
+
+  public int getFailedChunkCount() {
+    int failed = 0;
+    for (MarketsChunkStatus chunk : upstreamChunks) {
+      if (!chunk.isSuccess()) {
+        failed++;
+      }
+    }
+    return failed;
+  }
+
+  public long ageMillis(long now) {
+    return now - fetchedAt;
+  }
+
+  /**
+   * @return 幣別資訊清單內容的 strong ETag，內容相同的快照會得到相同的值
+   */
+  public String getCurrenciesEtag() {
+    String etag = currenciesEtag;
+    if (etag == null) {
+      etag = toEtag("c", hash(currencies));
+      currenciesEtag = etag;
+    }
+    return etag;
+  }
+
+  /**
+   * @param quote 計價幣別（已正規化為小寫）
+   * @return 以該幣別計價的幣別資訊清單的 strong ETag
+   */
+  public String getCurrenciesEtag(String quote) {
+    if (RateMatrix.QUOTE_CURRENCY.equals(quote)) {
+      return getCurrenciesEtag();
+    }
+    return quotedEtags.computeIfAbsent(quote,
+        q -> toEtag("c" + q + "-", hash(getCurrencies(q))));
+  }
+
+  private static long hash(List<CurrencyInfoDTO> currencies) {
+    long hash = FNV_OFFSET;
+    for (CurrencyInfoDTO dto : currencies) {
+      hash = hash(hash, dto.getCurrency());
+      hash = hash(hash, dto.getChineseName());
+      hash = hash(hash, dto.getRate() == null ? null : dto.getRate().toPlainString());
+      hash = hash(hash, dto.getUpdateAt());
+    }
+    return hash;
+  }
+
+  /**
+   * @return CoinGecko 原始回應內容的 strong ETag
+   */
+  public String getRawDataEtag() {
+    String etag = rawDataEtag;
+    if (etag == null) {
+      etag = toEtag("r", hash(FNV_OFFSET, rawData));
+      rawDataEtag = etag;
+    }
+    return etag;
+  }
+
+  /**
+   * @return gzip 壓縮版本的 strong ETag（不同編碼的表示需使用不同的值）
+   */
+  public String getRawDataGzipEtag() {
+    String etag = getRawDataEtag();
+    return etag.substring(0, etag.length() - 1) + "-gz\"";
+  }
+
+  /**
+   * @return 最新的 last_updated 與對應表最後異動時間兩者較晚者（epoch millis）
+   */
+  public long getLastModified() {
+    long modified = lastModified;
+    if (modified < 0) {
+      modified = mappingModifiedAt;
+      for (CurrencyInfoDTO dto : currencies) {
+        if (dto.getUpdateAt() != null) {
+          try {
+            modified = Math.max(modified,
+                CoingeckoMarketsParser.toEpochMillis(dto.getUpdateAt()));
+          } catch (DateTimeParseException e) {
+            // 略過無法解析的時間
+          }
+        }
+      }
+      lastModified = modified;
+    }
+    return modified;
+  }
+
+  /**
+   * @return 依此快照市價建立的換算表，首次呼叫時建立
+   */
+  RateMatrix getRateMatrix() {
+    RateMatrix matrix = rateMatrix;
+    if (matrix == null) {
+      matrix = RateMatrix.of(currencies, quoteRates);
+      rateMatrix = matrix;
+    }
+    return matrix;
+  }
+
+  /**
+   * 64-bit FNV-1a，欄位之間以不會出現在內容中的分隔字元區隔。
+   */
+  private static long hash(long hash, String value) {
+    if (value != null) {
+      for (int i = 0; i < value.length(); i++) {
+        hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+      }
+    }
+    return (hash ^ 0xffff) * FNV_PRIME;
+  }
+
+  private static String toEtag(String prefix, long hash) {
+    return "\"" + prefix + Long.toHexString(hash) + "\"";
+  }
+
+  /**
+   * 以新的中文名稱產生下一版快照，不需重新呼叫 CoinGecko。
+   *
+   * @param chineseNames 幣別與新的中文名稱
+   */
+  CurrencySnapshot withChineseNames(long newVersion, long newMappingVersion,
+      long newMappingModifiedAt, Map<String, String> chineseNames) {
+    List<CurrencyInfoDTO> updated = new ArrayList<>(currencies.size());
+    for (CurrencyInfoDTO dto : currencies) {
+      String chineseName = chineseNames.get(dto.getCurrency());
+      if (chineseName != null) {
+        CurrencyInfoDTO copy = new CurrencyInfoDTO();
+        copy.setCurrency(dto.getCurrency());
+        copy.setChineseName(chineseName);
+        copy.setRate(dto.getRate());
+        copy.setUpdateAt(dto.getUpdateAt());
+        updated.add(copy);
+      } else {
+        updated.add(dto);
+      }
+    }
+    return new CurrencySnapshot(newVersion, newMappingVersion, fetchedAt, rawData, updated,
+        upstreamChunks, newMappingModifiedAt, quoteRates);
+  }
+
+  /**
+   * 移除指定幣別後產生下一版快照。
+   */
+  CurrencySnapshot without(long newVersion, long newMappingVersion, long newMappingModifiedAt,
+      Set<String> removed) {
+    List<CurrencyInfoDTO> remaining = new ArrayList<>(currencies.size());
+    for (CurrencyInfoDTO dto : currencies) {
+      if (!removed.contains(dto.getCurrency())) {
+        remaining.add(dto);
+      }
+    }
+    return new CurrencySnapshot(newVersion, newMappingVersion, fetchedAt, rawData, remaining,
+        upstreamChunks, newMappingModifiedAt, quoteRates);
+  }
+}
@@ -0,0 +1,554 @@
+package com.example.service;
+
+import static com.example.common.ErrorMessages.CLUSTER_SNAPSHOT_UNAVAILABLE;
+import static com.example.common.ErrorMessages.TABLE_NO_DATA;
+import static com.example.common.ErrorMessages.UPSTREAM_DEADLINE_EXCEEDED;
+
+import com.example.client.ChunkedMarketsFetcher;
+import com.example.client.CoingeckoMarketsParser;
+import com.example.client.MarketsFetchResult;
+import com.example.client.UpstreamPriority;
+import com.example.dto.CurrencyInfoDTO;
+import com.example.exception.ResourceNotFoundException;
+import com.example.exception.ServiceUnavailableException;
+import com.example.exception.UpstreamResponseException;
+import com.example.metrics.StageMetrics;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * 幣別市價快照快取，由背景排程定期向 CoinGecko 更新。
+ *
+ * <p>讀取時直接回傳目前快照；超過更新間隔時先回傳舊資料並於背景更新（stale-while-revalidate），
+ * 超過最大容許延遲或尚無快照時才同步向 CoinGecko 取得資料。
+ *
+ * <p>同步更新以 {@link UpstreamPriority#INTERACTIVE} 呼叫上游，背景更新則為
+ * {@link UpstreamPriority#BACKGROUND}。並行的同步更新合併為一次，每個請求最多等待
+ * {@code coindesk.snapshot.request-deadline-ms}；逾時、額度不足、斷路器開啟或上游錯誤時改回傳
+ * 最後一次成功的快照（已過期），尚無快照時才回傳錯誤。逾時的更新仍會在背景完成並發布。
+ *
+ * <p>啟動時可由 {@link SnapshotWarmStart} 還原上次保存的快照：還原的快照不論新舊都直接回傳
+ * 並標示為 stale，同時於背景更新，避免重新啟動後的請求同時等待上游。
+ *
+ * <p>每次建立快照時一併附上 {@link QuoteRateCache} 的參考匯率，供換算其他計價幣別。
+ * 部分上游批次失敗時，失敗批次中的幣別沿用上一版快照的資料（仍以失敗批次數標示為部分結果），
+ * 不會因暫時性的錯誤被視為移除、下一次更新又視為新增。
+ *
+ * <p>叢集模式下只有 {@link ClusterCoordinator} 選出的 poller 呼叫上游；follower 的更新改為讀取
+ * 共用資料表中的最新快照，並定期檢查是否有新版本。其他節點可能異動 currency_map，因此每次更新前
+ * 先自資料庫重新載入對應表：poller 依其查詢上游，follower 以其篩選共用市價並套用中文名稱。
+ * 版本號由 {@link ClusterCoordinator#nextVersion(long)} 產生：follower 篩選後內容與共用快照相同時
+ * 沿用 poller 的版本號，差異查詢可在節點之間接續；內容不同時改用本節點的版本號。
+ */
+@Component
+public class CurrencySnapshotCache {
+
+  private static final Logger log = LoggerFactory.getLogger(CurrencySnapshotCache.class);
+
+  private final ChunkedMarketsFetcher marketsFetcher;
+  private final CurrencyMapCache currencyMapCache;
+  private final CoingeckoMarketsParser marketsParser;
+  private final QuoteRateCache quoteRateCache;
+  private final ClusterCoordinator cluster;
+  private final ApplicationEventPublisher eventPublisher;
+  private final StageMetrics stageMetrics;
+  private final long refreshIntervalMs;
+  private final long maxStalenessMs;
+  private final long requestDeadlineMs;
+
+  private final AtomicReference<CurrencySnapshot> current = new AtomicReference<>();
+  private final AtomicLong versionSequence = new AtomicLong();
+  private final AtomicLong mappingChanges = new AtomicLong();
+  private final AtomicLong mappingModifiedAt = new AtomicLong();
+  private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+  private volatile long restoredVersion = -1L;
+  private volatile long sharedVersion;
+  private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "snapshot-refresh");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final AtomicReference<CompletableFuture<CurrencySnapshot>> syncRefresh =
+      new AtomicReference<>();
+  private final ExecutorService syncExecutor = newSyncExecutor();
+
+  public CurrencySnapshotCache(ChunkedMarketsFetcher marketsFetcher,
+      CurrencyMapCache currencyMapCache, CoingeckoMarketsParser marketsParser,
+      QuoteRateCache quoteRateCache, ClusterCoordinator cluster,
+      ApplicationEventPublisher eventPublisher, StageMetrics stageMetrics,
+      @Value("${coindesk.snapshot.refresh-interval-ms:30000}") long refreshIntervalMs,
+      @Value("${coindesk.snapshot.max-staleness-ms:300000}") long maxStalenessMs,
+      @Value("${coindesk.snapshot.request-deadline-ms:3000}") long requestDeadlineMs) {
+    this.marketsFetcher = marketsFetcher;
+    this.currencyMapCache = currencyMapCache;
+    this.marketsParser = marketsParser;
+    this.quoteRateCache = quoteRateCache;
+    this.cluster = cluster;
+    this.eventPublisher = eventPublisher;
+    this.stageMetrics = stageMetrics;
+    this.refreshIntervalMs = refreshIntervalMs;
+    this.maxStalenessMs = maxStalenessMs;
+    this.requestDeadlineMs = requestDeadlineMs;
+  }
+
+  /**
+   * 取得目前快照，必要時觸發背景或同步更新。
+   *
+   * @return 最新可用的快照
+   */
+  public CurrencySnapshot get() {
+    CurrencySnapshot snapshot = getIfUsable();
+    if (snapshot != null) {
+      return snapshot;
+    }
+    CurrencySnapshot expired = current.get();
+    try {
+      return awaitRefresh(expired == null ? 0L : expired.getVersion());
+    } catch (ServiceUnavailableException | RestClientException | UpstreamResponseException e) {
+      if (expired == null) {
+        throw e;
+      }
+      log.debug("Serving stale snapshot v{}: {}", expired.getVersion(), e.getMessage());
+      return expired;
+    }
+  }
+
+  /**
+   * @return 快照是否已超過最大容許延遲（無法及時更新時仍會回傳這類快照）
+   */
+  public boolean isStale(CurrencySnapshot snapshot) {
+    return snapshot.getVersion() == restoredVersion
+        || snapshot.ageMillis(System.currentTimeMillis()) > maxStalenessMs;
+  }
+
+  /**
+   * @return 目前快照（不論新舊），尚無快照時回傳 null
+   */
+  public CurrencySnapshot peek() {
+    return current.get();
+  }
+
+  /**
+   * 取得未超過最大容許延遲的快照，不進行同步更新；快照需更新時於背景觸發。
+   *
+   * @return 可直接使用的快照，若無則回傳 null
+   */
+  public CurrencySnapshot getIfUsable() {
+    CurrencySnapshot snapshot = current.get();
+    if (snapshot == null) {
+      return null;
+    }
+    long age = snapshot.ageMillis(System.currentTimeMillis());
+    if (age > maxStalenessMs) {
+      if (snapshot.getVersion() != restoredVersion) {
+        return null;
+      }
+      refreshAsync();
+      return snapshot;
+    }
+    if (age > refreshIntervalMs || snapshot.getMappingVersion() != currencyMapCache.version()) {
+      refreshAsync();
+    }
+    return snapshot;
+  }
+
+  @Scheduled(initialDelayString = "${coindesk.snapshot.initial-delay-ms:0}",
+      fixedDelayString = "${coindesk.snapshot.refresh-interval-ms:30000}")
+  public void scheduledRefresh() {
+    try {
+      CurrencySnapshot snapshot = current.get();
+      refresh(snapshot == null ? 0L : snapshot.getVersion(), UpstreamPriority.BACKGROUND);
+    } catch (Exception e) {
+      log.warn("Scheduled snapshot refresh failed: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * follower 定期檢查共用資料表，有新版本時立即載入；poller 與未啟用叢集模式時不處理。
+   */
+  @Scheduled(initialDelayString = "${coindesk.cluster.poll-interval-ms:2000}",
+      fixedDelayString = "${coindesk.cluster.poll-interval-ms:2000}")
+  public void pollShared() {
+    if (!cluster.isFollower()) {
+      return;
+    }
+    try {
+      if (cluster.latestVersion() > sharedVersion) {
+        publish(loadShared());
+      }
+    } catch (Exception e) {
+      log.warn("Shared snapshot poll failed: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * 於背景重新取得快照，若已有更新排程中則不重複排入。
+   */
+  public void refreshAsync() {
+    if (!refreshScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    refreshExecutor.execute(() -> {
+      refreshScheduled.set(false);
+      scheduledRefresh();
+    });
+  }
+
+  /**
+   * 幣別中文名稱異動時，直接以新名稱產生下一版快照。
+   */
+  public void onChineseNameUpdated(String currency, String chineseName) {
+    onMappingsChanged(Collections.singletonMap(currency, chineseName),
+        Collections.emptySet(), false);
+  }
+
+  /**
+   * 幣別刪除時先自快照移除，再於背景重新同步原始資料。
+   */
+  public void onCurrencyDeleted(String currency) {
+    onMappingsChanged(Collections.emptyMap(), Collections.singleton(currency), false);
+  }
+
+  /**
+   * 新增幣別需要 CoinGecko 的市價資料，於背景重新取得快照。
+   */
+  public void onCurrencyInserted(String currency) {
+    onMappingsChanged(Collections.emptyMap(), Collections.emptySet(), true);
+  }
+
+  /**
+   * 一次套用多筆對應表異動，只產生一版快照。
+   *
+   * @param chineseNames 中文名稱有異動的幣別與新名稱
+   * @param deleted      已刪除的幣別
+   * @param inserted     是否有新增幣別（需重新取得市價）
+   */
+  public void onMappingsChanged(Map<String, String> chineseNames, Set<String> deleted,
+      boolean inserted) {
+    mappingChanges.incrementAndGet();
+    long modifiedAt = System.currentTimeMillis();
+    mappingModifiedAt.accumulateAndGet(modifiedAt, Math::max);
+    if (!chineseNames.isEmpty() || !deleted.isEmpty()) {
+      update(snapshot -> {
+        CurrencySnapshot next = snapshot;
+        if (!chineseNames.isEmpty()) {
+          next = next.withChineseNames(nextVersion(),
+              currencyMapCache.version(), modifiedAt, chineseNames);
+        }
+        if (!deleted.isEmpty()) {
+          next = next.without(nextVersion(), currencyMapCache.version(),
+              modifiedAt, deleted);
+        }
+        return next;
+      });
+    }
+    if (inserted || !deleted.isEmpty()) {
+      refreshAsync();
+    }
+  }
+
+  /**
+   * 同步重新取得快照；若期間已有其他執行緒完成更新，直接沿用其結果。
+   *
+   * <p>同步更新與背景更新同時進行時，會在 {@link com.example.client.CoingeckoClient} 合併為
+   * 同一次上游呼叫。
+   */
+  private CurrencySnapshot refresh(long observedVersion, UpstreamPriority priority) {
+    CurrencySnapshot snapshot = current.get();
+    if (snapshot != null && snapshot.getVersion() != observedVersion
+        && snapshot.ageMillis(System.currentTimeMillis()) <= refreshIntervalMs) {
+      return snapshot;
+    }
+    long changesBeforeLoad = mappingChanges.get();
+    CurrencySnapshot loaded;
+    try {
+      loaded = load(priority);
+    } catch (ResourceNotFoundException e) {
+      if (TABLE_NO_DATA.equals(e.getMessage())) {
+        // 對應表已清空，不再回傳先前的幣別
+        current.set(null);
+      }
+      throw e;
+    }
+    CurrencySnapshot published = publish(loaded);
+    if (mappingChanges.get() != changesBeforeLoad) {
+      // 載入期間對應表有異動，快照可能已過時
+      refreshAsync();
+    }
+    return published;
+  }
+
+  /**
+   * 加入進行中的同步更新（沒有則發起一次），最多等待 {@code requestDeadlineMs}。
+   *
+   * @throws ServiceUnavailableException 超過等待時限
+   */
+  private CurrencySnapshot awaitRefresh(long observedVersion) {
+    CompletableFuture<CurrencySnapshot> future;
+    while (true) {
+      future = syncRefresh.get();
+      if (future != null) {
+        break;
+      }
+      CompletableFuture<CurrencySnapshot> created = new CompletableFuture<>();
+      if (syncRefresh.compareAndSet(null, created)) {
+        syncExecutor.execute(StageMetrics.withCurrentEndpoint(() -> {
+          try {
+            created.complete(refresh(observedVersion, UpstreamPriority.INTERACTIVE));
+          } catch (Throwable t) {
+            created.completeExceptionally(t);
+          } finally {
+            syncRefresh.compareAndSet(created, null);
+          }
+        }));
+        future = created;
+        break;
+      }
+    }
+    try {
+      return future.get(requestDeadlineMs, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      throw new ServiceUnavailableException(UPSTREAM_DEADLINE_EXCEEDED);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ServiceUnavailableException(UPSTREAM_DEADLINE_EXCEEDED);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * 僅在新快照版本較新時才取代目前快照，避免較慢的更新覆蓋較新的結果。
+   */
+  private CurrencySnapshot publish(CurrencySnapshot loaded) {
+    while (true) {
+      CurrencySnapshot existing = current.get();
+      if (existing != null && existing.getVersion() >= loaded.getVersion()) {
+        return existing;
+      }
+      if (current.compareAndSet(existing, loaded)) {
+        eventPublisher.publishEvent(new CurrencySnapshotPublishedEvent(existing, loaded));
+        return loaded;
+      }
+    }
+  }
+
+  /**
+   * 以目前快照為基礎產生下一版並發布；尚無快照時不處理。
+   */
+  private void update(UnaryOperator<CurrencySnapshot> next) {
+    while (true) {
+      CurrencySnapshot existing = current.get();
+      if (existing == null) {
+        return;
+      }
+      CurrencySnapshot updated = next.apply(existing);
+      if (current.compareAndSet(existing, updated)) {
+        eventPublisher.publishEvent(new CurrencySnapshotPublishedEvent(existing, updated));
+        return;
+      }
+    }
+  }
+
+  private CurrencySnapshot load(UpstreamPriority priority) {
+    if (cluster.isFollower()) {
+      return loadShared();
+    }
+    syncMappings();
+    long mappingVersion = currencyMapCache.version();
+    Map<String, String> currencyToChineseName = currencyMapCache.chineseNames();
+    if (currencyToChineseName.isEmpty()) {
+      throw new ResourceNotFoundException(TABLE_NO_DATA);
+    }
+    long fetchedAt = System.currentTimeMillis();
+    MarketsFetchResult fetched = stageMetrics.record(StageMetrics.UPSTREAM,
+        () -> marketsFetcher.fetch(currencyToChineseName.keySet(), priority));
+    return build(mappingVersion, currencyToChineseName, fetchedAt, fetched,
+        quoteRateCache.get(priority));
+  }
+
+  /**
+   * 叢集模式下自資料庫重新載入對應表，取得其他節點的新增、刪除與中文名稱異動。
+   */
+  private void syncMappings() {
+    if (cluster.isEnabled() && currencyMapCache.reloadIfChanged()) {
+      mappingModifiedAt.accumulateAndGet(System.currentTimeMillis(), Math::max);
+    }
+  }
+
+  private long nextVersion() {
+    return versionSequence.updateAndGet(cluster::nextVersion);
+  }
+
+  /**
+   * 以共用資料表中的最新快照建立下一版，只保留本節點對應表中的幣別並套用其中文名稱；
+   * 共用版本未變時直接回傳目前快照。
+   *
+   * @throws ServiceUnavailableException poller 尚未寫入任何快照
+   */
+  private CurrencySnapshot loadShared() {
+    ClusterCoordinator.SharedSnapshot shared = stageMetrics.record(StageMetrics.DB,
+        cluster::latest);
+    if (shared == null) {
+      throw new ServiceUnavailableException(CLUSTER_SNAPSHOT_UNAVAILABLE);
+    }
+    CurrencySnapshot snapshot = current.get();
+    if (snapshot != null && shared.version <= sharedVersion) {
+      return snapshot;
+    }
+    sharedVersion = shared.version;
+    SnapshotWarmStart.SavedSnapshot saved = shared.saved;
+    syncMappings();
+    long mappingVersion = currencyMapCache.version();
+    Map<String, String> currencyToChineseName = currencyMapCache.chineseNames();
+    List<CurrencyInfoDTO> currencies = new ArrayList<>(saved.currencies.size());
+    boolean unchanged = true;
+    for (CurrencyInfoDTO dto : saved.currencies) {
+      String chineseName = currencyToChineseName.get(dto.getCurrency());
+      if (chineseName == null) {
+        unchanged = false;
+        continue;
+      }
+      if (!chineseName.equals(dto.getChineseName())) {
+        unchanged = false;
+        CurrencyInfoDTO renamed = new CurrencyInfoDTO();
+        renamed.setCurrency(dto.getCurrency());
+        renamed.setChineseName(chineseName);
+        renamed.setRate(dto.getRate());
+        renamed.setUpdateAt(dto.getUpdateAt());
+        dto = renamed;
+      }
+      currencies.add(dto);
+    }
+    mappingModifiedAt.accumulateAndGet(saved.mappingModifiedAt, Math::max);
+    boolean adoptable = unchanged;
+    long version = versionSequence.updateAndGet(previous -> adoptable
+        && previous < shared.snapshotVersion ? shared.snapshotVersion
+        : cluster.nextLocalVersion(Math.max(previous, shared.snapshotVersion)));
+    return new CurrencySnapshot(version, mappingVersion,
+        saved.fetchedAt, saved.rawData, currencies, Collections.emptyList(),
+        mappingModifiedAt.get(), saved.quoteRates);
+  }
+
+  /**
+   * 以上次保存的資料建立快照；已有快照時不處理。不發布
+   * {@link CurrencySnapshotPublishedEvent}，避免舊價格再次寫入歷史資料。
+   *
+   * @param fetchedAt         原快照向上游取得資料的時間（epoch millis）
+   * @param mappingModifiedAt 原快照的對應表最後異動時間（epoch millis）
+   * @return 目前快照
+   */
+  public CurrencySnapshot restore(long fetchedAt, long mappingModifiedAt, String rawData,
+      List<CurrencyInfoDTO> currencies, Map<String, BigDecimal> quoteRates) {
+    this.mappingModifiedAt.accumulateAndGet(mappingModifiedAt, Math::max);
+    CurrencySnapshot restored = new CurrencySnapshot(
+        versionSequence.updateAndGet(cluster::nextLocalVersion),
+        currencyMapCache.version(), fetchedAt, rawData, currencies, Collections.emptyList(),
+        this.mappingModifiedAt.get(), quoteRates);
+    restoredVersion = restored.getVersion();
+    if (!current.compareAndSet(null, restored)) {
+      restoredVersion = -1L;
+      return current.get();
+    }
+    return restored;
+  }
+
+  /**
+   * 以其他途徑（如非阻塞 client）取得的上游資料建立並發布快照。
+   *
+   * @param mappingVersion        取得資料時的幣別對應表版本
+   * @param currencyToChineseName 取得資料時的幣別與中文名稱對應
+   * @param fetchedAt             送出上游請求的時間（epoch millis）
+   * @param fetched               上游查詢結果
+   * @return 發布後的最新快照
+   */
+  public CurrencySnapshot publishFetched(long mappingVersion,
+      Map<String, String> currencyToChineseName, long fetchedAt, MarketsFetchResult fetched) {
+    return publish(build(mappingVersion, currencyToChineseName, fetchedAt, fetched,
+        quoteRateCache.peek()));
+  }
+
+  private CurrencySnapshot build(long mappingVersion, Map<String, String> currencyToChineseName,
+      long fetchedAt, MarketsFetchResult fetched, Map<String, BigDecimal> quoteRates) {
+    List<CurrencyInfoDTO> result = stageMetrics.record(StageMetrics.PARSE,
+        () -> marketsParser.parse(fetched.getBodies(), currencyToChineseName));
+    if (!fetched.getFailedIds().isEmpty()) {
+      result = carryForward(result, fetched.getFailedIds(), currencyToChineseName);
+    }
+    return new CurrencySnapshot(nextVersion(), mappingVersion, fetchedAt,
+        fetched.mergedBody(), result, fetched.getChunks(), mappingModifiedAt.get(), quoteRates);
+  }
+
+  /**
+   * 以目前快照中的資料補上失敗批次的幣別，套用最新的中文名稱；目前快照沒有的幣別不補。
+   */
+  private List<CurrencyInfoDTO> carryForward(List<CurrencyInfoDTO> parsed, Set<String> failedIds,
+      Map<String, String> currencyToChineseName) {
+    CurrencySnapshot previous = current.get();
+    if (previous == null) {
+      return parsed;
+    }
+    List<CurrencyInfoDTO> merged = new ArrayList<>(parsed);
+    for (String id : failedIds) {
+      CurrencyInfoDTO dto = previous.find(id);
+      String chineseName = currencyToChineseName.get(id);
+      if (dto == null || chineseName == null) {
+        continue;
+      }
+      if (!chineseName.equals(dto.getChineseName())) {
+        CurrencyInfoDTO renamed = new CurrencyInfoDTO();
+        renamed.setCurrency(id);
+        renamed.setChineseName(chineseName);
+        renamed.setRate(dto.getRate());
+        renamed.setUpdateAt(dto.getUpdateAt());
+        dto = renamed;
+      }
+      merged.add(dto);
+    }
+    merged.sort(Comparator.comparing(CurrencyInfoDTO::getCurrency));
+    return merged;
+  }
+
+  private static ExecutorService newSyncExecutor() {
+    AtomicInteger threadCount = new AtomicInteger();
+    return Executors.newCachedThreadPool(r -> {
+      Thread thread = new Thread(r, "snapshot-sync-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    refreshExecutor.shutdownNow();
+    syncExecutor.shutdownNow();
+  }
+}
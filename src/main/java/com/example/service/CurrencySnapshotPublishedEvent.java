@@ -0,0 +1,26 @@
+package com.example.service;
+
+/**
+ * 新版本幣別市價快照發布時觸發，於發布快照的執行緒同步通知，監聽者應避免耗時處理。
+ */
+public class CurrencySnapshotPublishedEvent {
+
+  private final CurrencySnapshot previous;
+  private final CurrencySnapshot current;
+
+  public CurrencySnapshotPublishedEvent(CurrencySnapshot previous, CurrencySnapshot current) {
+    this.previous = previous;
+    this.current = current;
+  }
+
+  /**
+   * @return 前一版快照，首次發布時為 null
+   */
+  public CurrencySnapshot getPrevious() {
+    return previous;
+  }
+
+  public CurrencySnapshot getCurrent() {
+    return current;
+  }
+}
@@ -0,0 +1,380 @@
+package com.example.service;
+
+import static com.example.common.ErrorMessages.STREAM_SUBSCRIBERS_EXCEEDED;
+
+import com.example.dto.CurrencyInfoDTO;
+import com.example.exception.ServiceUnavailableException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 以 Server-Sent Events 推送幣別市價異動。
+ *
+ * <p>所有訂閱者共用 {@link CurrencySnapshotCache} 的背景更新，不會因訂閱者增加而多呼叫上游。
+ * 閒置的訂閱者只佔用一個非同步連線，不佔用執行緒；推送由固定大小的執行緒池處理。
+ *
+ * <p>每個訂閱者最多只有一筆推送進行中，期間的新異動會與待送資料合併（同幣別只保留最新值），
+ * 不會無限累積；推送卡住超過 {@code coindesk.stream.slow-subscriber-ms} 的訂閱者直接中斷。
+ * 阻塞中的寫入無法由其他執行緒中斷，要到 servlet 容器的寫入逾時才會結束，因此中斷時另外補上
+ * 一條推送執行緒，寫入結束後再收回，卡住的連線不會佔滿推送執行緒而延誤其他訂閱者。
+ *
+ * <p>建立訂閱與發布異動互斥：訂閱者取得的初始快照之後的異動都會送達，較舊版本的異動不會覆蓋
+ * 較新的待送資料。
+ */
+@Service
+public class CurrencyStreamService {
+
+  private static final Logger log = LoggerFactory.getLogger(CurrencyStreamService.class);
+
+  static final String EVENT_CURRENCIES = "currencies";
+  static final String EVENT_REMOVED = "removed";
+
+  private final CurrencySnapshotCache snapshotCache;
+  private final int maxSubscribers;
+  private final long emitterTimeoutMs;
+  private final long slowSubscriberMs;
+  private final int sendThreads;
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final Object publishLock = new Object();
+  private final ThreadPoolExecutor sendExecutor;
+  private final AtomicInteger stuckSends = new AtomicInteger();
+
+  public CurrencyStreamService(CurrencySnapshotCache snapshotCache,
+      @Value("${coindesk.stream.max-subscribers:10000}") int maxSubscribers,
+      @Value("${coindesk.stream.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+      @Value("${coindesk.stream.slow-subscriber-ms:10000}") long slowSubscriberMs,
+      @Value("${coindesk.stream.send-threads:4}") int sendThreads) {
+    this.snapshotCache = snapshotCache;
+    this.maxSubscribers = maxSubscribers;
+    this.emitterTimeoutMs = emitterTimeoutMs;
+    this.slowSubscriberMs = slowSubscriberMs;
+    this.sendThreads = sendThreads;
+    AtomicInteger threadCount = new AtomicInteger();
+    this.sendExecutor = new ThreadPoolExecutor(sendThreads, sendThreads, 60L, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(Math.max(1024, maxSubscribers)), r -> {
+          Thread thread = new Thread(r, "currency-stream-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  /**
+   * 建立訂閱，並先推送目前快照中的幣別資訊。
+   *
+   * @param currencies 要訂閱的幣別，空值表示全部
+   * @return SSE 連線
+   */
+  public SseEmitter subscribe(Collection<String> currencies) {
+    SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+    Subscriber subscriber = new Subscriber(emitter,
+        currencies == null || currencies.isEmpty() ? null : new LinkedHashSet<>(currencies));
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onTimeout(() -> subscribers.remove(subscriber));
+    emitter.onError(e -> subscribers.remove(subscriber));
+
+    CurrencySnapshot snapshot;
+    synchronized (publishLock) {
+      if (subscribers.size() >= maxSubscribers) {
+        throw new ServiceUnavailableException(STREAM_SUBSCRIBERS_EXCEEDED);
+      }
+      subscribers.add(subscriber);
+      snapshot = snapshotCache.peek();
+      if (snapshot != null) {
+        offer(subscriber, snapshot.getVersion(), snapshot.getCurrencies(), new ArrayList<>());
+      }
+    }
+    if (snapshot == null) {
+      snapshotCache.refreshAsync();
+    }
+    return emitter;
+  }
+
+  @EventListener
+  public void onSnapshotPublished(CurrencySnapshotPublishedEvent event) {
+    if (subscribers.isEmpty()) {
+      return;
+    }
+    CurrencySnapshot current = event.getCurrent();
+    List<CurrencyInfoDTO> changed = current.changedSince(event.getPrevious());
+    List<String> removed = current.removedSince(event.getPrevious());
+    if (changed.isEmpty() && removed.isEmpty()) {
+      return;
+    }
+    synchronized (publishLock) {
+      for (Subscriber subscriber : subscribers) {
+        offer(subscriber, current.getVersion(), changed, removed);
+      }
+    }
+  }
+
+  /**
+   * 定期送出 SSE 註解作為 heartbeat，清除已斷線與推送卡住的訂閱者。
+   */
+  @Scheduled(fixedDelayString = "${coindesk.stream.heartbeat-ms:30000}")
+  public void heartbeat() {
+    dropStuckSubscribers();
+    for (Subscriber subscriber : subscribers) {
+      synchronized (subscriber) {
+        if (subscriber.sending) {
+          continue;
+        }
+        subscriber.sending = true;
+      }
+      submit(subscriber, () -> {
+        if (send(subscriber, Collections.singletonList(SseEmitter.event().comment("heartbeat")))) {
+          drain(subscriber);
+        }
+      });
+    }
+  }
+
+  /**
+   * 中斷推送超過 {@code slowSubscriberMs} 仍未完成的訂閱者，不必等到下一次異動才發現。
+   */
+  @Scheduled(fixedDelayString = "${coindesk.stream.slow-subscriber-ms:10000}")
+  public void dropStuckSubscribers() {
+    long now = System.currentTimeMillis();
+    for (Subscriber subscriber : subscribers) {
+      synchronized (subscriber) {
+        if (!subscriber.isStuck(now, slowSubscriberMs)) {
+          continue;
+        }
+      }
+      dropStuck(subscriber);
+    }
+  }
+
+  /**
+   * @return 目前訂閱者數量
+   */
+  public int getSubscriberCount() {
+    return subscribers.size();
+  }
+
+  private void offer(Subscriber subscriber, long version, List<CurrencyInfoDTO> changed,
+      List<String> removed) {
+    boolean startSending = false;
+    boolean slow;
+    synchronized (subscriber) {
+      slow = subscriber.isStuck(System.currentTimeMillis(), slowSubscriberMs);
+      if (!slow) {
+        subscriber.merge(version, changed, removed);
+        startSending = !subscriber.sending && subscriber.hasPending();
+        if (startSending) {
+          subscriber.sending = true;
+        }
+      }
+    }
+    if (slow) {
+      dropStuck(subscriber);
+      return;
+    }
+    if (startSending) {
+      submit(subscriber, () -> drain(subscriber));
+    }
+  }
+
+  private void submit(Subscriber subscriber, Runnable task) {
+    try {
+      sendExecutor.execute(task);
+    } catch (RejectedExecutionException e) {
+      // 推送佇列已滿，保留待送資料，待下次異動再嘗試
+      synchronized (subscriber) {
+        subscriber.sending = false;
+      }
+    }
+  }
+
+  /**
+   * 持續送出待送資料，直到沒有新的異動為止。
+   */
+  private void drain(Subscriber subscriber) {
+    while (true) {
+      Map<String, CurrencyInfoDTO> changed;
+      Set<String> removed;
+      long version;
+      synchronized (subscriber) {
+        if (!subscriber.hasPending() || subscriber.closed) {
+          subscriber.sending = false;
+          return;
+        }
+        changed = subscriber.pendingChanged;
+        removed = subscriber.pendingRemoved;
+        version = subscriber.pendingVersion;
+        subscriber.pendingChanged = new LinkedHashMap<>();
+        subscriber.pendingRemoved = new LinkedHashSet<>();
+      }
+      List<SseEmitter.SseEventBuilder> events = new ArrayList<>(2);
+      if (!changed.isEmpty()) {
+        events.add(SseEmitter.event()
+            .id(Long.toString(version))
+            .name(EVENT_CURRENCIES)
+            .data(new ArrayList<>(changed.values()), MediaType.APPLICATION_JSON));
+      }
+      if (!removed.isEmpty()) {
+        events.add(SseEmitter.event()
+            .id(Long.toString(version))
+            .name(EVENT_REMOVED)
+            .data(new ArrayList<>(removed), MediaType.APPLICATION_JSON));
+      }
+      if (!send(subscriber, events)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * 以目前執行緒送出事件，期間記錄開始時間供判斷是否卡住。
+   *
+   * @return 是否送出成功；失敗時訂閱者已中斷
+   */
+  private boolean send(Subscriber subscriber, List<SseEmitter.SseEventBuilder> events) {
+    synchronized (subscriber) {
+      subscriber.sendStartedAt = System.currentTimeMillis();
+      subscriber.sender = Thread.currentThread();
+    }
+    try {
+      for (SseEmitter.SseEventBuilder event : events) {
+        subscriber.emitter.send(event);
+      }
+      return true;
+    } catch (IOException | IllegalStateException e) {
+      drop(subscriber);
+      return false;
+    } finally {
+      boolean wasStuck;
+      synchronized (subscriber) {
+        subscriber.sender = null;
+        wasStuck = subscriber.stuck;
+        subscriber.stuck = false;
+      }
+      if (wasStuck) {
+        resizeSendPool(stuckSends.decrementAndGet());
+      }
+    }
+  }
+
+  /**
+   * 中斷推送卡住的訂閱者，並補上一條推送執行緒，直到卡住的寫入結束。
+   */
+  private void dropStuck(Subscriber subscriber) {
+    boolean compensate;
+    synchronized (subscriber) {
+      compensate = subscriber.sender != null && !subscriber.stuck;
+      subscriber.stuck = compensate || subscriber.stuck;
+    }
+    log.warn("Dropping slow price stream subscriber");
+    if (compensate) {
+      resizeSendPool(stuckSends.incrementAndGet());
+    }
+    drop(subscriber);
+  }
+
+  private synchronized void resizeSendPool(int stuck) {
+    int size = sendThreads + Math.max(0, stuck);
+    if (size > sendExecutor.getMaximumPoolSize()) {
+      sendExecutor.setMaximumPoolSize(size);
+      sendExecutor.setCorePoolSize(size);
+    } else {
+      sendExecutor.setCorePoolSize(size);
+      sendExecutor.setMaximumPoolSize(size);
+    }
+  }
+
+  private void drop(Subscriber subscriber) {
+    subscriber.closed = true;
+    subscribers.remove(subscriber);
+    try {
+      subscriber.emitter.complete();
+    } catch (IllegalStateException e) {
+      // 連線已結束
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    for (Subscriber subscriber : subscribers) {
+      drop(subscriber);
+    }
+    sendExecutor.shutdownNow();
+  }
+
+  private static final class Subscriber {
+
+    private final SseEmitter emitter;
+    private final Set<String> filter;
+
+    private Map<String, CurrencyInfoDTO> pendingChanged = new LinkedHashMap<>();
+    private Set<String> pendingRemoved = new LinkedHashSet<>();
+    private long pendingVersion;
+    private boolean sending;
+    private long sendStartedAt;
+    private Thread sender;
+    private boolean stuck;
+    private volatile boolean closed;
+
+    Subscriber(SseEmitter emitter, Set<String> filter) {
+      this.emitter = emitter;
+      this.filter = filter;
+    }
+
+    /**
+     * 將新異動併入待送資料，同幣別只保留最新值；版本早於已併入版本的異動不處理。
+     */
+    void merge(long version, List<CurrencyInfoDTO> changed, List<String> removed) {
+      if (version < pendingVersion) {
+        return;
+      }
+      for (CurrencyInfoDTO dto : changed) {
+        if (accepts(dto.getCurrency())) {
+          pendingChanged.put(dto.getCurrency(), dto);
+          pendingRemoved.remove(dto.getCurrency());
+        }
+      }
+      for (String currency : removed) {
+        if (accepts(currency)) {
+          pendingRemoved.add(currency);
+          pendingChanged.remove(currency);
+        }
+      }
+      pendingVersion = version;
+    }
+
+    /**
+     * @return 是否有寫入進行超過 slowSubscriberMs
+     */
+    boolean isStuck(long now, long slowSubscriberMs) {
+      return sender != null && now - sendStartedAt > slowSubscriberMs;
+    }
+
+    boolean hasPending() {
+      return !pendingChanged.isEmpty() || !pendingRemoved.isEmpty();
+    }
+
+    private boolean accepts(String currency) {
+      return filter == null || filter.contains(currency);
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.example.service;
+
+import com.example.dto.AlertNotificationDTO;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 未啟用 webhook 時的預設輸出端，只寫入 log。
+ */
+@Component
+@ConditionalOnProperty(name = "coindesk.alerts.webhook.enabled", havingValue = "false",
+    matchIfMissing = true)
+public class LoggingAlertSink implements AlertSink {
+
+  private static final Logger log = LoggerFactory.getLogger(LoggingAlertSink.class);
+
+  @Override
+  public void send(List<AlertNotificationDTO> batch) {
+    for (AlertNotificationDTO alert : batch) {
+      log.info("Alert rule {} fired: {} {} at {} (observed {})", alert.getRuleId(),
+          alert.getCurrency(), alert.getCondition(), alert.getRate(), alert.getObserved());
+    }
+  }
+}
@@ -0,0 +1,159 @@
+package com.example.service;
+
+import com.example.dto.CandleDTO;
+import com.example.exception.ResourceNotFoundException;
+import com.example.repository.PriceHistoryStore;
+import com.example.repository.PriceHistoryStore.Sample;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * 依價格樣本即時維護各幣別 1m / 5m / 1h / 1d 的 OHLC K 線。
+ *
+ * <p>K 線只保存在記憶體中，每個週期保留的數量由 {@code coindesk.ohlc.retention.*} 設定；
+ * 啟動時由 {@link PriceHistoryStore} 重播保留範圍內的歷史價格重建。
+ */
+@Service
+public class OhlcService {
+
+  private static final Logger log = LoggerFactory.getLogger(OhlcService.class);
+
+  private final PriceHistoryStore store;
+  private final CurrencyMapCache currencyMapCache;
+  private final Map<CandleInterval, Integer> retention = new EnumMap<>(CandleInterval.class);
+  private final Map<String, CurrencyCandles> candles = new ConcurrentHashMap<>();
+
+  public OhlcService(PriceHistoryStore store, CurrencyMapCache currencyMapCache,
+      @Value("${coindesk.ohlc.retention.1m:240}") int oneMinute,
+      @Value("${coindesk.ohlc.retention.5m:288}") int fiveMinutes,
+      @Value("${coindesk.ohlc.retention.1h:336}") int oneHour,
+      @Value("${coindesk.ohlc.retention.1d:365}") int oneDay) {
+    this.store = store;
+    this.currencyMapCache = currencyMapCache;
+    retention.put(CandleInterval.ONE_MINUTE, oneMinute);
+    retention.put(CandleInterval.FIVE_MINUTES, fiveMinutes);
+    retention.put(CandleInterval.ONE_HOUR, oneHour);
+    retention.put(CandleInterval.ONE_DAY, oneDay);
+  }
+
+  /**
+   * 將一批價格樣本併入 K 線；時間未晚於該幣別最後一筆的樣本會被略過。
+   *
+   * @param samples 幣別與其樣本（需依時間遞增）
+   */
+  public void record(Map<String, List<Sample>> samples) {
+    for (Map.Entry<String, List<Sample>> entry : samples.entrySet()) {
+      CurrencyCandles currencyCandles = candlesOf(entry.getKey());
+      for (Sample sample : entry.getValue()) {
+        currencyCandles.add(sample.getTimestamp(), sample.getScaledPrice());
+      }
+    }
+  }
+
+  /**
+   * 由歷史價格重建所有追蹤中幣別的 K 線。
+   */
+  public void replayHistory() {
+    long from = System.currentTimeMillis() - retentionWindowMillis();
+    long replayed = 0;
+    for (String currency : currencyMapCache.currencies()) {
+      CurrencyCandles currencyCandles = candlesOf(currency);
+      replayed += store.scan(currency, from, Long.MAX_VALUE, Long.MAX_VALUE,
+          currencyCandles::add);
+    }
+    log.info("Rebuilt OHLC candles from {} price history samples", replayed);
+  }
+
+  /**
+   * 查詢指定幣別的 K 線。
+   *
+   * @param currency 幣別 ID
+   * @param interval 週期
+   * @param from     起始時間（epoch millis，含），null 表示該週期保留範圍的起點
+   * @param to       結束時間（epoch millis，含），null 表示現在
+   * @return 依時間遞增排序的 K 線
+   */
+  public List<CandleDTO> getCandles(String currency, CandleInterval interval, Long from,
+      Long to) {
+    if (!currencyMapCache.contains(currency)) {
+      throw new ResourceNotFoundException("Currency '" + currency + "' not found.");
+    }
+    long end = to == null ? System.currentTimeMillis() : to;
+    long start = from == null ? end - retention.get(interval) * interval.getMillis() : from;
+    return range(currency, interval, start, end);
+  }
+
+  /**
+   * 並行查詢多個幣別的 K 線，未追蹤的幣別不列出。
+   *
+   * @param currencies 幣別 ID
+   * @param interval   週期
+   * @param from       起始時間（epoch millis，含），null 表示該週期保留範圍的起點
+   * @param to         結束時間（epoch millis，含），null 表示現在
+   * @return 幣別與其 K 線，依傳入順序排列
+   */
+  public Map<String, List<CandleDTO>> getCandles(Collection<String> currencies,
+      CandleInterval interval, Long from, Long to) {
+    long end = to == null ? System.currentTimeMillis() : to;
+    long start = from == null ? end - retention.get(interval) * interval.getMillis() : from;
+    return new LinkedHashSet<>(currencies).parallelStream()
+        .filter(currencyMapCache::contains)
+        .collect(Collectors.toMap(currency -> currency,
+            currency -> range(currency, interval, start, end),
+            (a, b) -> a, LinkedHashMap::new));
+  }
+
+  private List<CandleDTO> range(String currency, CandleInterval interval, long from, long to) {
+    CurrencyCandles currencyCandles = candles.get(currency);
+    if (currencyCandles == null || from > to) {
+      return Collections.emptyList();
+    }
+    return currencyCandles.series.get(interval).range(from, to);
+  }
+
+  private CurrencyCandles candlesOf(String currency) {
+    return candles.computeIfAbsent(currency, key -> new CurrencyCandles(retention));
+  }
+
+  private long retentionWindowMillis() {
+    long window = 0;
+    for (Map.Entry<CandleInterval, Integer> entry : retention.entrySet()) {
+      window = Math.max(window, entry.getValue() * entry.getKey().getMillis());
+    }
+    return window;
+  }
+
+  private static final class CurrencyCandles {
+
+    private final Map<CandleInterval, CandleSeries> series = new EnumMap<>(CandleInterval.class);
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    CurrencyCandles(Map<CandleInterval, Integer> retention) {
+      for (Map.Entry<CandleInterval, Integer> entry : retention.entrySet()) {
+        series.put(entry.getKey(),
+            new CandleSeries(entry.getKey().getMillis(), entry.getValue()));
+      }
+    }
+
+    synchronized void add(long timestamp, long price) {
+      if (timestamp <= lastTimestamp) {
+        return;
+      }
+      lastTimestamp = timestamp;
+      for (CandleSeries candleSeries : series.values()) {
+        candleSeries.add(timestamp, price);
+      }
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package com.example.service;
+
+import com.example.client.CoingeckoMarketsParser;
+import com.example.dto.CurrencyInfoDTO;
+import com.example.dto.PricePointDTO;
+import com.example.exception.ResourceNotFoundException;
+import com.example.repository.PriceHistoryStore;
+import com.example.repository.PriceHistoryStore.Sample;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * 記錄每次取得的幣別市價，並提供區間查詢。
+ *
+ * <p>每個新快照中有異動的幣別轉為一批樣本，交由單一背景執行緒寫入 {@link PriceHistoryStore}
+ * 並更新 {@link OhlcService} 的 K 線，不阻塞快照更新；寫入佇列已滿時捨棄該批並記錄警告。
+ */
+@Service
+public class PriceHistoryService {
+
+  private static final Logger log = LoggerFactory.getLogger(PriceHistoryService.class);
+
+  private final PriceHistoryStore store;
+  private final OhlcService ohlcService;
+  private final CurrencyMapCache currencyMapCache;
+  private final boolean enabled;
+  private final int maxPoints;
+  private final ThreadPoolExecutor writer;
+
+  public PriceHistoryService(PriceHistoryStore store, OhlcService ohlcService,
+      CurrencyMapCache currencyMapCache,
+      @Value("${coindesk.history.enabled:true}") boolean enabled,
+      @Value("${coindesk.history.max-points:10000}") int maxPoints,
+      @Value("${coindesk.history.queue-capacity:64}") int queueCapacity) {
+    this.store = store;
+    this.ohlcService = ohlcService;
+    this.currencyMapCache = currencyMapCache;
+    this.enabled = enabled;
+    this.maxPoints = maxPoints;
+    this.writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), r -> {
+          Thread thread = new Thread(r, "price-history-writer");
+          thread.setDaemon(true);
+          return thread;
+        }, (task, executor) -> log.warn("Price history queue is full, dropping a batch"));
+  }
+
+  /**
+   * 於寫入執行緒先重建 K 線，之後的新樣本排在重建完成後處理。
+   */
+  @PostConstruct
+  public void replayHistory() {
+    if (enabled) {
+      writer.execute(() -> {
+        try {
+          ohlcService.replayHistory();
+        } catch (RuntimeException e) {
+          log.error("Failed to rebuild OHLC candles from price history", e);
+        }
+      });
+    }
+  }
+
+  @EventListener
+  public void onSnapshotPublished(CurrencySnapshotPublishedEvent event) {
+    if (!enabled) {
+      return;
+    }
+    Map<String, List<Sample>> batch = toSamples(
+        event.getCurrent().changedSince(event.getPrevious()));
+    if (!batch.isEmpty()) {
+      writer.execute(() -> write(batch));
+    }
+  }
+
+  /**
+   * 查詢指定幣別在時間區間內的價格紀錄。
+   *
+   * @param currency 幣別 ID
+   * @param from     起始時間（epoch millis，含）
+   * @param to       結束時間（epoch millis，含）
+   * @return 依時間遞增排序的價格紀錄，最多 {@code coindesk.history.max-points} 筆
+   */
+  public List<PricePointDTO> getHistory(String currency, long from, long to) {
+    if (!currencyMapCache.contains(currency)) {
+      throw new ResourceNotFoundException("Currency '" + currency + "' not found.");
+    }
+    if (from > to) {
+      return Collections.emptyList();
+    }
+    List<Sample> samples = store.range(currency, from, to, maxPoints);
+    List<PricePointDTO> result = new ArrayList<>(samples.size());
+    for (Sample sample : samples) {
+      result.add(new PricePointDTO(sample.getTimestamp(),
+          CoingeckoMarketsParser.formatToTaipeiTime(Instant.ofEpochMilli(sample.getTimestamp())),
+          sample.getPrice()));
+    }
+    return result;
+  }
+
+  private static Map<String, List<Sample>> toSamples(List<CurrencyInfoDTO> changed) {
+    Map<String, List<Sample>> batch = new HashMap<>(changed.size() * 2);
+    for (CurrencyInfoDTO dto : changed) {
+      if (dto.getRate() == null || dto.getUpdateAt() == null) {
+        continue;
+      }
+      try {
+        long timestamp = CoingeckoMarketsParser.toEpochMillis(dto.getUpdateAt());
+        long price = PriceHistoryStore.toScaledPrice(dto.getRate());
+        batch.put(dto.getCurrency(), Collections.singletonList(new Sample(timestamp, price)));
+      } catch (DateTimeParseException | ArithmeticException e) {
+        log.warn("Skipping price history sample of {}: {}", dto.getCurrency(), e.getMessage());
+      }
+    }
+    return batch;
+  }
+
+  private void write(Map<String, List<Sample>> batch) {
+    ohlcService.record(batch);
+    try {
+      int written = store.append(batch);
+      log.debug("Appended {} price history samples", written);
+    } catch (RuntimeException e) {
+      log.error("Failed to append price history", e);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    writer.shutdown();
+    if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+      log.warn("Price history writer did not finish in time");
+    }
+  }
+}
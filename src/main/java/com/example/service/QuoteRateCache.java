@@ -0,0 +1,149 @@
+package com.example.service;
+
+import static com.example.common.ErrorMessages.QUOTE_CURRENCY_UNSUPPORTED;
+
+import com.example.client.CoingeckoClient;
+import com.example.client.UpstreamPriority;
+import com.example.exception.BadRequestException;
+import com.example.metrics.StageMetrics;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * 計價幣別參考匯率（CoinGecko exchange_rates）快取。
+ *
+ * <p>市價只向上游查詢一次 TWD 計價，其他計價幣別以 BTC 為基準的參考匯率於程序內換算。
+ * 法幣匯率變動緩慢，預設每 {@code coindesk.quote.refresh-interval-ms} 才重新查詢一次，
+ * 且以 {@link UpstreamPriority#BACKGROUND} 呼叫；查詢失敗時沿用上一次的結果。
+ */
+@Component
+public class QuoteRateCache {
+
+  private static final Logger log = LoggerFactory.getLogger(QuoteRateCache.class);
+
+  private final CoingeckoClient coingeckoClient;
+  private final ObjectMapper objectMapper;
+  private final StageMetrics stageMetrics;
+  private final Set<String> quoteCurrencies;
+  private final long refreshIntervalMs;
+
+  private volatile Map<String, BigDecimal> rates = Collections.emptyMap();
+  private volatile long fetchedAt;
+
+  public QuoteRateCache(CoingeckoClient coingeckoClient, ObjectMapper objectMapper,
+      StageMetrics stageMetrics,
+      @Value("${coindesk.quote.currencies:usd,jpy,eur}") String quoteCurrencies,
+      @Value("${coindesk.quote.refresh-interval-ms:600000}") long refreshIntervalMs) {
+    this.coingeckoClient = coingeckoClient;
+    this.objectMapper = objectMapper;
+    this.stageMetrics = stageMetrics;
+    Set<String> currencies = new LinkedHashSet<>();
+    currencies.add(RateMatrix.QUOTE_CURRENCY);
+    for (String currency : StringUtils.commaDelimitedListToSet(quoteCurrencies)) {
+      if (StringUtils.hasText(currency)) {
+        currencies.add(currency.trim().toLowerCase(Locale.ROOT));
+      }
+    }
+    this.quoteCurrencies = Collections.unmodifiableSet(currencies);
+    this.refreshIntervalMs = refreshIntervalMs;
+  }
+
+  /**
+   * @return 支援的計價幣別（含 TWD）
+   */
+  public Set<String> getQuoteCurrencies() {
+    return quoteCurrencies;
+  }
+
+  /**
+   * @param vs 查詢參數指定的計價幣別，未指定時為 TWD
+   * @return 正規化後的計價幣別
+   * @throws BadRequestException 不支援的計價幣別
+   */
+  public String resolve(String vs) {
+    if (!StringUtils.hasText(vs)) {
+      return RateMatrix.QUOTE_CURRENCY;
+    }
+    String quote = vs.trim().toLowerCase(Locale.ROOT);
+    if (!quoteCurrencies.contains(quote)) {
+      throw new BadRequestException(String.format(QUOTE_CURRENCY_UNSUPPORTED,
+          String.join(", ", quoteCurrencies)));
+    }
+    return quote;
+  }
+
+  /**
+   * @return 目前的參考匯率（每 1 BTC 可兌換的各計價幣別數量），不觸發查詢
+   */
+  public Map<String, BigDecimal> peek() {
+    return rates;
+  }
+
+  /**
+   * 取得參考匯率，超過更新間隔時先向上游查詢；查詢失敗時回傳上一次的結果（可能為空）。
+   *
+   * @param priority 尚無任何參考匯率時使用的呼叫優先順序
+   */
+  public Map<String, BigDecimal> get(UpstreamPriority priority) {
+    if (quoteCurrencies.size() == 1) {
+      return rates;
+    }
+    Map<String, BigDecimal> cached = rates;
+    if (!cached.isEmpty() && System.currentTimeMillis() - fetchedAt <= refreshIntervalMs) {
+      return cached;
+    }
+    synchronized (this) {
+      if (rates != cached) {
+        return rates;
+      }
+      long now = System.currentTimeMillis();
+      try {
+        String body = stageMetrics.record(StageMetrics.UPSTREAM, () -> coingeckoClient
+            .fetchExchangeRates(cached.isEmpty() ? priority : UpstreamPriority.BACKGROUND));
+        rates = stageMetrics.record(StageMetrics.PARSE, () -> parse(body));
+        fetchedAt = now;
+      } catch (RuntimeException e) {
+        log.warn("Failed to refresh quote exchange rates: {}", e.getMessage());
+      }
+      return rates;
+    }
+  }
+
+  /**
+   * 只保留支援的計價幣別；缺少 TWD 時整份視為無效。
+   */
+  Map<String, BigDecimal> parse(String body) {
+    JsonNode root;
+    try {
+      root = objectMapper.readTree(body);
+    } catch (IOException e) {
+      throw new IllegalStateException("Invalid exchange_rates response", e);
+    }
+    Map<String, BigDecimal> parsed = new LinkedHashMap<>();
+    JsonNode entries = root.path("rates");
+    for (String currency : quoteCurrencies) {
+      JsonNode value = entries.path(currency).path("value");
+      if (value.isNumber() && value.decimalValue().signum() > 0) {
+        parsed.put(currency, value.decimalValue());
+      }
+    }
+    if (!parsed.containsKey(RateMatrix.QUOTE_CURRENCY)) {
+      throw new IllegalStateException("exchange_rates response has no "
+          + RateMatrix.QUOTE_CURRENCY + " rate");
+    }
+    return Collections.unmodifiableMap(parsed);
+  }
+}
@@ -0,0 +1,168 @@
+package com.example.service;
+
+import com.example.dto.CurrencyInfoDTO;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 由單一快照的 TWD 市價建立的換算表，每個快照只建立一次。
+ *
+ * <p>任兩幣別的匯率為 {@code price(from) / price(to)}，其中 TWD 本身的價格為 1。價格以去除尾端 0
+ * 的 long 尾數與 scale 保存，換算時以 long 運算並以 HALF_EVEN 進位至 {@link #RESULT_SCALE} 位；
+ * 尾數或中間結果超出 long 範圍時才改用 {@link BigDecimal}，兩者結果相同。
+ *
+ * <p>快照帶有參考匯率時，其他計價幣別（如 USD）也一併收錄，價格為 {@code twd / 該幣別}
+ * （皆為每 1 BTC 可兌換的數量），取 16 位有效數字；幣別 ID 相同時以市價資料為準。
+ */
+final class RateMatrix {
+
+  static final String QUOTE_CURRENCY = "twd";
+  static final int RESULT_SCALE = 10;
+
+  private static final int MAX_PRECISION = 18;
+  private static final long[] POWERS_OF_TEN = new long[MAX_PRECISION + 1];
+
+  static {
+    POWERS_OF_TEN[0] = 1L;
+    for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+  }
+
+  private final Map<String, Integer> index;
+  private final BigDecimal[] prices;
+  private final long[] unscaled;
+  private final int[] scales;
+  private final boolean[] compact;
+
+  private RateMatrix(int size) {
+    this.index = new HashMap<>(size * 2);
+    this.prices = new BigDecimal[size];
+    this.unscaled = new long[size];
+    this.scales = new int[size];
+    this.compact = new boolean[size];
+  }
+
+  /**
+   * 只收錄價格大於 0 的幣別。
+   */
+  static RateMatrix of(List<CurrencyInfoDTO> currencies) {
+    return of(currencies, Collections.emptyMap());
+  }
+
+  /**
+   * @param quoteRates 每 1 BTC 可兌換的各計價幣別數量，缺少 TWD 時不收錄其他計價幣別
+   */
+  static RateMatrix of(List<CurrencyInfoDTO> currencies, Map<String, BigDecimal> quoteRates) {
+    RateMatrix matrix = new RateMatrix(currencies.size() + quoteRates.size() + 1);
+    int size = 0;
+    matrix.put(size++, QUOTE_CURRENCY, BigDecimal.ONE);
+    for (CurrencyInfoDTO dto : currencies) {
+      BigDecimal rate = dto.getRate();
+      if (rate != null && rate.signum() > 0 && !matrix.index.containsKey(dto.getCurrency())) {
+        matrix.put(size++, dto.getCurrency(), rate);
+      }
+    }
+    BigDecimal base = quoteRates.get(QUOTE_CURRENCY);
+    if (base != null) {
+      for (Map.Entry<String, BigDecimal> entry : quoteRates.entrySet()) {
+        if (entry.getValue().signum() > 0 && !matrix.index.containsKey(entry.getKey())) {
+          matrix.put(size++, entry.getKey(), base.divide(entry.getValue(), MathContext.DECIMAL64));
+        }
+      }
+    }
+    return matrix;
+  }
+
+  private void put(int i, String currency, BigDecimal price) {
+    BigDecimal normalized = price.stripTrailingZeros();
+    index.put(currency, i);
+    prices[i] = normalized;
+    compact[i] = normalized.precision() <= MAX_PRECISION;
+    if (compact[i]) {
+      unscaled[i] = normalized.unscaledValue().longValue();
+      scales[i] = normalized.scale();
+    }
+  }
+
+  /**
+   * @return 幣別在換算表中的位置，沒有可用價格時回傳 -1
+   */
+  int indexOf(String currency) {
+    Integer i = index.get(currency);
+    return i == null ? -1 : i;
+  }
+
+  /**
+   * @param from   來源幣別位置
+   * @param to     目標幣別位置
+   * @param amount 來源幣別數量
+   * @return 換算後的目標幣別數量（scale 為 {@link #RESULT_SCALE}）
+   */
+  BigDecimal convert(int from, int to, BigDecimal amount) {
+    if (compact[from] && compact[to] && amount.precision() <= MAX_PRECISION) {
+      long result = convertCompact(amount.unscaledValue().longValue(), amount.scale(),
+          unscaled[from], scales[from], unscaled[to], scales[to]);
+      if (result != Long.MIN_VALUE) {
+        return BigDecimal.valueOf(result, RESULT_SCALE);
+      }
+    }
+    return convertExact(from, to, amount);
+  }
+
+  BigDecimal convertExact(int from, int to, BigDecimal amount) {
+    return amount.multiply(prices[from]).divide(prices[to], RESULT_SCALE, RoundingMode.HALF_EVEN);
+  }
+
+  /**
+   * 計算 {@code a * 10^-sa * pf * 10^-sf / (pt * 10^-st)}，並以 RESULT_SCALE 位的尾數回傳。
+   *
+   * @return 尾數；中間結果超出 long 範圍時回傳 {@link Long#MIN_VALUE}
+   */
+  private static long convertCompact(long a, int sa, long pf, int sf, long pt, int st) {
+    long exponent = (long) RESULT_SCALE - sa - sf + st;
+    if (Math.abs(exponent) > MAX_PRECISION || !fits(a, pf)) {
+      return Long.MIN_VALUE;
+    }
+    long numerator = a * pf;
+    long denominator = pt;
+    if (exponent >= 0) {
+      long power = POWERS_OF_TEN[(int) exponent];
+      if (!fits(numerator, power)) {
+        return Long.MIN_VALUE;
+      }
+      numerator *= power;
+    } else {
+      long power = POWERS_OF_TEN[(int) -exponent];
+      if (!fits(denominator, power)) {
+        return Long.MIN_VALUE;
+      }
+      denominator *= power;
+    }
+    return divideHalfEven(numerator, denominator);
+  }
+
+  private static boolean fits(long x, long y) {
+    return x == 0 || Math.abs(y) <= Long.MAX_VALUE / Math.abs(x);
+  }
+
+  /**
+   * @param denominator 需為正數
+   */
+  private static long divideHalfEven(long numerator, long denominator) {
+    long quotient = numerator / denominator;
+    long remainder = Math.abs(numerator % denominator);
+    if (remainder != 0) {
+      long diff = remainder - (denominator - remainder);
+      if (diff > 0 || (diff == 0 && (quotient & 1) != 0)) {
+        quotient += Long.signum(numerator);
+      }
+    }
+    return quotient;
+  }
+}
@@ -0,0 +1,104 @@
+package com.example.service;
+
+import static com.example.common.ErrorMessages.TABLE_NO_DATA;
+import static com.example.common.ErrorMessages.UPSTREAM_DEADLINE_EXCEEDED;
+
+import com.example.client.ReactiveCoingeckoClient;
+import com.example.exception.ResourceNotFoundException;
+import com.example.exception.ServiceUnavailableException;
+import com.example.exception.UpstreamResponseException;
+import java.time.Duration;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 非阻塞模式的幣別市價查詢：快照可用時直接回傳，需同步更新時以 {@link ReactiveCoingeckoClient}
+ * 取得資料，等待上游期間不佔用請求執行緒。
+ *
+ * <p>與阻塞模式相同，每個請求最多等待 {@code coindesk.snapshot.request-deadline-ms}；逾時或上游
+ * 無法使用時改回傳已過期的快照。叢集模式的 follower 不呼叫上游，改於 boundedElastic 執行緒讀取
+ * 共用快照。逾時的請求不會取消上游呼叫，回應到達後仍會發布為新快照。
+ */
+@Service
+@ConditionalOnProperty(name = "coindesk.reactive.enabled", havingValue = "true")
+public class ReactiveCoindeskService {
+
+  private static final Logger log = LoggerFactory.getLogger(ReactiveCoindeskService.class);
+
+  private final CurrencySnapshotCache snapshotCache;
+  private final CurrencyMapCache currencyMapCache;
+  private final ReactiveCoingeckoClient coingeckoClient;
+  private final QuoteRateCache quoteRateCache;
+  private final ClusterCoordinator cluster;
+  private final Duration requestDeadline;
+
+  public ReactiveCoindeskService(CurrencySnapshotCache snapshotCache,
+      CurrencyMapCache currencyMapCache, ReactiveCoingeckoClient coingeckoClient,
+      QuoteRateCache quoteRateCache, ClusterCoordinator cluster,
+      @Value("${coindesk.snapshot.request-deadline-ms:3000}") long requestDeadlineMs) {
+    this.snapshotCache = snapshotCache;
+    this.currencyMapCache = currencyMapCache;
+    this.coingeckoClient = coingeckoClient;
+    this.quoteRateCache = quoteRateCache;
+    this.cluster = cluster;
+    this.requestDeadline = Duration.ofMillis(requestDeadlineMs);
+  }
+
+  /**
+   * @return 目前的幣別市價快照
+   */
+  public Mono<CurrencySnapshot> getCurrencySnapshot() {
+    return Mono.defer(() -> {
+      CurrencySnapshot snapshot = snapshotCache.getIfUsable();
+      if (snapshot != null) {
+        return Mono.just(snapshot);
+      }
+      if (cluster.isFollower()) {
+        return Mono.fromCallable(snapshotCache::get).subscribeOn(Schedulers.boundedElastic());
+      }
+      long mappingVersion = currencyMapCache.version();
+      Map<String, String> currencyToChineseName = currencyMapCache.chineseNames();
+      if (currencyToChineseName.isEmpty()) {
+        return Mono.error(new ResourceNotFoundException(TABLE_NO_DATA));
+      }
+      long fetchedAt = System.currentTimeMillis();
+      CurrencySnapshot expired = snapshotCache.peek();
+      // 取得與發布獨立於請求訂閱，逾時只放棄等待，較晚到的回應仍會發布
+      Mono<CurrencySnapshot> fetch = coingeckoClient.fetchMarkets(currencyToChineseName.keySet())
+          .map(fetched -> snapshotCache.publishFetched(mappingVersion, currencyToChineseName,
+              fetchedAt, fetched))
+          .cache();
+      fetch.subscribe(null, e -> log.debug("Reactive snapshot refresh failed: {}", e.getMessage()));
+      return fetch
+          .timeout(requestDeadline,
+              Mono.error(() -> new ServiceUnavailableException(UPSTREAM_DEADLINE_EXCEEDED)))
+          .onErrorResume(e -> expired != null
+                  && (e instanceof ServiceUnavailableException || e instanceof RestClientException
+                  || e instanceof UpstreamResponseException),
+              e -> Mono.just(expired));
+    });
+  }
+
+  /**
+   * @param vs 查詢參數指定的計價幣別，未指定時為 TWD
+   * @return 正規化後的計價幣別
+   * @throws com.example.exception.BadRequestException 不支援的計價幣別
+   */
+  public String resolveQuoteCurrency(String vs) {
+    return quoteRateCache.resolve(vs);
+  }
+
+  /**
+   * @return 快照是否已超過最大容許延遲
+   */
+  public boolean isStale(CurrencySnapshot snapshot) {
+    return snapshotCache.isStale(snapshot);
+  }
+}
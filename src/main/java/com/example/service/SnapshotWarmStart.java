@@ -0,0 +1,314 @@
+package com.example.service;
+
+import com.example.dto.CurrencyInfoDTO;
+import com.example.model.CurrencyMap;
+import com.example.repository.CurrencyMapBatchRepository;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * 將最新快照與幣別對應表保存至本機檔案，重新啟動時先以其還原，不必等待上游。
+ *
+ * <p>快照發布後於背景寫入（合併連續的發布，只寫最新一版），先寫暫存檔再以 atomic move 取代，
+ * 避免中途結束留下不完整的檔案。檔案為 gzip 壓縮的 {@link DataOutputStream} 格式，開頭為
+ * magic number 與格式版本，無法辨識的檔案直接略過。{@code coindesk.snapshot.file} 為空時停用。
+ */
+@Component
+public class SnapshotWarmStart {
+
+  private static final Logger log = LoggerFactory.getLogger(SnapshotWarmStart.class);
+
+  static final int MAGIC = 0x43445350;
+  static final int FORMAT_VERSION = 1;
+
+  private final CurrencySnapshotCache snapshotCache;
+  private final CurrencyMapCache currencyMapCache;
+  private final CurrencyMapBatchRepository batchRepository;
+  private final Path file;
+
+  private final AtomicReference<CurrencySnapshot> pending = new AtomicReference<>();
+  private final AtomicBoolean writeScheduled = new AtomicBoolean();
+  private final ExecutorService writeExecutor = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "snapshot-persist");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private long writtenVersion = -1L;
+
+  public SnapshotWarmStart(CurrencySnapshotCache snapshotCache,
+      CurrencyMapCache currencyMapCache, CurrencyMapBatchRepository batchRepository,
+      @Value("${coindesk.snapshot.file:data/coindesk-snapshot.bin}") String file) {
+    this.snapshotCache = snapshotCache;
+    this.currencyMapCache = currencyMapCache;
+    this.batchRepository = batchRepository;
+    this.file = StringUtils.hasText(file) ? Paths.get(file) : null;
+  }
+
+  /**
+   * 自檔案還原快照；檔案不存在或無法讀取時不處理。
+   *
+   * @param restoreMappings 是否一併寫回幣別對應表（資料表為空時）
+   * @return 寫回的對應資料筆數
+   */
+  public int restore(boolean restoreMappings) {
+    if (file == null) {
+      return 0;
+    }
+    SavedSnapshot saved;
+    try {
+      saved = read(file);
+    } catch (NoSuchFileException e) {
+      return 0;
+    } catch (IOException | RuntimeException e) {
+      log.warn("Ignoring unreadable snapshot file {}: {}", file, e.getMessage());
+      return 0;
+    }
+    int restored = 0;
+    if (restoreMappings && !saved.mappings.isEmpty()) {
+      batchRepository.restoreAll(saved.mappings);
+      currencyMapCache.putAll(saved.mappings);
+      restored = saved.mappings.size();
+    }
+    List<CurrencyInfoDTO> currencies = new ArrayList<>(saved.currencies.size());
+    for (CurrencyInfoDTO dto : saved.currencies) {
+      if (currencyMapCache.contains(dto.getCurrency())) {
+        currencies.add(dto);
+      }
+    }
+    if (!currencies.isEmpty()) {
+      CurrencySnapshot snapshot = snapshotCache.restore(saved.fetchedAt, saved.mappingModifiedAt,
+          saved.rawData, currencies, saved.quoteRates);
+      log.info("Restored snapshot from {}: {} currencies, {} ms old", file, currencies.size(),
+          snapshot.ageMillis(System.currentTimeMillis()));
+    }
+    return restored;
+  }
+
+  @EventListener
+  public void onSnapshotPublished(CurrencySnapshotPublishedEvent event) {
+    if (file == null) {
+      return;
+    }
+    pending.set(event.getCurrent());
+    if (writeScheduled.compareAndSet(false, true)) {
+      writeExecutor.execute(() -> {
+        writeScheduled.set(false);
+        flush();
+      });
+    }
+  }
+
+  private synchronized void flush() {
+    CurrencySnapshot snapshot = pending.getAndSet(null);
+    if (snapshot == null || snapshot.getVersion() <= writtenVersion) {
+      return;
+    }
+    try {
+      write(file, new SavedSnapshot(snapshot.getFetchedAt(), snapshot.getMappingModifiedAt(),
+          currencyMapCache.findAll(), snapshot.getCurrencies(), snapshot.getQuoteRates(),
+          snapshot.getRawData()));
+      writtenVersion = snapshot.getVersion();
+    } catch (IOException e) {
+      log.warn("Failed to persist snapshot to {}: {}", file, e.getMessage());
+    }
+  }
+
+  static void write(Path file, SavedSnapshot saved) throws IOException {
+    Path parent = file.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (OutputStream out = Files.newOutputStream(temp)) {
+      encode(saved, out);
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  static SavedSnapshot read(Path file) throws IOException {
+    try (InputStream in = Files.newInputStream(file)) {
+      return decode(in);
+    }
+  }
+
+  /**
+   * 以檔案格式寫出快照，完成後關閉 {@code target}。
+   */
+  static void encode(SavedSnapshot saved, OutputStream target) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+        new GZIPOutputStream(target)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeLong(saved.fetchedAt);
+      out.writeLong(saved.mappingModifiedAt);
+      out.writeInt(saved.mappings.size());
+      for (CurrencyMap mapping : saved.mappings) {
+        out.writeUTF(mapping.getCurrency());
+        out.writeUTF(mapping.getChineseName());
+        writeTime(out, mapping.getCreateAt());
+        writeTime(out, mapping.getUpdateAt());
+      }
+      out.writeInt(saved.currencies.size());
+      for (CurrencyInfoDTO dto : saved.currencies) {
+        out.writeUTF(dto.getCurrency());
+        writeString(out, dto.getChineseName());
+        writeDecimal(out, dto.getRate());
+        writeString(out, dto.getUpdateAt());
+      }
+      out.writeInt(saved.quoteRates.size());
+      for (Map.Entry<String, BigDecimal> entry : saved.quoteRates.entrySet()) {
+        out.writeUTF(entry.getKey());
+        writeDecimal(out, entry.getValue());
+      }
+      byte[] raw = saved.rawData.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(raw.length);
+      out.write(raw);
+    }
+  }
+
+  /**
+   * 讀取 {@link #encode} 寫出的內容，完成後關閉 {@code source}。
+   */
+  static SavedSnapshot decode(InputStream source) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+        new GZIPInputStream(source)))) {
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+        throw new IOException("Unsupported snapshot file format");
+      }
+      long fetchedAt = in.readLong();
+      long mappingModifiedAt = in.readLong();
+      int mappingCount = in.readInt();
+      List<CurrencyMap> mappings = new ArrayList<>(mappingCount);
+      for (int i = 0; i < mappingCount; i++) {
+        CurrencyMap mapping = new CurrencyMap(in.readUTF(), in.readUTF());
+        mapping.setCreateAt(readTime(in));
+        mapping.setUpdateAt(readTime(in));
+        mappings.add(mapping);
+      }
+      int currencyCount = in.readInt();
+      List<CurrencyInfoDTO> currencies = new ArrayList<>(currencyCount);
+      for (int i = 0; i < currencyCount; i++) {
+        CurrencyInfoDTO dto = new CurrencyInfoDTO();
+        dto.setCurrency(in.readUTF());
+        dto.setChineseName(readString(in));
+        dto.setRate(readDecimal(in));
+        dto.setUpdateAt(readString(in));
+        currencies.add(dto);
+      }
+      int quoteCount = in.readInt();
+      Map<String, BigDecimal> quoteRates = new LinkedHashMap<>();
+      for (int i = 0; i < quoteCount; i++) {
+        quoteRates.put(in.readUTF(), readDecimal(in));
+      }
+      byte[] raw = new byte[in.readInt()];
+      in.readFully(raw);
+      return new SavedSnapshot(fetchedAt, mappingModifiedAt, mappings, currencies, quoteRates,
+          new String(raw, StandardCharsets.UTF_8));
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      byte[] unscaled = value.unscaledValue().toByteArray();
+      out.writeShort(unscaled.length);
+      out.write(unscaled);
+      out.writeInt(value.scale());
+    }
+  }
+
+  private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    byte[] unscaled = new byte[in.readUnsignedShort()];
+    in.readFully(unscaled);
+    return new BigDecimal(new BigInteger(unscaled), in.readInt());
+  }
+
+  private static void writeTime(DataOutputStream out, LocalDateTime value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+      out.writeInt(value.getNano());
+    }
+  }
+
+  private static LocalDateTime readTime(DataInputStream in) throws IOException {
+    return in.readBoolean()
+        ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC) : null;
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    writeExecutor.shutdown();
+    writeExecutor.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  /**
+   * 檔案中保存的內容。
+   */
+  static final class SavedSnapshot {
+
+    final long fetchedAt;
+    final long mappingModifiedAt;
+    final List<CurrencyMap> mappings;
+    final List<CurrencyInfoDTO> currencies;
+    final Map<String, BigDecimal> quoteRates;
+    final String rawData;
+
+    SavedSnapshot(long fetchedAt, long mappingModifiedAt, List<CurrencyMap> mappings,
+        List<CurrencyInfoDTO> currencies, Map<String, BigDecimal> quoteRates, String rawData) {
+      this.fetchedAt = fetchedAt;
+      this.mappingModifiedAt = mappingModifiedAt;
+      this.mappings = mappings;
+      this.currencies = currencies;
+      this.quoteRates = quoteRates;
+      this.rawData = rawData;
+    }
+  }
+}
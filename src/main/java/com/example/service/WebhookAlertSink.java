@@ -0,0 +1,36 @@
+package com.example.service;
+
+import com.example.dto.AlertNotificationDTO;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * 將每批通知以 JSON 陣列 POST 至 {@code coindesk.alerts.webhook.url}，非 2xx 回應視為失敗。
+ */
+@Component
+@ConditionalOnProperty(name = "coindesk.alerts.webhook.enabled", havingValue = "true")
+public class WebhookAlertSink implements AlertSink {
+
+  private final RestTemplate restTemplate;
+  private final String url;
+
+  public WebhookAlertSink(RestTemplateBuilder restTemplateBuilder,
+      @Value("${coindesk.alerts.webhook.url}") String url,
+      @Value("${coindesk.alerts.webhook.timeout-ms:5000}") long timeoutMs) {
+    this.restTemplate = restTemplateBuilder
+        .setConnectTimeout(Duration.ofMillis(timeoutMs))
+        .setReadTimeout(Duration.ofMillis(timeoutMs))
+        .build();
+    this.url = url;
+  }
+
+  @Override
+  public void send(List<AlertNotificationDTO> batch) {
+    restTemplate.postForEntity(url, batch, Void.class);
+  }
+}
@@ -0,0 +1,130 @@
+package com.example.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.exception.UpstreamCircuitOpenException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+class CoingeckoClientTest {
+
+  private final UpstreamHttpClient httpClient = mock(UpstreamHttpClient.class);
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final CoingeckoClient client = new CoingeckoClient(httpClient,
+      new UpstreamRateLimiter(registry, 100, 6000, 0, 0, 1000, 60000),
+      new UpstreamCircuitBreaker(registry, 5, 30000), registry, "http://upstream",
+      true, 0.95, 100, 10);
+
+  @AfterEach
+  void tearDown() {
+    client.shutdown();
+  }
+
+  @Test
+  @DisplayName("1. 呼叫超過近期耗時的百分位數仍未回應時送出 hedged request，採用先完成的回應")
+  void hedgesSlowCall() {
+    AtomicInteger calls = new AtomicInteger();
+    when(httpClient.get(anyString(), anyString())).thenAnswer(invocation -> {
+      int call = calls.incrementAndGet();
+      if (call == 11) {
+        Thread.sleep(3000);
+        return response("slow");
+      }
+      return response(call > 11 ? "hedged" : "fast");
+    });
+    for (int i = 0; i < 10; i++) {
+      client.fetchMarkets(Collections.singletonList("coin" + i), UpstreamPriority.INTERACTIVE);
+    }
+
+    long start = System.nanoTime();
+    String body = client.fetchMarkets(Collections.singletonList("bitcoin"),
+        UpstreamPriority.INTERACTIVE);
+    long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+    assertEquals("hedged", body);
+    assertTrue(elapsedMs < 2000, "elapsedMs=" + elapsedMs);
+    verify(httpClient, times(12)).get(anyString(), anyString());
+    assertEquals(1.0, registry.get("coindesk.upstream.hedge.calls")
+        .tag("result", "won").counter().count());
+  }
+
+  @Test
+  @DisplayName("2. coins/list 不送出 hedged request，耗時也不計入 hedge 的樣本")
+  void coinsListIsNotHedged() {
+    when(httpClient.get(anyString(), anyString())).thenAnswer(invocation -> {
+      if ("coins/list".equals(invocation.getArgument(0))) {
+        Thread.sleep(500);
+        return response("[]");
+      }
+      return response("fast");
+    });
+    for (int i = 0; i < 10; i++) {
+      client.fetchMarkets(Collections.singletonList("coin" + i), UpstreamPriority.INTERACTIVE);
+    }
+    long delayMs = client.hedgeDelayMs();
+
+    assertEquals("[]", client.fetchCoinsList(UpstreamPriority.BACKFILL));
+    verify(httpClient, times(1)).get(eq("coins/list"), anyString());
+    assertEquals(delayMs, client.hedgeDelayMs());
+  }
+
+  @Test
+  @DisplayName("3. 斷路器未關閉時先送出一個批次試探，成功後才查詢其餘批次；批次被斷路器拒絕時整次失敗")
+  void chunksShareCircuitTrial() {
+    AtomicLong now = new AtomicLong();
+    UpstreamCircuitBreaker breaker = new UpstreamCircuitBreaker(now::get, 1, 30_000L);
+    CoingeckoClient chunkClient = new CoingeckoClient(httpClient,
+        new UpstreamRateLimiter(registry, 100, 6000, 0, 0, 1000, 60000), breaker, registry,
+        "http://upstream", false, 0.95, 100, 10);
+    ChunkedMarketsFetcher fetcher = new ChunkedMarketsFetcher(chunkClient, breaker, 1, 4);
+    ChunkedMarketsFetcher sequential = new ChunkedMarketsFetcher(chunkClient, breaker, 1, 1);
+    try {
+      when(httpClient.get(anyString(), anyString())).thenAnswer(invocation -> {
+        Thread.sleep(100);
+        return response("[\"" + invocation.getArgument(1, String.class).replaceAll(".*ids=", "")
+            + "\"]");
+      });
+      breaker.acquirePermission();
+      breaker.onFailure();
+      now.addAndGet(30_000L);
+
+      MarketsFetchResult result = fetcher.fetch(Arrays.asList("a", "b", "c"),
+          UpstreamPriority.BACKGROUND);
+      assertEquals(0, result.getFailedChunkCount());
+      assertEquals(Arrays.asList("[\"a\"]", "[\"b\"]", "[\"c\"]"), result.getBodies());
+
+      when(httpClient.get(anyString(), eq("http://upstream/coins/markets?vs_currency=twd"
+          + "&per_page=1&page=1&ids=b"))).thenThrow(
+          new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+      assertThrows(UpstreamCircuitOpenException.class,
+          () -> sequential.fetch(Arrays.asList("a", "b", "c"), UpstreamPriority.BACKGROUND));
+    } finally {
+      fetcher.shutdown();
+      sequential.shutdown();
+      chunkClient.shutdown();
+    }
+  }
+
+  private static UpstreamResponse response(String body) {
+    return new UpstreamResponse(200, new HttpHeaders(), body.getBytes(StandardCharsets.UTF_8),
+        new UpstreamTiming());
+  }
+}
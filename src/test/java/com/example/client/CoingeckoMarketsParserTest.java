@@ -0,0 +1,64 @@
+package com.example.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.dto.CurrencyInfoDTO;
+import com.example.exception.UpstreamResponseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.StreamUtils;
+
+class CoingeckoMarketsParserTest {
+
+  private final CoingeckoMarketsParser parser = new CoingeckoMarketsParser(new ObjectMapper());
+
+  @Test
+  @DisplayName("1. 解析 CoinGecko 回應，僅取出需要的欄位並依幣別排序。")
+  void testParse() throws Exception {
+    Map<String, String> names = new HashMap<>();
+    names.put("bitcoin", "比特幣");
+    names.put("ethereum", "以太幣");
+
+    List<CurrencyInfoDTO> result = parser.parse(load("coingecko/markets-3.json"), names);
+
+    assertEquals(3, result.size());
+    assertEquals("bitcoin", result.get(0).getCurrency());
+    assertEquals("比特幣", result.get(0).getChineseName());
+    assertEquals(new BigDecimal("3405281"), result.get(0).getRate());
+    assertEquals("2025/04/13 14:20:24", result.get(0).getUpdateAt());
+    assertEquals("dogecoin", result.get(1).getCurrency());
+    assertEquals("", result.get(1).getChineseName());
+    assertEquals(new BigDecimal("5.34"), result.get(1).getRate());
+    assertEquals("ethereum", result.get(2).getCurrency());
+  }
+
+  @Test
+  @DisplayName("2. 回應為空陣列時視為上游回應無法使用。")
+  void testParse_empty() {
+    assertThrows(UpstreamResponseException.class,
+        () -> parser.parse("[]", new HashMap<>()));
+  }
+
+  @Test
+  @DisplayName("3. 回應非陣列時視為解析失敗。")
+  void testParse_notArray() {
+    UpstreamResponseException e = assertThrows(UpstreamResponseException.class,
+        () -> parser.parse("{\"status\":{\"error_code\":429}}", new HashMap<>()));
+    assertEquals("Failed to parse CoinGecko data.", e.getMessage());
+  }
+
+  private static String load(String path) throws Exception {
+    try (InputStream in = CoingeckoMarketsParserTest.class.getClassLoader()
+        .getResourceAsStream(path)) {
+      return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package com.example.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("1. 並行相同 key 的呼叫只執行一次，結果回傳給所有等待者。")
+  void testConcurrentCallsAreCoalesced() throws Exception {
+    SingleFlight<String, String> flight = new SingleFlight<>();
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger executions = new AtomicInteger();
+
+    List<Future<String>> futures = new ArrayList<>();
+    futures.add(executor.submit(() -> flight.execute("k", () -> {
+      executions.incrementAndGet();
+      await(release);
+      return "result";
+    })));
+    waitUntilInFlight(flight);
+    for (int i = 0; i < 7; i++) {
+      futures.add(executor.submit(() -> flight.execute("k", () -> {
+        executions.incrementAndGet();
+        return "other";
+      })));
+    }
+    while (flight.getCoalesced() < 7) {
+      Thread.sleep(5);
+    }
+    release.countDown();
+
+    for (Future<String> future : futures) {
+      assertEquals("result", future.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, executions.get());
+    assertEquals(7, flight.getCoalesced());
+    assertEquals(0, flight.getInFlight());
+  }
+
+  @Test
+  @DisplayName("2. 執行失敗時，例外同樣回傳給所有等待者。")
+  void testFailureFansOut() throws Exception {
+    SingleFlight<String, String> flight = new SingleFlight<>();
+    CountDownLatch release = new CountDownLatch(1);
+    IllegalStateException failure = new IllegalStateException("upstream down");
+
+    Future<String> leader = executor.submit(() -> flight.execute("k", () -> {
+      await(release);
+      throw failure;
+    }));
+    waitUntilInFlight(flight);
+    Future<Throwable> follower = executor.submit(() ->
+        assertThrows(IllegalStateException.class, () -> flight.execute("k", () -> "other")));
+    while (flight.getCoalesced() < 1) {
+      Thread.sleep(5);
+    }
+    release.countDown();
+
+    assertSame(failure, follower.get(5, TimeUnit.SECONDS));
+    ExecutionException e = assertThrows(ExecutionException.class,
+        () -> leader.get(5, TimeUnit.SECONDS));
+    assertSame(failure, e.getCause());
+  }
+
+  @Test
+  @DisplayName("3. 呼叫完成後，相同 key 會重新執行。")
+  void testCompletedCallIsNotReused() {
+    SingleFlight<String, Integer> flight = new SingleFlight<>();
+    AtomicInteger counter = new AtomicInteger();
+
+    assertEquals(1, flight.execute("k", counter::incrementAndGet));
+    assertEquals(2, flight.execute("k", counter::incrementAndGet));
+    assertEquals(0, flight.getCoalesced());
+  }
+
+  private static void waitUntilInFlight(SingleFlight<?, ?> flight) throws InterruptedException {
+    while (flight.getInFlight() == 0) {
+      Thread.sleep(5);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
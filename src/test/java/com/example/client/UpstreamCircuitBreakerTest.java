@@ -0,0 +1,71 @@
+package com.example.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.client.UpstreamCircuitBreaker.State;
+import com.example.exception.ServiceUnavailableException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class UpstreamCircuitBreakerTest {
+
+  private final AtomicLong now = new AtomicLong();
+
+  @Test
+  @DisplayName("1. 連續失敗達門檻後開啟，冷卻期間拒絕呼叫")
+  void opensAfterConsecutiveFailures() {
+    UpstreamCircuitBreaker breaker = new UpstreamCircuitBreaker(now::get, 3, 30_000L);
+
+    for (int i = 0; i < 3; i++) {
+      breaker.acquirePermission();
+      breaker.onFailure();
+    }
+
+    assertEquals(State.OPEN, breaker.getState());
+    assertThrows(ServiceUnavailableException.class, breaker::acquirePermission);
+  }
+
+  @Test
+  @DisplayName("2. 冷卻結束後只放行一次試探呼叫，成功即關閉、失敗則重新冷卻")
+  void halfOpenAllowsSingleTrial() {
+    UpstreamCircuitBreaker breaker = new UpstreamCircuitBreaker(now::get, 1, 30_000L);
+    breaker.acquirePermission();
+    breaker.onFailure();
+
+    now.addAndGet(30_000L);
+    breaker.acquirePermission();
+    assertEquals(State.HALF_OPEN, breaker.getState());
+    assertThrows(ServiceUnavailableException.class, breaker::acquirePermission);
+    breaker.onFailure();
+    assertEquals(State.OPEN, breaker.getState());
+
+    now.addAndGet(30_000L);
+    breaker.acquirePermission();
+    breaker.onSuccess();
+    assertEquals(State.CLOSED, breaker.getState());
+    breaker.acquirePermission();
+  }
+
+  @Test
+  @DisplayName("3. 未送出的呼叫只釋放試探名額，不關閉斷路器也不重置失敗次數")
+  void releaseKeepsState() {
+    UpstreamCircuitBreaker breaker = new UpstreamCircuitBreaker(now::get, 2, 30_000L);
+    breaker.acquirePermission();
+    breaker.onFailure();
+    breaker.acquirePermission();
+    breaker.release();
+    breaker.acquirePermission();
+    breaker.onFailure();
+    assertEquals(State.OPEN, breaker.getState());
+
+    now.addAndGet(30_000L);
+    breaker.acquirePermission();
+    breaker.release();
+    assertEquals(State.HALF_OPEN, breaker.getState());
+    breaker.acquirePermission();
+    breaker.onFailure();
+    assertEquals(State.OPEN, breaker.getState());
+  }
+}
@@ -0,0 +1,71 @@
+package com.example.client;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.exception.UpstreamThrottledException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class UpstreamRateLimiterTest {
+
+  private final AtomicLong now = new AtomicLong(1_000_000L);
+
+  @Test
+  @DisplayName("1. 額度不足時依優先順序保留：回補與背景更新不能用掉使用者請求的額度")
+  void reservesBudgetForHigherPriorities() {
+    // 容量 4、每分鐘補 6（每 10 秒 1 個），保留 1 個給使用者請求、1 個給背景更新
+    UpstreamRateLimiter limiter = new UpstreamRateLimiter(now::get, 4, 6, 1, 1, 1000, 60000);
+
+    limiter.acquire(UpstreamPriority.BACKFILL);
+    limiter.acquire(UpstreamPriority.BACKFILL);
+    assertThrows(UpstreamThrottledException.class,
+        () -> limiter.acquire(UpstreamPriority.BACKFILL));
+    limiter.acquire(UpstreamPriority.BACKGROUND);
+    UpstreamThrottledException e = assertThrows(UpstreamThrottledException.class,
+        () -> limiter.acquire(UpstreamPriority.BACKGROUND));
+    assertEquals(10_000L, e.getRetryAfterMs());
+    limiter.acquire(UpstreamPriority.INTERACTIVE);
+    assertThrows(UpstreamThrottledException.class,
+        () -> limiter.acquire(UpstreamPriority.INTERACTIVE));
+
+    now.addAndGet(10_000L);
+    assertDoesNotThrow(() -> limiter.acquire(UpstreamPriority.INTERACTIVE));
+  }
+
+  @Test
+  @DisplayName("2. 上游回應 429 時依 Retry-After 與指數退避暫停所有呼叫")
+  void pausesOnThrottle() {
+    UpstreamRateLimiter limiter = new UpstreamRateLimiter(now::get, 10, 60, 0, 0, 1000, 60000);
+
+    assertEquals(30_000L, limiter.onThrottled("30"));
+    UpstreamThrottledException e = assertThrows(UpstreamThrottledException.class,
+        () -> limiter.acquire(UpstreamPriority.INTERACTIVE));
+    assertEquals(30_000L, e.getRetryAfterMs());
+
+    now.addAndGet(30_000L);
+    limiter.acquire(UpstreamPriority.INTERACTIVE);
+    // 第二次連續 429、沒有 Retry-After：退避 2 秒，jitter 後介於 1 至 2 秒
+    long waitMs = limiter.onThrottled(null);
+    assertTrue(waitMs >= 1000L && waitMs <= 2000L, "waitMs=" + waitMs);
+
+    assertEquals(5_000L,
+        UpstreamRateLimiter.parseRetryAfter("Thu, 01 Jan 1970 00:00:05 GMT", 0L));
+    assertEquals(0L, UpstreamRateLimiter.parseRetryAfter("soon", 0L));
+  }
+
+  @Test
+  @DisplayName("3. 一次取得多次額度時全部取得或全部不取得")
+  void acquiresPermitsAtomically() {
+    UpstreamRateLimiter limiter = new UpstreamRateLimiter(now::get, 4, 6, 1, 0, 1000, 60000);
+
+    assertThrows(UpstreamThrottledException.class,
+        () -> limiter.acquire(UpstreamPriority.BACKGROUND, 4));
+    assertEquals(4.0, limiter.availableTokens());
+    limiter.acquire(UpstreamPriority.BACKGROUND, 3);
+    assertEquals(1.0, limiter.availableTokens());
+  }
+}
@@ -0,0 +1,236 @@
+package com.example.controller;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.dto.CurrencyInfoDTO;
+import com.example.model.AlertRule;
+import com.example.model.CurrencyMap;
+import com.example.repository.CurrencyMapRepository;
+import com.example.service.AlertEngine;
+import com.example.service.AlertService;
+import com.example.service.AlertSink;
+import com.example.service.CurrencyMapCache;
+import com.example.service.CurrencySnapshot;
+import com.example.service.CurrencySnapshotPublishedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.Collections;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+/**
+ * 價格提醒規則 API 的新增、查詢、修改、刪除與欄位檢查。
+ */
+@SpringBootTest(properties = {
+    "coindesk.snapshot.file=",
+    "coindesk.snapshot.initial-delay-ms=3600000",
+    "coindesk.history.enabled=false",
+    "coindesk.coins.validate=false"
+})
+@AutoConfigureMockMvc
+class AlertControllerTest {
+
+  private static final String ALERTS = "/api/v1/coindesk/alerts";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private CurrencyMapRepository currencyMapRepository;
+
+  @Autowired
+  private CurrencyMapCache currencyMapCache;
+
+  @Autowired
+  private AlertService alertService;
+
+  @Autowired
+  private AlertEngine alertEngine;
+
+  @Autowired
+  private ApplicationEventPublisher publisher;
+
+  @MockBean
+  private AlertSink alertSink;
+
+  private long fetchedAt = System.currentTimeMillis();
+
+  @BeforeEach
+  void setUp() {
+    for (AlertRule rule : alertService.findAll(null)) {
+      alertService.delete(rule.getId());
+    }
+    currencyMapRepository.deleteAll();
+    currencyMapRepository.save(new CurrencyMap("bitcoin", "比特幣"));
+    currencyMapCache.reload();
+  }
+
+  @Test
+  @DisplayName("1. 新增提醒規則後可依幣別與 ID 查詢，條件不使用的欄位會被清除。")
+  void testAddRule() throws Exception {
+    long id = idOf(create("{\"currency\": \"bitcoin\", \"condition\": \"PRICE_ABOVE\","
+        + " \"threshold\": 100, \"windowMinutes\": 5}")
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.windowMinutes", nullValue()))
+        .andDo(print()));
+
+    mockMvc.perform(get(ALERTS).param("currency", "bitcoin"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].condition", is("PRICE_ABOVE")));
+
+    mockMvc.perform(get(ALERTS + "/" + id))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.currency", is("bitcoin")))
+        .andExpect(jsonPath("$.threshold", is(100.0)));
+    assertEquals(1, alertEngine.ruleCount());
+  }
+
+  @Test
+  @DisplayName("2. 幣別 * 只能用於時間窗條件（回傳 400）。")
+  void testAddRule_wildcard() throws Exception {
+    create("{\"currency\": \"*\", \"condition\": \"PRICE_ABOVE\", \"threshold\": 100}")
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message", containsString("'*' can only be used")))
+        .andDo(print());
+
+    create("{\"currency\": \"*\", \"condition\": \"HIGH_BREAKOUT\", \"threshold\": 100,"
+        + " \"windowMinutes\": 60}")
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.threshold", nullValue()));
+  }
+
+  @Test
+  @DisplayName("3. 未追蹤的幣別、缺少或非正數的門檻（回傳 400）。")
+  void testAddRule_invalid() throws Exception {
+    create("{\"currency\": \"ethereum\", \"condition\": \"PRICE_ABOVE\", \"threshold\": 100}")
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message", containsString("'ethereum' is not tracked")))
+        .andDo(print());
+
+    create("{\"currency\": \"bitcoin\", \"condition\": \"PRICE_BELOW\"}")
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message", containsString("requires a positive threshold")));
+
+    create("{\"currency\": \"bitcoin\", \"condition\": \"CHANGE_PERCENT\", \"threshold\": 0,"
+        + " \"windowMinutes\": 5}")
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message", containsString("requires a positive threshold")));
+    assertEquals(0, alertEngine.ruleCount());
+  }
+
+  @Test
+  @DisplayName("4. 時間窗條件的 windowMinutes 需介於 1 與上限之間（回傳 400）。")
+  void testAddRule_window() throws Exception {
+    for (String window : new String[] {"", ", \"windowMinutes\": 0",
+        ", \"windowMinutes\": 1441"}) {
+      create("{\"currency\": \"bitcoin\", \"condition\": \"CHANGE_PERCENT\", \"threshold\": 5"
+          + window + "}")
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.message", containsString("between 1 and 1440")));
+    }
+
+    create("{\"currency\": \"bitcoin\", \"condition\": \"CHANGE_PERCENT\", \"threshold\": 5,"
+        + " \"windowMinutes\": 1440}")
+        .andExpect(status().isCreated());
+  }
+
+  @Test
+  @DisplayName("5. 查詢、修改、刪除不存在的規則（回傳 404）。")
+  void testRule_notFound() throws Exception {
+    mockMvc.perform(get(ALERTS + "/999999"))
+        .andExpect(status().isNotFound())
+        .andDo(print());
+
+    mockMvc.perform(put(ALERTS + "/999999")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"currency\": \"bitcoin\", \"condition\": \"PRICE_ABOVE\","
+                + " \"threshold\": 100}"))
+        .andExpect(status().isNotFound());
+
+    mockMvc.perform(delete(ALERTS + "/999999"))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  @DisplayName("6. 修改與刪除規則後，提醒引擎依新的內容比對。")
+  void testUpdateAndDeleteRule() throws Exception {
+    long id = idOf(create("{\"currency\": \"bitcoin\", \"condition\": \"PRICE_ABOVE\","
+        + " \"threshold\": 100}")
+        .andExpect(status().isCreated()));
+
+    mockMvc.perform(put(ALERTS + "/" + id)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"currency\": \"bitcoin\", \"condition\": \"PRICE_ABOVE\","
+                + " \"threshold\": 200}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.threshold", is(200)));
+    assertEquals(1, alertEngine.ruleCount());
+
+    publish("90");
+    Thread.sleep(200);
+    publish("250");
+    verify(alertSink, timeout(5000)).send(argThat(alerts -> alerts.size() == 1
+        && alerts.get(0).getRuleId() == id
+        && alerts.get(0).getThreshold().compareTo(new BigDecimal("200")) == 0));
+
+    mockMvc.perform(delete(ALERTS + "/" + id))
+        .andExpect(status().isNoContent());
+    assertEquals(0, alertEngine.ruleCount());
+
+    publish("90");
+    Thread.sleep(200);
+    publish("250");
+    verify(alertSink, after(500).times(1)).send(anyList());
+  }
+
+  private ResultActions create(String json) throws Exception {
+    return mockMvc.perform(post(ALERTS)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(json));
+  }
+
+  private long idOf(ResultActions actions) throws Exception {
+    return objectMapper.readTree(actions.andReturn().getResponse().getContentAsString())
+        .get("id").asLong();
+  }
+
+  private void publish(String rate) {
+    CurrencyInfoDTO dto = new CurrencyInfoDTO();
+    dto.setCurrency("bitcoin");
+    dto.setChineseName("比特幣");
+    dto.setRate(new BigDecimal(rate));
+    fetchedAt += 60_000L;
+    publisher.publishEvent(new CurrencySnapshotPublishedEvent(null, new CurrencySnapshot(
+        fetchedAt, 1L, fetchedAt, "[]", Collections.singletonList(dto),
+        Collections.emptyList(), 0L)));
+  }
+}
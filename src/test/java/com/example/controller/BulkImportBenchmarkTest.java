@@ -0,0 +1,92 @@
+package com.example.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.repository.CurrencyMapRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * 比較逐筆新增與批次新增幣別對應資料的吞吐量（rows/sec）。
+ *
+ * <p>執行方式：{@code mvn test -Dtest=BulkImportBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(properties = {
+    "coindesk.snapshot.initial-delay-ms=3600000",
+    "coindesk.history.enabled=false",
+    "coindesk.coins.validate=false",
+    "coindesk.snapshot.file="
+})
+@AutoConfigureMockMvc
+class BulkImportBenchmarkTest {
+
+  private static final int ROWS = 500;
+  private static final int ROUNDS = 5;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private CurrencyMapRepository repository;
+
+  @Test
+  @DisplayName("逐筆與批次新增吞吐量比較")
+  void compareThroughput() throws Exception {
+    // 暖機
+    singleRow("warmup", 100);
+    bulk("warmup-bulk", 100);
+
+    long singleNanos = 0;
+    long bulkNanos = 0;
+    for (int round = 0; round < ROUNDS; round++) {
+      singleNanos += singleRow("single-" + round, ROWS);
+      bulkNanos += bulk("bulk-" + round, ROWS);
+    }
+
+    System.out.printf("%n%-8s %8s %12s%n", "mode", "rows", "rows/sec");
+    print("single", singleNanos);
+    print("bulk", bulkNanos);
+  }
+
+  private long singleRow(String prefix, int rows) throws Exception {
+    long start = System.nanoTime();
+    for (int i = 0; i < rows; i++) {
+      mockMvc.perform(post("/api/v1/coindesk/currencies")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content("{\"currency\": \"" + prefix + "-" + i + "\", \"chineseName\": \"測試\"}"))
+          .andExpect(status().isCreated());
+    }
+    return System.nanoTime() - start;
+  }
+
+  private long bulk(String prefix, int rows) throws Exception {
+    StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < rows; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"currency\": \"").append(prefix).append('-').append(i)
+          .append("\", \"chineseName\": \"測試\"}");
+    }
+    json.append(']');
+    long start = System.nanoTime();
+    mockMvc.perform(post("/api/v1/coindesk/currencies/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(json.toString()))
+        .andExpect(status().isOk());
+    return System.nanoTime() - start;
+  }
+
+  private static void print(String mode, long nanos) {
+    int rows = ROWS * ROUNDS;
+    System.out.printf("%-8s %8d %12.0f%n", mode, rows, rows * 1e9 / nanos);
+  }
+}
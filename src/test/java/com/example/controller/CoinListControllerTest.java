@@ -0,0 +1,146 @@
+package com.example.controller;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.model.CurrencyMap;
+import com.example.repository.CurrencyMapRepository;
+import com.example.service.CoinListCache;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * 以本機 stub 提供 CoinGecko coins/list，驗證新增幣別時的 ID 檢查與幣別搜尋。
+ */
+@SpringBootTest(properties = {
+    "coindesk.snapshot.file=",
+    "coindesk.snapshot.initial-delay-ms=3600000",
+    "coindesk.history.enabled=false"
+})
+@AutoConfigureMockMvc
+class CoinListControllerTest {
+
+  private static HttpServer upstream;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private CurrencyMapRepository repository;
+
+  @Autowired
+  private CoinListCache coinListCache;
+
+  @DynamicPropertySource
+  static void upstreamProperties(DynamicPropertyRegistry registry) throws IOException {
+    StringBuilder coins = new StringBuilder("[")
+        .append("{\"id\":\"bitcoin\",\"symbol\":\"btc\",\"name\":\"Bitcoin\"},")
+        .append("{\"id\":\"bitcoin-cash\",\"symbol\":\"bch\",\"name\":\"Bitcoin Cash\"},")
+        .append("{\"id\":\"wrapped-bitcoin\",\"symbol\":\"wbtc\",\"name\":\"Wrapped Bitcoin\"},")
+        .append("{\"id\":\"ethereum\",\"symbol\":\"eth\",\"name\":\"Ethereum\"},")
+        .append("{\"id\":\"solana\",\"symbol\":\"sol\",\"name\":\"Solana\"}");
+    for (int i = 0; i < 60; i++) {
+      coins.append(",{\"id\":\"token-").append(i).append("\",\"symbol\":\"tk").append(i)
+          .append("\",\"name\":\"Token ").append(i).append("\"}");
+    }
+    byte[] payload = coins.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    upstream.createContext("/", exchange -> {
+      if (!"/coins/list".equals(exchange.getRequestURI().getPath())) {
+        exchange.sendResponseHeaders(404, -1);
+        exchange.close();
+        return;
+      }
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, payload.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(payload);
+      }
+    });
+    upstream.start();
+    registry.add("coindesk.upstream.base-url",
+        () -> "http://localhost:" + upstream.getAddress().getPort());
+  }
+
+  @AfterAll
+  static void stopUpstream() {
+    upstream.stop(0);
+  }
+
+  @BeforeEach
+  void setUp() {
+    coinListCache.scheduledRefresh();
+    repository.deleteAll();
+    repository.save(new CurrencyMap("bitcoin", "比特幣"));
+  }
+
+  @Test
+  @DisplayName("1. 幣別清單載入後，新增 CoinGecko 沒有的幣別 ID 回傳 400。")
+  void testAddCurrency_unknownId() throws Exception {
+    mockMvc.perform(post("/api/v1/coindesk/currencies")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"currency\": \"bitcoinn\", \"chineseName\": \"比特幣\"}"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message", containsString("'bitcoinn'")))
+        .andDo(print());
+
+    mockMvc.perform(post("/api/v1/coindesk/currencies")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"currency\": \"solana\", \"chineseName\": \"索拉納\"}"))
+        .andExpect(status().isCreated());
+  }
+
+  @Test
+  @DisplayName("2. 批次新增時，CoinGecko 沒有的幣別 ID 標示為 INVALID 並附上原因。")
+  void testAddCurrencies_bulkUnknownId() throws Exception {
+    String json = "[{\"currency\": \"ethereum\", \"chineseName\": \"以太幣\"},"
+        + "{\"currency\": \"etherium\", \"chineseName\": \"以太幣\"}]";
+
+    mockMvc.perform(post("/api/v1/coindesk/currencies/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(json))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.results[0].status", is("CREATED")))
+        .andExpect(jsonPath("$.results[1].status", is("INVALID")))
+        .andExpect(jsonPath("$.results[1].message",
+            containsString("Unknown CoinGecko coin id 'etherium'")))
+        .andDo(print());
+  }
+
+  @Test
+  @DisplayName("3. 搜尋幣別依排名回傳，limit 最多 50 筆。")
+  void testSearchCoins() throws Exception {
+    mockMvc.perform(get("/api/v1/coindesk/coins/search").param("q", "bitcoin"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(3)))
+        .andExpect(jsonPath("$[0].id", is("bitcoin")))
+        .andExpect(jsonPath("$[1].id", is("bitcoin-cash")))
+        .andExpect(jsonPath("$[2].id", is("wrapped-bitcoin")))
+        .andDo(print());
+
+    mockMvc.perform(get("/api/v1/coindesk/coins/search").param("q", "token")
+            .param("limit", "100"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(50)));
+  }
+}
@@ -21,13 +21,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
-@SpringBootTest
+@SpringBootTest(properties = "coindesk.snapshot.file=")
 @AutoConfigureMockMvc
+@AutoConfigureMetrics
 class CoindeskControllerTest {
 
   @Autowired
@@ -191,4 +193,74 @@ class CoindeskControllerTest {
         .andExpect(jsonPath("$.message", containsString("already exists")))
         .andDo(print());
   }
+
+  // --------------批次作業測試--------------
+  @Test
+  @DisplayName("13. 測試批次新增幣別，回傳每筆處理結果。")
+  void testAddCurrencies_bulk() throws Exception {
+    String json = "[{\"currency\": \"solana\", \"chineseName\": \"索拉納\"},"
+        + "{\"currency\": \"bitcoin\", \"chineseName\": \"比特幣\"},"
+        + "{\"currency\": \"\", \"chineseName\": \"空白\"},"
+        + "{\"currency\": \"solana\", \"chineseName\": \"索拉納\"}]";
+
+    mockMvc.perform(post("/api/v1/coindesk/currencies/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(json))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.results[0].status", is("CREATED")))
+        .andExpect(jsonPath("$.results[1].status", is("DUPLICATE")))
+        .andExpect(jsonPath("$.results[2].status", is("INVALID")))
+        .andExpect(jsonPath("$.results[3].status", is("DUPLICATE")))
+        .andDo(print());
+
+    mockMvc.perform(get("/api/v1/coindesk/currencies/solana"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.chineseName", is("索拉納")));
+  }
+
+  @Test
+  @DisplayName("14. 測試批次更新與刪除幣別，回傳每筆處理結果。")
+  void testUpsertAndDeleteCurrencies_bulk() throws Exception {
+    String json = "[{\"currency\": \"bitcoin\", \"chineseName\": \"比特幣（更新）\"},"
+        + "{\"currency\": \"cardano\", \"chineseName\": \"艾達幣\"}]";
+
+    mockMvc.perform(put("/api/v1/coindesk/currencies/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(json))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.results[0].status", is("UPDATED")))
+        .andExpect(jsonPath("$.results[1].status", is("CREATED")))
+        .andDo(print());
+
+    mockMvc.perform(post("/api/v1/coindesk/currencies/bulk/delete")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[\"cardano\", \"bitccccoin\"]"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.results[0].status", is("DELETED")))
+        .andExpect(jsonPath("$.results[1].status", is("NOT_FOUND")))
+        .andDo(print());
+
+    mockMvc.perform(get("/api/v1/coindesk/currencies/bitcoin"))
+        .andExpect(jsonPath("$.chineseName", is("比特幣（更新）")));
+    mockMvc.perform(get("/api/v1/coindesk/currencies/cardano"))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  @DisplayName("15. 測試 Prometheus 端點輸出各階段耗時與追蹤幣別數指標。")
+  void testPrometheusMetrics() throws Exception {
+    mockMvc.perform(post("/api/v1/coindesk/currencies/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[{\"currency\": \"cardano\", \"chineseName\": \"艾達幣\"}]"))
+        .andExpect(status().isOk());
+
+    mockMvc.perform(get("/actuator/prometheus"))
+        .andExpect(status().isOk())
+        .andExpect(content().string(containsString("coindesk_currencies_tracked")))
+        .andExpect(content().string(containsString(
+            "coindesk_stage_duration_seconds_bucket{endpoint=\"/api/v1/coindesk/currencies/bulk\","
+                + "outcome=\"success\",stage=\"db\"")))
+        .andExpect(content().string(containsString(
+            "stage=\"serialize\"")));
+  }
 }
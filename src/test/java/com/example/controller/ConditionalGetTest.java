@@ -0,0 +1,151 @@
+package com.example.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.dto.CurrencyInfoDTO;
+import com.example.metrics.StageMetrics;
+import com.example.service.CoindeskService;
+import com.example.service.ConversionService;
+import com.example.service.CurrencyBinaryEncoder;
+import com.example.service.CurrencyMapBulkService;
+import com.example.service.CurrencySnapshot;
+import com.example.service.CurrencyStreamService;
+import com.example.service.OhlcService;
+import com.example.service.PriceHistoryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.StreamUtils;
+
+class ConditionalGetTest {
+
+  private MockMvc mockMvc;
+  private CurrencySnapshot snapshot;
+
+  @BeforeEach
+  void setUp() {
+    CurrencyInfoDTO bitcoin = new CurrencyInfoDTO();
+    bitcoin.setCurrency("bitcoin");
+    bitcoin.setChineseName("比特幣");
+    bitcoin.setRate(new BigDecimal("3405281"));
+    bitcoin.setUpdateAt("2025/05/20 10:15:30");
+    snapshot = new CurrencySnapshot(1L, 1L, System.currentTimeMillis(), "[]",
+        Collections.singletonList(bitcoin), Collections.emptyList(), 0L);
+
+    CoindeskService coindeskService = mock(CoindeskService.class);
+    when(coindeskService.getCurrencySnapshot()).thenReturn(snapshot);
+    when(coindeskService.resolveQuoteCurrency(null)).thenReturn("twd");
+    mockMvc = MockMvcBuilders.standaloneSetup(new CoindeskController(coindeskService,
+        mock(CurrencyStreamService.class), mock(PriceHistoryService.class),
+        mock(OhlcService.class), mock(CurrencyMapBulkService.class),
+        mock(ConversionService.class), new CurrencyBinaryEncoder(
+            Jackson2ObjectMapperBuilder.json(), new StageMetrics(new SimpleMeterRegistry()))))
+        .build();
+  }
+
+  @Test
+  @DisplayName("1. If-None-Match 與目前 ETag 相同時回傳 304 且無內容。")
+  void notModifiedByEtag() throws Exception {
+    MvcResult first = mockMvc.perform(get("/api/v1/coindesk/currencies"))
+        .andExpect(status().isOk())
+        .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+        .andReturn();
+    String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(get("/api/v1/coindesk/currencies").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+  }
+
+  @Test
+  @DisplayName("2. If-Modified-Since 不早於最新更新時間時回傳 304。")
+  void notModifiedBySince() throws Exception {
+    mockMvc.perform(get("/api/v1/coindesk/coingecko/raw")
+            .header(HttpHeaders.IF_MODIFIED_SINCE, snapshot.getLastModified()))
+        .andExpect(status().isNotModified());
+
+    mockMvc.perform(get("/api/v1/coindesk/coingecko/raw")
+            .header(HttpHeaders.IF_MODIFIED_SINCE, snapshot.getLastModified() - 1000))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, snapshot.getRawDataEtag()));
+  }
+
+  @Test
+  @DisplayName("3. 接受 gzip 時寫出預先壓縮的原始資料，並以不同的 ETag 區分。")
+  void rawDataGzip() throws Exception {
+    MvcResult gzip = mockMvc.perform(get("/api/v1/coindesk/coingecko/raw")
+            .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+        .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+        .andExpect(header().string(HttpHeaders.ETAG, snapshot.getRawDataGzipEtag()))
+        .andReturn();
+    try (GZIPInputStream in = new GZIPInputStream(
+        new ByteArrayInputStream(gzip.getResponse().getContentAsByteArray()))) {
+      assertEquals("[]", StreamUtils.copyToString(in, StandardCharsets.UTF_8));
+    }
+
+    mockMvc.perform(get("/api/v1/coindesk/coingecko/raw")
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+        .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+        .andExpect(content().string("[]"));
+  }
+
+  @Test
+  @DisplayName("4. 依 Accept 回傳 Smile 或 CBOR，內容與 JSON 相同且每個快照只編碼一次。")
+  void binaryFormats() throws Exception {
+    MvcResult smile = mockMvc.perform(get("/api/v1/coindesk/currencies")
+            .accept(CurrencyBinaryEncoder.SMILE_VALUE))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(CurrencyBinaryEncoder.SMILE_VALUE))
+        .andReturn();
+    MvcResult cbor = mockMvc.perform(get("/api/v1/coindesk/currencies")
+            .accept(CurrencyBinaryEncoder.CBOR_VALUE))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(CurrencyBinaryEncoder.CBOR_VALUE))
+        .andReturn();
+    MvcResult json = mockMvc.perform(get("/api/v1/coindesk/currencies")
+            .accept(MediaType.ALL))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+        .andReturn();
+
+    String expected = json.getResponse().getContentAsString(StandardCharsets.UTF_8);
+    assertEquals(expected, toJson(new ObjectMapper(new SmileFactory()), smile));
+    assertEquals(expected, toJson(new ObjectMapper(new CBORFactory()), cbor));
+    assertEquals(CurrencyBinaryEncoder.etag(snapshot, "twd", "smile"),
+        smile.getResponse().getHeader(HttpHeaders.ETAG));
+    assertSame(snapshot.getEncodedCurrencies("smile", "twd", currencies -> null),
+        snapshot.getEncodedCurrencies("smile", "twd", currencies -> null));
+  }
+
+  private static String toJson(ObjectMapper binaryMapper, MvcResult result) throws Exception {
+    CurrencyInfoDTO[] decoded = binaryMapper.readValue(
+        result.getResponse().getContentAsByteArray(), CurrencyInfoDTO[].class);
+    return new ObjectMapper().writeValueAsString(decoded);
+  }
+}
@@ -0,0 +1,163 @@
+package com.example.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.StreamUtils;
+
+/**
+ * 比較阻塞與非阻塞模式在上游緩慢時可同時服務的連線數。
+ *
+ * <p>以本機 stub 模擬回應延遲的 CoinGecko，並將快照最大容許延遲設為 0，使每個請求都需等待上游；
+ * Tomcat 執行緒數限制為 20。執行方式：{@code mvn test -Dtest=ReactiveModeBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "coindesk.reactive.enabled=true",
+    "coindesk.snapshot.max-staleness-ms=0",
+    "coindesk.snapshot.refresh-interval-ms=1",
+    "coindesk.snapshot.initial-delay-ms=3600000",
+    "coindesk.snapshot.file=",
+    "server.tomcat.threads.max=20",
+    "spring.jpa.show-sql=false"
+})
+class ReactiveModeBenchmarkTest {
+
+  private static final int UPSTREAM_DELAY_MS = 300;
+  private static final int CONCURRENT_CLIENTS = 400;
+
+  private static HttpServer upstream;
+
+  @LocalServerPort
+  private int port;
+
+  @DynamicPropertySource
+  static void upstreamProperties(DynamicPropertyRegistry registry) throws Exception {
+    byte[] payload;
+    try (InputStream in = ReactiveModeBenchmarkTest.class.getClassLoader()
+        .getResourceAsStream("coingecko/markets-3.json")) {
+      payload = StreamUtils.copyToByteArray(in);
+    }
+    upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    upstream.setExecutor(Executors.newCachedThreadPool());
+    upstream.createContext("/", exchange -> {
+      try {
+        Thread.sleep(UPSTREAM_DELAY_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, payload.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(payload);
+      }
+    });
+    upstream.start();
+    registry.add("coindesk.upstream.base-url",
+        () -> "http://localhost:" + upstream.getAddress().getPort());
+  }
+
+  @AfterAll
+  static void stopUpstream() {
+    upstream.stop(0);
+  }
+
+  @Test
+  @DisplayName("阻塞與非阻塞模式並行連線容量比較")
+  void compareConcurrentCapacity() throws Exception {
+    // 暖機：建立連線池與 JIT
+    run("/api/v1/coindesk/currencies", 20);
+    run("/api/v1/coindesk/reactive/currencies", 20);
+
+    Result blocking = run("/api/v1/coindesk/currencies", CONCURRENT_CLIENTS);
+    Result reactive = run("/api/v1/coindesk/reactive/currencies", CONCURRENT_CLIENTS);
+
+    System.out.printf("%n%-10s %8s %10s %10s %12s%n", "mode", "ok", "wall(ms)", "p99(ms)",
+        "req/s");
+    blocking.print("blocking");
+    reactive.print("reactive");
+
+    assertEquals(CONCURRENT_CLIENTS, reactive.ok);
+  }
+
+  private Result run(String path, int clients) throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(clients);
+    try {
+      List<Future<Long>> futures = new ArrayList<>(clients);
+      long start = System.nanoTime();
+      for (int i = 0; i < clients; i++) {
+        futures.add(pool.submit(() -> call(path)));
+      }
+      List<Long> latencies = new ArrayList<>(clients);
+      int ok = 0;
+      for (Future<Long> future : futures) {
+        long latency = future.get(60, TimeUnit.SECONDS);
+        if (latency >= 0) {
+          ok++;
+          latencies.add(latency);
+        }
+      }
+      long wallMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      latencies.sort(Long::compare);
+      long p99 = latencies.isEmpty() ? -1
+          : latencies.get(Math.min(latencies.size() - 1, (int) (latencies.size() * 0.99)));
+      return new Result(ok, wallMs, p99);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private long call(String path) {
+    long start = System.nanoTime();
+    try {
+      HttpURLConnection connection =
+          (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+      connection.setConnectTimeout(30_000);
+      connection.setReadTimeout(30_000);
+      int status = connection.getResponseCode();
+      try (InputStream in = connection.getInputStream()) {
+        StreamUtils.drain(in);
+      }
+      return status == 200 ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) : -1;
+    } catch (Exception e) {
+      return -1;
+    }
+  }
+
+  private static final class Result {
+
+    private final int ok;
+    private final long wallMs;
+    private final long p99Ms;
+
+    Result(int ok, long wallMs, long p99Ms) {
+      this.ok = ok;
+      this.wallMs = wallMs;
+      this.p99Ms = p99Ms;
+    }
+
+    void print(String mode) {
+      System.out.printf("%-10s %8d %10d %10d %12.1f%n", mode, ok, wallMs, p99Ms,
+          ok * 1000.0 / Math.max(1, wallMs));
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package com.example.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.repository.PriceHistoryStore.Sample;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PriceHistoryStoreTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  @DisplayName("1. 區間查詢含起訖並依時間排序")
+  void rangeIsInclusive() {
+    PriceHistoryStore store = new PriceHistoryStore(dir.toString());
+    List<Sample> samples = new ArrayList<>();
+    for (int i = 1; i <= 100; i++) {
+      samples.add(new Sample(i * 1000L, PriceHistoryStore.toScaledPrice(BigDecimal.valueOf(i))));
+    }
+    assertEquals(100, store.append(Collections.singletonMap("bitcoin", samples)));
+
+    List<Sample> result = store.range("bitcoin", 10_000L, 20_000L, 1000);
+    assertEquals(11, result.size());
+    assertEquals(10_000L, result.get(0).getTimestamp());
+    assertEquals(0, new BigDecimal("20").compareTo(result.get(10).getPrice()));
+    assertEquals(5, store.range("bitcoin", 0L, Long.MAX_VALUE, 5).size());
+  }
+
+  @Test
+  @DisplayName("2. 時間未晚於最後一筆的樣本不寫入，重新開啟後仍有效")
+  void skipsOutOfOrderSamples() {
+    PriceHistoryStore store = new PriceHistoryStore(dir.toString());
+    store.append(Collections.singletonMap("dogecoin",
+        Arrays.asList(new Sample(2000L, 1L), new Sample(3000L, 2L))));
+
+    PriceHistoryStore reopened = new PriceHistoryStore(dir.toString());
+    int written = reopened.append(Collections.singletonMap("dogecoin",
+        Arrays.asList(new Sample(3000L, 3L), new Sample(4000L, 4L))));
+
+    assertEquals(1, written);
+    assertEquals(3, reopened.range("dogecoin", 0L, Long.MAX_VALUE, 100).size());
+  }
+
+  @Test
+  @DisplayName("3. 尚無紀錄的幣別回傳空清單")
+  void emptyWhenNoFile() {
+    PriceHistoryStore store = new PriceHistoryStore(dir.toString());
+    assertTrue(store.range("ethereum", 0L, Long.MAX_VALUE, 100).isEmpty());
+  }
+}
@@ -0,0 +1,253 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.dto.AlertNotificationDTO;
+import com.example.dto.CurrencyInfoDTO;
+import com.example.model.AlertCondition;
+import com.example.model.AlertRule;
+import com.example.repository.AlertRuleRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+
+class AlertEngineTest {
+
+  private static final long MINUTE = 60_000L;
+
+  private final AlertEngine engine = new AlertEngine(null, null, null);
+  private long nextId = 1;
+  private long version = 1;
+
+  @Test
+  @DisplayName("1. 只觸發前後價格之間跨過的門檻，回到另一側後才再次觸發")
+  void priceThresholds() {
+    add("bitcoin", AlertCondition.PRICE_ABOVE, "100", null);
+    add("bitcoin", AlertCondition.PRICE_ABOVE, "110", null);
+    add("bitcoin", AlertCondition.PRICE_ABOVE, "130", null);
+    add("bitcoin", AlertCondition.PRICE_BELOW, "95", null);
+    add("ethereum", AlertCondition.PRICE_ABOVE, "100", null);
+
+    assertTrue(evaluate(0, "bitcoin", "90", "ethereum", "90").isEmpty());
+    assertEquals(Arrays.asList(1L, 2L),
+        ruleIds(evaluate(1, "bitcoin", "120", "ethereum", "99")));
+    assertTrue(evaluate(2, "bitcoin", "125", "ethereum", "99").isEmpty());
+    assertEquals(Collections.singletonList(4L), ruleIds(evaluate(3, "bitcoin", "95")));
+    assertEquals(Arrays.asList(1L, 2L), ruleIds(evaluate(4, "bitcoin", "115")));
+
+    engine.unregister(2L);
+    assertEquals(4, engine.ruleCount());
+    evaluate(5, "bitcoin", "90");
+    assertEquals(Collections.singletonList(1L), ruleIds(evaluate(6, "bitcoin", "120")));
+  }
+
+  @Test
+  @DisplayName("2. 時間窗漲跌幅與突破最高價，* 規則套用於所有幣別")
+  void windowedRules() {
+    add("dogecoin", AlertCondition.CHANGE_PERCENT, "5", 5);
+    add("dogecoin", AlertCondition.CHANGE_PERCENT, "10", 5);
+    add(AlertRule.ALL_CURRENCIES, AlertCondition.HIGH_BREAKOUT, null, 3);
+
+    evaluate(0, "dogecoin", "10.0", "bitcoin", "100");
+    evaluate(1, "dogecoin", "10.2", "bitcoin", "105");
+    // 紀錄尚不足一個時間窗，不比對
+    assertTrue(evaluate(2, "dogecoin", "10.1", "bitcoin", "106").isEmpty());
+    assertTrue(evaluate(3, "dogecoin", "10.1", "bitcoin", "104").isEmpty());
+
+    List<AlertNotificationDTO> breakout = evaluate(4, "dogecoin", "10.1", "bitcoin", "107");
+    assertEquals(Collections.singletonList("bitcoin"), currencies(breakout));
+    assertEquals(new BigDecimal("106"), breakout.get(0).getObserved());
+
+    // 與 5 分鐘前（10.0）相比 +6%，同時突破 3 分鐘內最高價
+    List<AlertNotificationDTO> moved = evaluate(5, "dogecoin", "10.6", "bitcoin", "100");
+    assertEquals(Arrays.asList(1L, 3L), ruleIds(moved));
+    assertEquals(0, new BigDecimal("6").compareTo(moved.get(0).getObserved()));
+    // 與 5 分鐘前（10.2）相比 +12.7%，只觸發尚未跨過的 10%
+    assertEquals(Arrays.asList(2L, 3L),
+        ruleIds(evaluate(6, "dogecoin", "11.5", "bitcoin", "100")));
+  }
+
+  @Test
+  @DisplayName("3. 通知分批 POST 至 webhook")
+  void dispatchesToWebhook() throws Exception {
+    BlockingQueue<JsonNode> received = new LinkedBlockingQueue<>();
+    ObjectMapper objectMapper = new ObjectMapper();
+    HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/alerts", exchange -> {
+      try (InputStream body = exchange.getRequestBody()) {
+        received.add(objectMapper.readTree(body));
+      } catch (IOException e) {
+        received.add(objectMapper.nullNode());
+      }
+      exchange.sendResponseHeaders(204, -1);
+      exchange.close();
+    });
+    server.start();
+    AlertDispatcher dispatcher = null;
+    try {
+      String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/alerts";
+      dispatcher = new AlertDispatcher(
+          new WebhookAlertSink(new RestTemplateBuilder(), url, 2000), new SimpleMeterRegistry(),
+          100, 3, 500);
+      List<AlertNotificationDTO> alerts = new ArrayList<>();
+      for (long id = 1; id <= 5; id++) {
+        alerts.add(new AlertNotificationDTO(id, "bitcoin", "PRICE_ABOVE", BigDecimal.TEN, null,
+            new BigDecimal("11"), new BigDecimal("9"), null, 1000L, 7L));
+      }
+      dispatcher.offer(alerts);
+
+      JsonNode first = received.poll(5, TimeUnit.SECONDS);
+      JsonNode second = received.poll(5, TimeUnit.SECONDS);
+      assertEquals(3, first.size());
+      assertEquals(2, second.size());
+      assertEquals(1L, first.get(0).get("ruleId").asLong());
+      assertEquals("PRICE_ABOVE", first.get(0).get("condition").asText());
+      assertEquals(5L, second.get(1).get("ruleId").asLong());
+    } finally {
+      if (dispatcher != null) {
+        dispatcher.shutdown();
+      }
+      server.stop(0);
+    }
+  }
+
+  @Test
+  @DisplayName("4. 突破最高價的時間窗最高價與逐筆掃描價格紀錄的結果一致")
+  void breakoutMatchesFullScan() {
+    int[] windows = {2, 3, 7};
+    for (int window : windows) {
+      add("bitcoin", AlertCondition.HIGH_BREAKOUT, null, window);
+    }
+    Random random = new Random(7);
+    List<int[]> history = new ArrayList<>();
+    int minute = 0;
+    for (int step = 0; step < 500; step++) {
+      minute += 1 + random.nextInt(2);
+      int price = 90 + random.nextInt(21);
+      List<String> expected = new ArrayList<>();
+      for (int i = 0; i < windows.length; i++) {
+        int cutoff = minute - windows[i];
+        if (history.isEmpty() || history.get(0)[0] > cutoff) {
+          continue;
+        }
+        int previous = history.get(history.size() - 1)[1];
+        Integer high = null;
+        for (int[] sample : history) {
+          if (sample[0] > cutoff && (high == null || sample[1] > high)) {
+            high = sample[1];
+          }
+        }
+        if (high != null && previous <= high && price > high) {
+          expected.add((i + 1) + "@" + high);
+        }
+      }
+      List<String> actual = evaluate(minute, "bitcoin", String.valueOf(price)).stream()
+          .sorted(Comparator.comparing(AlertNotificationDTO::getRuleId))
+          .map(alert -> alert.getRuleId() + "@" + alert.getObserved())
+          .collect(Collectors.toList());
+      assertEquals(expected, actual, "minute " + minute);
+      history.add(new int[] {minute, price});
+    }
+  }
+
+  @Test
+  @DisplayName("5. 叢集模式下 follower 不評估，取得租約時重新載入其他節點修改的規則")
+  void onlyPollerEvaluates() {
+    ClusterCoordinator cluster = mock(ClusterCoordinator.class);
+    AlertRuleRepository repository = mock(AlertRuleRepository.class);
+    AlertDispatcher dispatcher = mock(AlertDispatcher.class);
+    AlertRuleRepository.RulesSignature signature = mock(AlertRuleRepository.RulesSignature.class);
+    when(cluster.isEnabled()).thenReturn(true);
+    when(cluster.isPoller()).thenReturn(false);
+    when(repository.findSignature()).thenReturn(signature);
+    when(signature.getCount()).thenReturn(1L);
+    when(signature.getMaxId()).thenReturn(1L);
+    AlertRule rule = new AlertRule("bitcoin", AlertCondition.PRICE_ABOVE, new BigDecimal("100"),
+        null);
+    rule.setId(1L);
+    when(repository.findAll()).thenReturn(Collections.singletonList(rule));
+    AlertEngine clustered = new AlertEngine(repository, dispatcher, cluster);
+
+    clustered.syncRules();
+    clustered.onSnapshotPublished(event(0, "90"));
+    verify(repository, never()).findAll();
+    assertEquals(0, clustered.ruleCount());
+
+    when(cluster.isPoller()).thenReturn(true);
+    clustered.onSnapshotPublished(event(1, "90"));
+    verify(repository, timeout(5000)).findAll();
+    clustered.onSnapshotPublished(event(2, "120"));
+    verify(dispatcher, timeout(5000)).offer(argThat(alerts -> alerts.size() == 1
+        && alerts.get(0).getRuleId() == 1L));
+
+    clustered.syncRules();
+    verify(repository, times(1)).findAll();
+  }
+
+  private CurrencySnapshotPublishedEvent event(int minute, String rate) {
+    CurrencyInfoDTO dto = new CurrencyInfoDTO();
+    dto.setCurrency("bitcoin");
+    dto.setRate(new BigDecimal(rate));
+    return new CurrencySnapshotPublishedEvent(null, new CurrencySnapshot(version++, 1L,
+        minute * MINUTE, "[]", Collections.singletonList(dto), Collections.emptyList(), 0L));
+  }
+
+  private void add(String currency, AlertCondition condition, String threshold,
+      Integer windowMinutes) {
+    AlertRule rule = new AlertRule(currency, condition,
+        threshold == null ? null : new BigDecimal(threshold), windowMinutes);
+    rule.setId(nextId++);
+    engine.register(rule);
+  }
+
+  /**
+   * @param minute  快照時間（分鐘）
+   * @param pairs   幣別與價格
+   */
+  private List<AlertNotificationDTO> evaluate(int minute, String... pairs) {
+    List<CurrencyInfoDTO> currencies = new ArrayList<>();
+    for (int i = 0; i < pairs.length; i += 2) {
+      CurrencyInfoDTO dto = new CurrencyInfoDTO();
+      dto.setCurrency(pairs[i]);
+      dto.setRate(new BigDecimal(pairs[i + 1]));
+      currencies.add(dto);
+    }
+    return engine.evaluate(new CurrencySnapshot(version++, 1L, minute * MINUTE, "[]",
+        currencies, Collections.emptyList(), 0L));
+  }
+
+  private static List<Long> ruleIds(List<AlertNotificationDTO> alerts) {
+    return alerts.stream().map(AlertNotificationDTO::getRuleId).sorted()
+        .collect(Collectors.toList());
+  }
+
+  private static List<String> currencies(List<AlertNotificationDTO> alerts) {
+    return alerts.stream().map(AlertNotificationDTO::getCurrency).collect(Collectors.toList());
+  }
+}
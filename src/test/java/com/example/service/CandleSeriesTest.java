@@ -0,0 +1,55 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.dto.CandleDTO;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CandleSeriesTest {
+
+  private static final long MINUTE = 60_000L;
+
+  @Test
+  @DisplayName("1. 同一週期內的樣本彙總為一根 K 線")
+  void aggregatesSamplesInBucket() {
+    CandleSeries series = new CandleSeries(MINUTE, 10);
+    series.add(MINUTE, 5);
+    series.add(MINUTE + 10_000, 9);
+    series.add(MINUTE + 20_000, 2);
+    series.add(MINUTE + 30_000, 4);
+    series.add(2 * MINUTE, 7);
+
+    List<CandleDTO> candles = series.range(0, Long.MAX_VALUE);
+
+    assertEquals(2, candles.size());
+    CandleDTO first = candles.get(0);
+    assertEquals(MINUTE, first.getTimestamp());
+    assertEquals(0, BigDecimal.valueOf(5, 10).compareTo(first.getOpen()));
+    assertEquals(0, BigDecimal.valueOf(9, 10).compareTo(first.getHigh()));
+    assertEquals(0, BigDecimal.valueOf(2, 10).compareTo(first.getLow()));
+    assertEquals(0, BigDecimal.valueOf(4, 10).compareTo(first.getClose()));
+    assertEquals(4, first.getCount());
+    assertEquals(1, candles.get(1).getCount());
+  }
+
+  @Test
+  @DisplayName("2. 只保留最近的週期，空週期不列出")
+  void keepsOnlyRecentBuckets() {
+    CandleSeries series = new CandleSeries(MINUTE, 3);
+    series.add(0, 1);
+    series.add(MINUTE, 2);
+    series.add(5 * MINUTE, 3);
+    series.add(6 * MINUTE, 4);
+    series.add(0, 9);
+
+    List<CandleDTO> candles = series.range(0, Long.MAX_VALUE);
+
+    assertEquals(2, candles.size());
+    assertEquals(5 * MINUTE, candles.get(0).getTimestamp());
+    assertEquals(6 * MINUTE, candles.get(1).getTimestamp());
+    assertEquals(1, series.range(6 * MINUTE, 6 * MINUTE).size());
+  }
+}
@@ -0,0 +1,184 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.dto.CurrencyInfoDTO;
+import com.example.metrics.StageMetrics;
+import com.example.model.CurrencyMap;
+import com.example.repository.CurrencyMapRepository;
+import com.example.repository.SharedSnapshotRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 兩個節點共用同一個檔案模式 H2 資料庫。
+ */
+class ClusterCoordinatorTest {
+
+  @TempDir
+  Path directory;
+
+  private String url;
+  private Connection keepOpen;
+
+  @BeforeEach
+  void openDatabase() throws SQLException {
+    url = "jdbc:h2:file:" + directory.resolve("cluster").toAbsolutePath() + ";AUTO_SERVER=TRUE";
+    keepOpen = DriverManager.getConnection(url, "sa", "");
+  }
+
+  @AfterEach
+  void closeDatabase() throws SQLException {
+    keepOpen.close();
+  }
+
+  @Test
+  @DisplayName("1. 只有一個節點取得租約，釋放後由另一個節點接手")
+  void failoverOnRelease() throws InterruptedException {
+    ClusterCoordinator first = node("first", 60_000);
+    ClusterCoordinator second = node("second", 60_000);
+
+    assertTrue(first.isPoller());
+    assertTrue(second.isFollower());
+
+    first.shutdown();
+    second.renew();
+
+    assertFalse(first.isPoller());
+    assertTrue(second.isPoller());
+  }
+
+  @Test
+  @DisplayName("2. 租約到期後由其他節點接手，原節點無法再寫入共用快照")
+  void failoverOnExpiry() throws InterruptedException {
+    ClusterCoordinator first = node("first", 1000);
+    ClusterCoordinator second = node("second", 1000);
+    assertTrue(first.isPoller());
+
+    Thread.sleep(1200);
+    second.renew();
+    first.renew();
+
+    assertTrue(second.isPoller());
+    assertTrue(first.isFollower());
+    assertEquals(-1L, first.share(snapshot(1000L, "3000000")));
+    assertEquals(1L, second.share(snapshot(1000L, "3000000")));
+  }
+
+  @Test
+  @DisplayName("3. follower 讀取 poller 寫入的最新一版快照")
+  void followerReadsLatest() {
+    ClusterCoordinator poller = node("poller", 60_000);
+    ClusterCoordinator follower = node("follower", 60_000);
+    assertNull(follower.latest());
+
+    assertEquals(1L, poller.share(snapshot(1000L, "3000000")));
+    assertEquals(-1L, poller.share(snapshot(1000L, "3000000")));
+    assertEquals(2L, poller.share(snapshot(2000L, "3100000.50")));
+
+    ClusterCoordinator.SharedSnapshot shared = follower.latest();
+    assertEquals(2L, follower.latestVersion());
+    assertEquals(2L, shared.version);
+    assertEquals(2000L, shared.saved.fetchedAt);
+    assertEquals(new BigDecimal("3100000.50"), shared.saved.currencies.get(0).getRate());
+    assertEquals(new BigDecimal("31.5"), shared.saved.quoteRates.get("usd"));
+  }
+
+  @Test
+  @DisplayName("4. follower 以資料庫中的對應表篩選共用市價並套用中文名稱，內容不同時使用本節點的版本號")
+  void followerAppliesOwnMappings() {
+    ClusterCoordinator poller = node("poller", 60_000);
+    ClusterCoordinator follower = node("follower", 60_000);
+    CurrencyInfoDTO ethereum = new CurrencyInfoDTO();
+    ethereum.setCurrency("ethereum");
+    ethereum.setChineseName("以太幣");
+    ethereum.setRate(new BigDecimal("100000"));
+    CurrencySnapshot polled = snapshot(1000L, "3000000");
+    long pollerVersion = poller.nextVersion(0L);
+    poller.share(new CurrencySnapshot(pollerVersion, 1L, 1000L, "[]",
+        Arrays.asList(polled.getCurrencies().get(0), ethereum), Collections.emptyList(), 0L,
+        polled.getQuoteRates()));
+
+    CurrencyMapRepository repository = mock(CurrencyMapRepository.class);
+    when(repository.findAll()).thenReturn(
+        Collections.singletonList(new CurrencyMap("bitcoin", "比特幣（更新）")));
+    CurrencySnapshotCache cache = followerCache(follower, repository);
+    cache.pollShared();
+
+    CurrencySnapshot snapshot = cache.peek();
+    assertEquals(1, snapshot.getCurrencies().size());
+    assertEquals("比特幣（更新）", snapshot.find("bitcoin").getChineseName());
+    assertEquals(new BigDecimal("3000000"), snapshot.find("bitcoin").getRate());
+    assertTrue(snapshot.getVersion() > pollerVersion);
+    assertTrue(snapshot.getVersion() < poller.nextVersion(pollerVersion));
+    cache.shutdown();
+  }
+
+  @Test
+  @DisplayName("5. follower 篩選後內容與共用快照相同時沿用 poller 的版本號，接手的 poller 版本號較大")
+  void followerSharesPollerVersion() throws InterruptedException {
+    ClusterCoordinator poller = node("poller", 60_000);
+    ClusterCoordinator follower = node("follower", 60_000);
+    CurrencySnapshot polled = snapshot(1000L, "3000000");
+    long pollerVersion = poller.nextVersion(0L);
+    poller.share(new CurrencySnapshot(pollerVersion, 1L, 1000L, "[]", polled.getCurrencies(),
+        Collections.emptyList(), 0L, polled.getQuoteRates()));
+
+    CurrencyMapRepository repository = mock(CurrencyMapRepository.class);
+    when(repository.findAll()).thenReturn(
+        Collections.singletonList(new CurrencyMap("bitcoin", "比特幣")));
+    CurrencySnapshotCache cache = followerCache(follower, repository);
+    cache.pollShared();
+    assertEquals(pollerVersion, cache.peek().getVersion());
+
+    poller.shutdown();
+    follower.renew();
+    assertTrue(follower.isPoller());
+    assertTrue(follower.nextVersion(cache.peek().getVersion()) > pollerVersion);
+    cache.shutdown();
+  }
+
+  private static CurrencySnapshotCache followerCache(ClusterCoordinator follower,
+      CurrencyMapRepository repository) {
+    StageMetrics stageMetrics = new StageMetrics(new SimpleMeterRegistry());
+    return new CurrencySnapshotCache(null, new CurrencyMapCache(repository, stageMetrics), null,
+        null, follower, event -> { }, stageMetrics, 30_000L, 300_000L, 3000L);
+  }
+
+  private ClusterCoordinator node(String nodeId, long leaseMs) {
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL(url);
+    dataSource.setUser("sa");
+    ClusterCoordinator coordinator = new ClusterCoordinator(
+        new SharedSnapshotRepository(new JdbcTemplate(dataSource)), true, nodeId, leaseMs);
+    coordinator.init();
+    return coordinator;
+  }
+
+  private static CurrencySnapshot snapshot(long fetchedAt, String rate) {
+    CurrencyInfoDTO bitcoin = new CurrencyInfoDTO();
+    bitcoin.setCurrency("bitcoin");
+    bitcoin.setChineseName("比特幣");
+    bitcoin.setRate(new BigDecimal(rate));
+    return new CurrencySnapshot(1L, 1L, fetchedAt, "[]", Collections.singletonList(bitcoin),
+        Collections.emptyList(), 0L, Collections.singletonMap("usd", new BigDecimal("31.5")));
+  }
+}
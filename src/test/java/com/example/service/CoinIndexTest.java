@@ -0,0 +1,62 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.dto.CoinDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CoinIndexTest {
+
+  private final CoinIndex index = CoinIndex.of(Arrays.asList(
+      new CoinDTO("bitcoin", "btc", "Bitcoin"),
+      new CoinDTO("bitcoin-cash", "bch", "Bitcoin Cash"),
+      new CoinDTO("wrapped-bitcoin", "wbtc", "Wrapped Bitcoin"),
+      new CoinDTO("btc-2x", "btc2x", "BTC 2x"),
+      new CoinDTO("ethereum", "eth", "Ethereum"),
+      new CoinDTO("bitcoin", "btc", "Bitcoin (duplicate)")));
+
+  @Test
+  @DisplayName("1. 以二分搜尋判斷幣別 ID，重複 ID 只保留一筆")
+  void contains() {
+    assertEquals(5, index.size());
+    assertTrue(index.contains("bitcoin-cash"));
+    assertFalse(index.contains("Bitcoin"));
+    assertFalse(index.contains("bitco"));
+    assertFalse(CoinIndex.EMPTY.contains("bitcoin"));
+  }
+
+  @Test
+  @DisplayName("2. 代號、ID 完全相同優先，其次為前綴與名稱單字")
+  void ranking() {
+    assertEquals(Arrays.asList("bitcoin", "btc-2x"), ids(index.search("BTC", 10)));
+    assertEquals(Arrays.asList("bitcoin", "bitcoin-cash", "wrapped-bitcoin"),
+        ids(index.search("bitcoin", 10)));
+    assertEquals(Arrays.asList("bitcoin", "bitcoin-cash"), ids(index.search("bit", 2)));
+    assertEquals(Arrays.asList("bitcoin-cash"), ids(index.search("cash", 10)));
+    assertTrue(index.search(" ", 10).isEmpty());
+  }
+
+  @Test
+  @DisplayName("3. 串流解析 coins/list，略過其他欄位")
+  void parse() {
+    CoinListCache cache = new CoinListCache(null, new ObjectMapper(), null, true, 0);
+    List<CoinDTO> coins = cache.parse("[{\"id\":\"bitcoin\",\"symbol\":\"btc\",\"name\":\"Bitcoin\","
+        + "\"platforms\":{\"ethereum\":\"0x1\"}},{\"id\":\"ethereum\",\"symbol\":\"eth\"}]");
+
+    assertEquals(2, coins.size());
+    assertEquals("Bitcoin", coins.get(0).getName());
+    assertEquals("eth", coins.get(1).getSymbol());
+    assertTrue(cache.isKnown("not-loaded-yet"));
+  }
+
+  private static List<String> ids(List<CoinDTO> coins) {
+    return coins.stream().map(CoinDTO::getId).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,104 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.dto.ConversionRequestDTO;
+import com.example.dto.ConversionResponseDTO;
+import com.example.dto.CurrencyInfoDTO;
+import com.example.exception.ServiceUnavailableException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ConversionServiceTest {
+
+  private final CurrencySnapshot snapshot = new CurrencySnapshot(7L, 1L, 0L, "[]", Arrays.asList(
+      coin("bitcoin", "3012345.12"), coin("ethereum", "98765.4321"),
+      coin("shiba-inu", "0.00071234"), coin("delisted", null)),
+      Collections.emptyList(), 0L);
+
+  @Test
+  @DisplayName("1. 以 TWD 市價換算交叉匯率，無法換算的項目附上原因且不影響其他項目")
+  void convertsCrossRates() {
+    ConversionService service = new ConversionService(100, 2);
+
+    ConversionResponseDTO response = service.convert(snapshot, Arrays.asList(
+        new ConversionRequestDTO("bitcoin", "TWD", new BigDecimal("0.5")),
+        new ConversionRequestDTO("twd", "ethereum", new BigDecimal("98765.4321")),
+        new ConversionRequestDTO("bitcoin", "ethereum", new BigDecimal("2")),
+        new ConversionRequestDTO("delisted", "twd", BigDecimal.ONE),
+        new ConversionRequestDTO("bitcoin", null, BigDecimal.ONE)));
+
+    assertEquals(7L, response.getVersion());
+    assertEquals(2, response.getFailed());
+    assertEquals(new BigDecimal("1506172.5600000000"), response.getResults().get(0).getResult());
+    assertEquals(new BigDecimal("1.0000000000"), response.getResults().get(1).getResult());
+    assertEquals(new BigDecimal("60.9999886792"), response.getResults().get(2).getResult());
+    assertNull(response.getResults().get(3).getResult());
+    assertNull(response.getResults().get(4).getResult());
+  }
+
+  @Test
+  @DisplayName("2. long 快速路徑與 BigDecimal 計算結果一致")
+  void compactPathMatchesBigDecimal() {
+    List<CurrencyInfoDTO> coins = new ArrayList<>();
+    Random random = new Random(42);
+    for (int i = 0; i < 50; i++) {
+      BigDecimal price = BigDecimal.valueOf(random.nextLong() & Long.MAX_VALUE,
+          random.nextInt(24)).add(new BigDecimal("0.00000001"));
+      coins.add(coin("coin" + i, price.toPlainString()));
+    }
+    RateMatrix matrix = RateMatrix.of(coins);
+
+    for (int i = 0; i < 20_000; i++) {
+      int from = random.nextInt(coins.size() + 1);
+      int to = random.nextInt(coins.size() + 1);
+      BigDecimal amount = BigDecimal.valueOf(random.nextInt(), random.nextInt(12) - 2);
+      assertEquals(matrix.convertExact(from, to, amount), matrix.convert(from, to, amount),
+          "from=" + from + " to=" + to + " amount=" + amount);
+    }
+  }
+
+  @Test
+  @DisplayName("3. 以參考匯率換算其他計價幣別，結果與 ETag 依快照與計價幣別保留")
+  void quotesInOtherCurrencies() {
+    Map<String, BigDecimal> quoteRates = new LinkedHashMap<>();
+    quoteRates.put("twd", new BigDecimal("3000000"));
+    quoteRates.put("usd", new BigDecimal("100000"));
+    CurrencySnapshot quoted = new CurrencySnapshot(8L, 1L, 0L, "[]", snapshot.getCurrencies(),
+        Collections.emptyList(), 0L, quoteRates);
+
+    List<CurrencyInfoDTO> usd = quoted.getCurrencies("usd");
+    assertEquals(new BigDecimal("100411.504"), usd.get(0).getRate());
+    assertEquals(new BigDecimal("0.0000237446666667"), usd.get(2).getRate());
+    assertNull(usd.get(3).getRate());
+    assertSame(usd, quoted.getCurrencies("usd"));
+    assertSame(quoted.getCurrencies(), quoted.getCurrencies("twd"));
+    assertNotEquals(quoted.getCurrenciesEtag("twd"), quoted.getCurrenciesEtag("usd"));
+    assertThrows(ServiceUnavailableException.class, () -> quoted.getCurrencies("jpy"));
+
+    ConversionResponseDTO response = new ConversionService(100, 2).convert(quoted,
+        Collections.singletonList(new ConversionRequestDTO("usd", "twd", BigDecimal.ONE)));
+    assertEquals(new BigDecimal("30.0000000000"), response.getResults().get(0).getResult());
+  }
+
+  private static CurrencyInfoDTO coin(String currency, String rate) {
+    CurrencyInfoDTO dto = new CurrencyInfoDTO();
+    dto.setCurrency(currency);
+    dto.setChineseName(currency);
+    dto.setRate(rate == null ? null : new BigDecimal(rate));
+    dto.setUpdateAt("2025/05/20 10:15:30");
+    return dto;
+  }
+}
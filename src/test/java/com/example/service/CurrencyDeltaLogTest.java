@@ -0,0 +1,67 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.dto.CurrencyDeltaDTO;
+import com.example.dto.CurrencyInfoDTO;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CurrencyDeltaLogTest {
+
+  @Test
+  @DisplayName("1. 合併多個版本的異動，只回傳最新內容與已移除的幣別")
+  void mergesDiffsAcrossVersions() {
+    CurrencyDeltaLog log = new CurrencyDeltaLog(10);
+    CurrencySnapshot v1 = snapshot(1, coin("bitcoin", "100"), coin("dogecoin", "1"),
+        coin("ethereum", "10"));
+    CurrencySnapshot v2 = snapshot(2, coin("bitcoin", "101"), coin("dogecoin", "1"),
+        coin("ethereum", "10"));
+    CurrencySnapshot v5 = snapshot(5, coin("bitcoin", "102"), coin("ethereum", "10"));
+    log.onSnapshotPublished(new CurrencySnapshotPublishedEvent(v1, v2));
+    log.onSnapshotPublished(new CurrencySnapshotPublishedEvent(v2, v5));
+
+    CurrencyDeltaDTO delta = log.since(v5, 1);
+
+    assertFalse(delta.isFull());
+    assertEquals(5, delta.getVersion());
+    assertEquals(1, delta.getCurrencies().size());
+    assertEquals(0, new BigDecimal("102").compareTo(delta.getCurrencies().get(0).getRate()));
+    assertEquals(Collections.singletonList("dogecoin"), delta.getRemoved());
+    assertTrue(log.since(v5, 5).getCurrencies().isEmpty());
+  }
+
+  @Test
+  @DisplayName("2. 版本超出保留範圍或不明時回傳完整清單")
+  void fullResyncOutsideRing() {
+    CurrencyDeltaLog log = new CurrencyDeltaLog(1);
+    CurrencySnapshot v1 = snapshot(1, coin("bitcoin", "100"));
+    CurrencySnapshot v2 = snapshot(2, coin("bitcoin", "101"));
+    CurrencySnapshot v3 = snapshot(3, coin("bitcoin", "102"));
+    log.onSnapshotPublished(new CurrencySnapshotPublishedEvent(v1, v2));
+    log.onSnapshotPublished(new CurrencySnapshotPublishedEvent(v2, v3));
+
+    assertTrue(log.since(v3, 1).isFull());
+    assertTrue(log.since(v3, 42).isFull());
+    assertFalse(log.since(v3, 2).isFull());
+  }
+
+  private static CurrencySnapshot snapshot(long version, CurrencyInfoDTO... currencies) {
+    return new CurrencySnapshot(version, 1L, 0L, "[]", Arrays.asList(currencies),
+        Collections.emptyList(), 0L);
+  }
+
+  private static CurrencyInfoDTO coin(String currency, String rate) {
+    CurrencyInfoDTO dto = new CurrencyInfoDTO();
+    dto.setCurrency(currency);
+    dto.setChineseName(currency);
+    dto.setRate(new BigDecimal(rate));
+    dto.setUpdateAt("2025/05/20 10:15:30");
+    return dto;
+  }
+}
@@ -0,0 +1,39 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.model.CurrencyMap;
+import com.example.repository.CurrencyMapRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * 直接經由 repository 寫入 currency_map 時，由 META-INF/orm.xml 註冊的 listener 同步快取。
+ */
+@SpringBootTest(properties = {
+    "coindesk.snapshot.file=",
+    "coindesk.snapshot.initial-delay-ms=3600000",
+    "coindesk.history.enabled=false",
+    "coindesk.coins.validate=false"
+})
+class CurrencyMapEntityListenerTest {
+
+  @Autowired
+  private CurrencyMapRepository repository;
+
+  @Autowired
+  private CurrencyMapCache cache;
+
+  @Test
+  @DisplayName("1. 新增與刪除實體後快取隨之更新")
+  void syncsRepositoryWrites() {
+    repository.save(new CurrencyMap("listener-coin", "測試幣"));
+    assertTrue(cache.contains("listener-coin"));
+
+    repository.deleteById("listener-coin");
+    assertFalse(cache.contains("listener-coin"));
+  }
+}
@@ -0,0 +1,145 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.client.ChunkedMarketsFetcher;
+import com.example.client.CoingeckoClient;
+import com.example.client.CoingeckoMarketsParser;
+import com.example.client.UpstreamCircuitBreaker;
+import com.example.metrics.StageMetrics;
+import com.example.model.CurrencyMap;
+import com.example.repository.CurrencyMapRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * 以 mock 的 CoinGecko client 驗證快照更新失敗時的處理，每個幣別一個批次。
+ */
+class CurrencySnapshotCacheTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final StageMetrics stageMetrics = new StageMetrics(registry);
+  private final CoingeckoClient client = mock(CoingeckoClient.class);
+  private final CurrencyMapRepository repository = mock(CurrencyMapRepository.class);
+  private final Map<String, String> rates = new ConcurrentHashMap<>();
+  private final List<CurrencySnapshotPublishedEvent> events = new ArrayList<>();
+
+  private CurrencyMapCache currencyMapCache;
+  private ChunkedMarketsFetcher fetcher;
+  private CurrencySnapshotCache cache;
+
+  @BeforeEach
+  void setUp() {
+    when(repository.findAll()).thenReturn(Arrays.asList(new CurrencyMap("bitcoin", "比特幣"),
+        new CurrencyMap("ethereum", "以太幣")));
+    when(client.fetchMarkets(any(), any(), anyBoolean())).thenAnswer(invocation -> {
+      StringBuilder body = new StringBuilder("[");
+      for (String id : invocation.<Collection<String>>getArgument(0)) {
+        String rate = rates.get(id);
+        if (rate == null) {
+          throw new ResourceAccessException("timeout");
+        }
+        if (rate.isEmpty()) {
+          continue;
+        }
+        if (body.length() > 1) {
+          body.append(',');
+        }
+        body.append("{\"id\":\"").append(id).append("\",\"current_price\":").append(rate)
+            .append(",\"last_updated\":\"2024-01-01T00:00:00.000Z\"}");
+      }
+      return body.append(']').toString();
+    });
+    currencyMapCache = new CurrencyMapCache(repository, stageMetrics);
+    currencyMapCache.reload();
+    fetcher = new ChunkedMarketsFetcher(client, new UpstreamCircuitBreaker(registry, 5, 30_000L),
+        1, 2);
+    cache = newCache(300_000L);
+  }
+
+  private CurrencySnapshotCache newCache(long maxStalenessMs) {
+    return new CurrencySnapshotCache(fetcher, currencyMapCache,
+        new CoingeckoMarketsParser(new ObjectMapper()),
+        new QuoteRateCache(null, null, stageMetrics, "", 600_000L),
+        new ClusterCoordinator(null, false, "node", 15_000L),
+        event -> events.add((CurrencySnapshotPublishedEvent) event), stageMetrics,
+        30_000L, maxStalenessMs, 3000L);
+  }
+
+  @AfterEach
+  void tearDown() {
+    cache.shutdown();
+    fetcher.shutdown();
+  }
+
+  @Test
+  @DisplayName("1. 部分批次失敗時，失敗批次的幣別沿用上一版資料，不視為移除")
+  void failedChunksCarryForward() {
+    rates.put("bitcoin", "3000000");
+    rates.put("ethereum", "100000");
+    cache.scheduledRefresh();
+
+    rates.remove("bitcoin");
+    rates.put("ethereum", "110000");
+    cache.scheduledRefresh();
+
+    CurrencySnapshot snapshot = cache.peek();
+    assertEquals(2, snapshot.getCurrencies().size());
+    assertEquals(new BigDecimal("3000000"), snapshot.find("bitcoin").getRate());
+    assertEquals(new BigDecimal("110000"), snapshot.find("ethereum").getRate());
+    assertEquals(1, snapshot.getFailedChunkCount());
+    CurrencySnapshotPublishedEvent event = events.get(events.size() - 1);
+    assertTrue(snapshot.removedSince(event.getPrevious()).isEmpty());
+    assertEquals(1, snapshot.changedSince(event.getPrevious()).size());
+  }
+
+  @Test
+  @DisplayName("2. 上游回應無法解析時回傳過期的快照，不回傳錯誤")
+  void unparsableResponseFallsBackToStale() throws Exception {
+    cache.shutdown();
+    cache = newCache(1L);
+    rates.put("bitcoin", "3000000");
+    rates.put("ethereum", "100000");
+    cache.scheduledRefresh();
+    CurrencySnapshot expired = cache.peek();
+    Thread.sleep(10);
+
+    rates.put("bitcoin", "\"n/a\"");
+    assertSame(expired, cache.get());
+  }
+
+  @Test
+  @DisplayName("3. 上游未回傳任何幣別時保留目前快照並回傳過期資料")
+  void emptyResponseKeepsSnapshot() throws Exception {
+    cache.shutdown();
+    cache = newCache(1L);
+    rates.put("bitcoin", "3000000");
+    rates.put("ethereum", "100000");
+    cache.scheduledRefresh();
+    CurrencySnapshot expired = cache.peek();
+    Thread.sleep(10);
+
+    rates.put("bitcoin", "");
+    rates.put("ethereum", "");
+    assertSame(expired, cache.get());
+    assertSame(expired, cache.peek());
+  }
+}
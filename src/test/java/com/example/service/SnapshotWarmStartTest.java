@@ -0,0 +1,66 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.dto.CurrencyInfoDTO;
+import com.example.model.CurrencyMap;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SnapshotWarmStartTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  @DisplayName("1. 快照與對應表寫入檔案後可完整讀回")
+  void roundTrip() throws IOException {
+    CurrencyMap bitcoin = new CurrencyMap("bitcoin", "比特幣");
+    bitcoin.setCreateAt(LocalDateTime.of(2025, 5, 20, 10, 15, 30, 123_000_000));
+    CurrencyInfoDTO rated = new CurrencyInfoDTO();
+    rated.setCurrency("bitcoin");
+    rated.setChineseName("比特幣");
+    rated.setRate(new BigDecimal("3012345.1200"));
+    rated.setUpdateAt("2025/05/20 10:15:30");
+    CurrencyInfoDTO unrated = new CurrencyInfoDTO();
+    unrated.setCurrency("delisted");
+    Path file = directory.resolve("nested/snapshot.bin");
+
+    SnapshotWarmStart.write(file, new SnapshotWarmStart.SavedSnapshot(1000L, 2000L,
+        Collections.singletonList(bitcoin), Arrays.asList(rated, unrated),
+        Collections.singletonMap("twd", new BigDecimal("3000000.5")), "[{\"id\":\"bitcoin\"}]"));
+    SnapshotWarmStart.SavedSnapshot read = SnapshotWarmStart.read(file);
+
+    assertEquals(1000L, read.fetchedAt);
+    assertEquals(2000L, read.mappingModifiedAt);
+    assertEquals("比特幣", read.mappings.get(0).getChineseName());
+    assertEquals(bitcoin.getCreateAt(), read.mappings.get(0).getCreateAt());
+    assertNull(read.mappings.get(0).getUpdateAt());
+    assertEquals(new BigDecimal("3012345.1200"), read.currencies.get(0).getRate());
+    assertEquals("2025/05/20 10:15:30", read.currencies.get(0).getUpdateAt());
+    assertNull(read.currencies.get(1).getRate());
+    assertNull(read.currencies.get(1).getChineseName());
+    assertEquals(new BigDecimal("3000000.5"), read.quoteRates.get("twd"));
+    assertEquals("[{\"id\":\"bitcoin\"}]", read.rawData);
+  }
+
+  @Test
+  @DisplayName("2. 無法辨識的檔案讀取失敗")
+  void rejectsUnknownFormat() throws IOException {
+    Path file = directory.resolve("snapshot.bin");
+    Files.write(file, "not a snapshot".getBytes(StandardCharsets.UTF_8));
+
+    assertThrows(IOException.class, () -> SnapshotWarmStart.read(file));
+  }
+}